@@ -16,20 +16,26 @@ class ScopedProxyBeanDefinitionDecorator implements BeanDefinitionDecorator {
 
 	private static final String PROXY_TARGET_CLASS = "proxy-target-class";
 
+	private static final String CACHE_TARGET = "cache-target";
+
 
 	@Override
 	public BeanDefinitionHolder decorate(Node node, BeanDefinitionHolder definition, ParserContext parserContext) {
 		boolean proxyTargetClass = true;
+		boolean cacheTarget = false;
 		if (node instanceof Element) {
 			Element ele = (Element) node;
 			if (ele.hasAttribute(PROXY_TARGET_CLASS)) {
 				proxyTargetClass = Boolean.valueOf(ele.getAttribute(PROXY_TARGET_CLASS));
 			}
+			if (ele.hasAttribute(CACHE_TARGET)) {
+				cacheTarget = Boolean.valueOf(ele.getAttribute(CACHE_TARGET));
+			}
 		}
 
 		// 注册原始bean定义，因为它将由作用域代理引用，并且与工具相关 (validation, navigation).
 		BeanDefinitionHolder holder =
-				ScopedProxyUtils.createScopedProxy(definition, parserContext.getRegistry(), proxyTargetClass);
+				ScopedProxyUtils.createScopedProxy(definition, parserContext.getRegistry(), proxyTargetClass, cacheTarget);
 		String targetBeanName = ScopedProxyUtils.getTargetBeanName(definition.getBeanName());
 		parserContext.getReaderContext().fireComponentRegistered(
 				new BeanComponentDefinition(definition.getBeanDefinition(), targetBeanName));
@@ -6,6 +6,7 @@ import org.springframework.aop.framework.AopInfrastructureBean;
 import org.springframework.aop.framework.ProxyConfig;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.DelegatingIntroductionInterceptor;
+import org.springframework.aop.target.CachingBeanTargetSource;
 import org.springframework.aop.target.SimpleBeanTargetSource;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -28,7 +29,7 @@ import org.springframework.util.ClassUtils;
 public class ScopedProxyFactoryBean extends ProxyConfig implements FactoryBean<Object>, BeanFactoryAware {
 
 	/** 管理作用域的TargetSource */
-	private final SimpleBeanTargetSource scopedTargetSource = new SimpleBeanTargetSource();
+	private SimpleBeanTargetSource scopedTargetSource = new SimpleBeanTargetSource();
 
 	/** 目标bean的名称 */
 	private String targetBeanName;
@@ -50,6 +51,18 @@ public class ScopedProxyFactoryBean extends ProxyConfig implements FactoryBean<O
 		this.scopedTargetSource.setTargetBeanName(targetBeanName);
 	}
 
+	/**
+	 * 设置是否在当前请求的生命周期内缓存目标对象,
+	 * 而不是在每次方法调用时都从BeanFactory获取.
+	 * <p>默认是"false". 有关详细信息, 请参阅{@link CachingBeanTargetSource}.
+	 */
+	public void setCacheTarget(boolean cacheTarget) {
+		if (cacheTarget != (this.scopedTargetSource instanceof CachingBeanTargetSource)) {
+			this.scopedTargetSource = (cacheTarget ? new CachingBeanTargetSource() : new SimpleBeanTargetSource());
+			this.scopedTargetSource.setTargetBeanName(this.targetBeanName);
+		}
+	}
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		if (!(beanFactory instanceof ConfigurableBeanFactory)) {
@@ -73,7 +86,9 @@ public class ScopedProxyFactoryBean extends ProxyConfig implements FactoryBean<O
 		}
 
 		// 添加仅在ScopedObject上实现方法的引入.
-		ScopedObject scopedObject = new DefaultScopedObject(cbf, this.scopedTargetSource.getTargetBeanName());
+		ScopedObject scopedObject = (this.scopedTargetSource instanceof CachingBeanTargetSource ?
+				new CachingScopedObject(cbf, (CachingBeanTargetSource) this.scopedTargetSource) :
+				new DefaultScopedObject(cbf, this.scopedTargetSource.getTargetBeanName()));
 		pf.addAdvice(new DelegatingIntroductionInterceptor(scopedObject));
 
 		// 添加AopInfrastructureBean标记以指示作用域代理本身不受自动代理的约束! 只有它的目标bean受约束.
@@ -103,4 +118,25 @@ public class ScopedProxyFactoryBean extends ProxyConfig implements FactoryBean<O
 	public boolean isSingleton() {
 		return true;
 	}
+
+
+	/**
+	 * {@link DefaultScopedObject}的扩展, 在从作用域中删除目标对象时, 使缓存的目标失效.
+	 */
+	@SuppressWarnings("serial")
+	private static class CachingScopedObject extends DefaultScopedObject {
+
+		private final CachingBeanTargetSource targetSource;
+
+		public CachingScopedObject(ConfigurableBeanFactory beanFactory, CachingBeanTargetSource targetSource) {
+			super(beanFactory, targetSource.getTargetBeanName());
+			this.targetSource = targetSource;
+		}
+
+		@Override
+		public void removeFromScope() {
+			super.removeFromScope();
+			this.targetSource.invalidateCachedTarget();
+		}
+	}
 }
@@ -28,6 +28,23 @@ public abstract class ScopedProxyUtils {
 	public static BeanDefinitionHolder createScopedProxy(BeanDefinitionHolder definition,
 			BeanDefinitionRegistry registry, boolean proxyTargetClass) {
 
+		return createScopedProxy(definition, registry, proxyTargetClass, false);
+	}
+
+	/**
+	 * 为提供的目标bean生成作用域代理, 使用内部名称注册目标bean并在作用域代理上设置“targetBeanName”.
+	 * 
+	 * @param definition 原始的bean定义
+	 * @param registry bean定义注册表
+	 * @param proxyTargetClass 是否创建目标类代理
+	 * @param cacheTarget 是否在当前请求的生命周期内缓存获取到的目标
+	 * (see {@link ScopedProxyFactoryBean#setCacheTarget})
+	 * 
+	 * @return 作用域代理定义
+	 */
+	public static BeanDefinitionHolder createScopedProxy(BeanDefinitionHolder definition,
+			BeanDefinitionRegistry registry, boolean proxyTargetClass, boolean cacheTarget) {
+
 		String originalBeanName = definition.getBeanName();
 		BeanDefinition targetDefinition = definition.getBeanDefinition();
 		String targetBeanName = getTargetBeanName(originalBeanName);
@@ -47,6 +64,9 @@ public abstract class ScopedProxyUtils {
 		else {
 			proxyDefinition.getPropertyValues().add("proxyTargetClass", Boolean.FALSE);
 		}
+		if (cacheTarget) {
+			proxyDefinition.getPropertyValues().add("cacheTarget", Boolean.TRUE);
+		}
 
 		// 从原始bean定义复制autowire设置.
 		proxyDefinition.setAutowireCandidate(targetDefinition.isAutowireCandidate());
@@ -0,0 +1,173 @@
+package org.springframework.aop.target;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.Scope;
+import org.springframework.core.NamedThreadLocal;
+
+/**
+ * {@link SimpleBeanTargetSource}的变体, 在当前请求的生命周期内缓存获取到的作用域目标bean,
+ * 因此对于请求或会话作用域的目标, 每次调用都不需要访问目标作用域.
+ *
+ * <p>获取到的目标保存在当前线程的持有者中, 代理直接读取, 不经过任何属性查找.
+ * 持有者绑定到上下文作用域 (默认为"request"作用域) 的当前上下文对象的标识,
+ * 即当前请求的{@code RequestAttributes}; 上下文作用域通过
+ * {@link Scope#resolveContextualObject}以{@value #CONTEXT_REFERENCE_KEY}为键解析该对象.
+ * 持有者只在上下文对象相同时才会被使用, 并通过{@link Scope#registerDestructionCallback}
+ * 在请求完成时清除, 因此容器重用的线程不会看到之前请求的目标.
+ * 如果上下文作用域未注册, 或者当前没有活动的上下文 (e.g. 在请求之外),
+ * 则与{@link SimpleBeanTargetSource}一样, 每次调用都从BeanFactory获取目标bean.
+ *
+ * <p>请注意, 直接从作用域中删除目标bean (而不是通过作用域代理的
+ * {@link org.springframework.aop.scope.ScopedObject#removeFromScope()}), 不会使当前请求缓存的目标失效.
+ */
+@SuppressWarnings("serial")
+public class CachingBeanTargetSource extends SimpleBeanTargetSource {
+
+	/**
+	 * 用于缓存目标的默认作用域名称, 即请求作用域.
+	 */
+	public static final String DEFAULT_CONTEXT_SCOPE_NAME = "request";
+
+	/**
+	 * 上下文作用域将其解析为当前上下文对象的键,
+	 * 与{@code org.springframework.web.context.request.RequestAttributes#REFERENCE_REQUEST_ATTRIBUTES}相同.
+	 */
+	public static final String CONTEXT_REFERENCE_KEY = "requestAttributes";
+
+	private static final String DESTRUCTION_CALLBACK_PREFIX = CachingBeanTargetSource.class.getName() + ".TARGET.";
+
+
+	private String contextScopeName = DEFAULT_CONTEXT_SCOPE_NAME;
+
+	private transient volatile Scope contextScope;
+
+	private transient volatile boolean contextScopeResolved;
+
+	private transient ThreadLocal<TargetHolder> currentTarget = new NamedThreadLocal<TargetHolder>("Cached scoped target");
+
+
+	/**
+	 * 设置用于缓存目标的作用域的名称. 该作用域的每个上下文必须只属于单个请求.
+	 * <p>默认是{@value #DEFAULT_CONTEXT_SCOPE_NAME}.
+	 */
+	public void setContextScopeName(String contextScopeName) {
+		this.contextScopeName = contextScopeName;
+		this.contextScopeResolved = false;
+	}
+
+	/**
+	 * 返回用于缓存目标的作用域的名称.
+	 */
+	public String getContextScopeName() {
+		return this.contextScopeName;
+	}
+
+
+	@Override
+	public Object getTarget() throws Exception {
+		Scope scope = getContextScope();
+		if (scope == null) {
+			return super.getTarget();
+		}
+		Object context;
+		try {
+			context = scope.resolveContextualObject(CONTEXT_REFERENCE_KEY);
+		}
+		catch (IllegalStateException ex) {
+			// 当前没有活动的上下文, e.g. 在请求之外
+			return super.getTarget();
+		}
+		if (context == null) {
+			return super.getTarget();
+		}
+
+		TargetHolder holder = this.currentTarget.get();
+		if (holder != null) {
+			Object target = holder.target;
+			if (target != null && holder.context == context) {
+				return target;
+			}
+		}
+
+		Object target = super.getTarget();
+		final TargetHolder newHolder = new TargetHolder(context, target);
+		this.currentTarget.set(newHolder);
+		scope.registerDestructionCallback(DESTRUCTION_CALLBACK_PREFIX + getTargetBeanName(), new Runnable() {
+			@Override
+			public void run() {
+				newHolder.clear();
+				if (currentTarget.get() == newHolder) {
+					currentTarget.remove();
+				}
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * 使当前请求缓存的目标失效, e.g. 在从作用域中删除目标bean之后.
+	 */
+	public void invalidateCachedTarget() {
+		TargetHolder holder = this.currentTarget.get();
+		if (holder != null) {
+			holder.clear();
+			this.currentTarget.remove();
+		}
+	}
+
+	/**
+	 * 返回用于缓存目标的作用域, 如果不能缓存则返回{@code null}.
+	 */
+	private Scope getContextScope() {
+		if (!this.contextScopeResolved) {
+			Scope scope = null;
+			BeanFactory beanFactory = getBeanFactory();
+			if (beanFactory instanceof ConfigurableBeanFactory && this.contextScopeName != null) {
+				scope = ((ConfigurableBeanFactory) beanFactory).getRegisteredScope(this.contextScopeName);
+			}
+			this.contextScope = scope;
+			this.contextScopeResolved = true;
+		}
+		return this.contextScope;
+	}
+
+
+	//---------------------------------------------------------------------
+	// Serialization support
+	//---------------------------------------------------------------------
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		// 依靠默认序列化, 只需在反序列化后初始化状态.
+		ois.defaultReadObject();
+
+		// 初始化瞬态字段.
+		this.currentTarget = new NamedThreadLocal<TargetHolder>("Cached scoped target");
+	}
+
+
+	/**
+	 * 当前线程缓存的目标, 以及它所属的上下文对象.
+	 * 请求完成时可能会在其他线程上被清除, 因此字段是volatile.
+	 */
+	private static class TargetHolder {
+
+		private volatile Object context;
+
+		private volatile Object target;
+
+		public TargetHolder(Object context, Object target) {
+			this.context = context;
+			this.target = target;
+		}
+
+		public void clear() {
+			this.target = null;
+			this.context = null;
+		}
+	}
+
+}
@@ -236,7 +236,7 @@ public class AnnotationConfigUtils {
 			return definition;
 		}
 		boolean proxyTargetClass = scopedProxyMode.equals(ScopedProxyMode.TARGET_CLASS);
-		return ScopedProxyCreator.createScopedProxy(definition, registry, proxyTargetClass);
+		return ScopedProxyCreator.createScopedProxy(definition, registry, proxyTargetClass, metadata.isCacheTarget());
 	}
 
 	static AnnotationAttributes attributesFor(AnnotatedTypeMetadata metadata, Class<?> annotationClass) {
@@ -57,6 +57,9 @@ public class AnnotationScopeMetadataResolver implements ScopeMetadataResolver {
 					proxyMode = this.defaultProxyMode;
 				}
 				metadata.setScopedProxyMode(proxyMode);
+				if (attributes.containsKey("cacheTarget")) {
+					metadata.setCacheTarget(attributes.getBoolean("cacheTarget"));
+				}
 			}
 		}
 		return metadata;
@@ -22,6 +22,7 @@ import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
 import org.springframework.cglib.core.ClassGenerator;
 import org.springframework.cglib.core.Constants;
 import org.springframework.cglib.core.DefaultGeneratorStrategy;
+import org.springframework.cglib.core.PregeneratedClassSupport;
 import org.springframework.cglib.core.SpringNamingPolicy;
 import org.springframework.cglib.proxy.Callback;
 import org.springframework.cglib.proxy.CallbackFilter;
@@ -101,6 +102,9 @@ class ConfigurationClassEnhancer {
 		enhancer.setStrategy(new BeanFactoryAwareGeneratorStrategy(classLoader));
 		enhancer.setCallbackFilter(CALLBACK_FILTER);
 		enhancer.setCallbackTypes(CALLBACK_FILTER.getCallbackTypes());
+		PregeneratedClassSupport.configureEnhancer(enhancer, configSuperClass,
+				new Class<?>[] {EnhancedConfiguration.class}, CALLBACK_FILTER, CALLBACK_FILTER.getCallbackTypes(),
+				classLoader);
 		return enhancer;
 	}
 
@@ -0,0 +1,111 @@
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cglib.core.PregeneratedClassSupport;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 在构建时预先生成CGLIB代理类的命令行工具.
+ *
+ * <p>启动并刷新给定配置的应用上下文, 将{@code @Configuration}类和代理bean的所有在此期间生成的CGLIB子类,
+ * 连同{@value PregeneratedClassSupport#INDEX_RESOURCE_LOCATION}索引文件写入输出目录.
+ * 运行时, {@code ConfigurationClassEnhancer}和{@code CglibAopProxy}会加载这些类, 而不是重新生成;
+ * 未预先生成的类 (e.g. 仅在延迟初始化bean或原型bean中使用的代理) 仍然在运行时生成.
+ *
+ * <p>参数: 输出目录, 后跟一个或多个{@code @Configuration}类名或XML配置位置. 例如, 在Gradle中:
+ *
+ * <pre class="code">
+ * task pregenerateProxyClasses(type: JavaExec) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     main = "org.springframework.context.annotation.ProxyClassPregenerator"
+ *     args = [sourceSets.main.output.classesDir, "com.example.AppConfig"]
+ * }
+ * jar.dependsOn pregenerateProxyClasses</pre>
+ *
+ * <p>请注意, 刷新会实例化所有非延迟的单例bean; 配置应该能够在构建环境中启动.
+ */
+public class ProxyClassPregenerator {
+
+	private final File outputDirectory;
+
+
+	/**
+	 * @param outputDirectory 写入生成的类的目录
+	 */
+	public ProxyClassPregenerator(File outputDirectory) {
+		this.outputDirectory = outputDirectory;
+	}
+
+
+	/**
+	 * 为给定的配置生成代理类.
+	 *
+	 * @param configLocations {@code @Configuration}类名或XML配置位置
+	 *
+	 * @throws ClassNotFoundException 如果找不到配置类
+	 */
+	public void generate(String... configLocations) throws ClassNotFoundException {
+		File indexFile = new File(this.outputDirectory, PregeneratedClassSupport.INDEX_RESOURCE_LOCATION);
+		if (indexFile.exists()) {
+			indexFile.delete();
+		}
+
+		File previousDirectory = PregeneratedClassSupport.getDumpDirectory();
+		PregeneratedClassSupport.setDumpDirectory(this.outputDirectory);
+		try {
+			ConfigurableApplicationContext context = createApplicationContext(configLocations);
+			context.close();
+		}
+		finally {
+			PregeneratedClassSupport.setDumpDirectory(previousDirectory);
+		}
+	}
+
+	/**
+	 * 为给定的配置创建并刷新应用上下文.
+	 */
+	protected ConfigurableApplicationContext createApplicationContext(String... configLocations)
+			throws ClassNotFoundException {
+
+		List<Class<?>> annotatedClasses = new ArrayList<Class<?>>();
+		List<String> xmlLocations = new ArrayList<String>();
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		for (String configLocation : configLocations) {
+			if (configLocation.endsWith(".xml")) {
+				xmlLocations.add(configLocation);
+			}
+			else {
+				annotatedClasses.add(ClassUtils.forName(configLocation, classLoader));
+			}
+		}
+
+		if (xmlLocations.isEmpty()) {
+			return new AnnotationConfigApplicationContext(annotatedClasses.toArray(new Class<?>[annotatedClasses.size()]));
+		}
+		GenericXmlApplicationContext context = new GenericXmlApplicationContext();
+		context.load(xmlLocations.toArray(new String[xmlLocations.size()]));
+		if (!annotatedClasses.isEmpty()) {
+			new AnnotatedBeanDefinitionReader(context).register(
+					annotatedClasses.toArray(new Class<?>[annotatedClasses.size()]));
+		}
+		context.refresh();
+		return context;
+	}
+
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: ProxyClassPregenerator <outputDirectory> <configClassOrXmlLocation>...");
+			System.exit(1);
+		}
+		String[] configLocations = new String[args.length - 1];
+		System.arraycopy(args, 1, configLocations, 0, configLocations.length);
+		new ProxyClassPregenerator(new File(args[0])).generate(configLocations);
+	}
+
+}
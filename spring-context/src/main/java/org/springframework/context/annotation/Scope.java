@@ -50,4 +50,13 @@ public @interface Scope {
 	 */
 	ScopedProxyMode proxyMode() default ScopedProxyMode.DEFAULT;
 
+	/**
+	 * 作用域代理是否在当前请求的生命周期内缓存获取到的目标, 而不是每次调用都访问目标作用域.
+	 * <p>默认{@code false}. 仅在创建作用域代理时有效; 类似于Spring XML中
+	 * {@code <aop:scoped-proxy/>}的 "cache-target"属性.
+	 * 
+	 * @see org.springframework.aop.target.CachingBeanTargetSource
+	 */
+	boolean cacheTarget() default false;
+
 }
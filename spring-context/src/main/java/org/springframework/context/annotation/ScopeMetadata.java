@@ -14,6 +14,8 @@ public class ScopeMetadata {
 
 	private ScopedProxyMode scopedProxyMode = ScopedProxyMode.NO;
 
+	private boolean cacheTarget = false;
+
 
 	/**
 	 * 设置作用域的名称.
@@ -45,4 +47,18 @@ public class ScopeMetadata {
 		return this.scopedProxyMode;
 	}
 
+	/**
+	 * 设置作用域代理是否在当前请求的生命周期内缓存获取到的目标.
+	 */
+	public void setCacheTarget(boolean cacheTarget) {
+		this.cacheTarget = cacheTarget;
+	}
+
+	/**
+	 * 返回作用域代理是否在当前请求的生命周期内缓存获取到的目标.
+	 */
+	public boolean isCacheTarget() {
+		return this.cacheTarget;
+	}
+
 }
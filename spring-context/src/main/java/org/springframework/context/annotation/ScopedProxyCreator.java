@@ -15,6 +15,12 @@ class ScopedProxyCreator {
 		return ScopedProxyUtils.createScopedProxy(definitionHolder, registry, proxyTargetClass);
 	}
 
+	public static BeanDefinitionHolder createScopedProxy(BeanDefinitionHolder definitionHolder,
+			BeanDefinitionRegistry registry, boolean proxyTargetClass, boolean cacheTarget) {
+
+		return ScopedProxyUtils.createScopedProxy(definitionHolder, registry, proxyTargetClass, cacheTarget);
+	}
+
 	public static String getTargetBeanName(String originalBeanName) {
 		return ScopedProxyUtils.getTargetBeanName(originalBeanName);
 	}
@@ -0,0 +1,60 @@
+package org.springframework.cglib.core;
+
+/**
+ * {@link SpringNamingPolicy}的变体, 使用给定的稳定指纹替代CGLIB缓存键的{@code hashCode()}生成类名.
+ *
+ * <p>CGLIB缓存键通常包含基于对象标识的哈希值, 因此生成的类名在不同的JVM运行之间并不稳定.
+ * 基于指纹的类名则只取决于代理的结构, 从而允许在运行时加载构建时预先生成的类.
+ */
+public class FingerprintNamingPolicy extends SpringNamingPolicy {
+
+	private final String fingerprint;
+
+
+	/**
+	 * @param fingerprint 描述代理结构的稳定指纹 (e.g. 十六进制摘要)
+	 */
+	public FingerprintNamingPolicy(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+
+	/**
+	 * 返回给定前缀的基本类名, i.e. 不包含用于避免名称冲突的后缀.
+	 *
+	 * @param prefix 类名前缀 (通常是超类的名称)
+	 */
+	public String getBaseClassName(String prefix) {
+		if (prefix == null) {
+			prefix = "org.springframework.cglib.empty.Object";
+		}
+		else if (prefix.startsWith("java")) {
+			prefix = "$" + prefix;
+		}
+		return prefix + "$$Enhancer" + getTag() + "$$" + this.fingerprint;
+	}
+
+	@Override
+	public String getClassName(String prefix, String source, Object key, Predicate names) {
+		String base = getBaseClassName(prefix);
+		String attempt = base;
+		int index = 2;
+		while (names.evaluate(attempt)) {
+			attempt = base + "_" + index++;
+		}
+		return attempt;
+	}
+
+
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof FingerprintNamingPolicy &&
+				this.fingerprint.equals(((FingerprintNamingPolicy) other).fingerprint)));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.fingerprint.hashCode();
+	}
+
+}
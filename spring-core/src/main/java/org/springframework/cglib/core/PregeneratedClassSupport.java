@@ -0,0 +1,409 @@
+package org.springframework.cglib.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassReader;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.core.SpringProperties;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * 支持在构建时预先生成CGLIB子类, 并在运行时加载它们, 而不是重新生成.
+ *
+ * <p>通过{@link #configureEnhancer}配置的{@link Enhancer}使用基于代理结构的稳定类名
+ * (参见{@link FingerprintNamingPolicy}). 如果该类名列在类路径上的{@value #INDEX_RESOURCE_LOCATION}文件中,
+ * 则尝试直接加载已存在的类; 否则回退到常规的运行时生成.
+ *
+ * <p>如果设置了{@value #DUMP_DIRECTORY_PROPERTY_NAME}属性 (或调用了{@link #setDumpDirectory}),
+ * 则在运行时生成的所有类都会写入该目录, 并记录在其中的索引文件中. 这通常在构建期间通过
+ * {@code org.springframework.context.annotation.ProxyClassPregenerator}执行.
+ *
+ * <p>如果类路径上不存在索引文件, 且未设置转储目录, 则不会进行任何额外的处理.
+ */
+public abstract class PregeneratedClassSupport {
+
+	/**
+	 * 列出预先生成的类名的索引文件的位置.
+	 * <p>可以存在于多个JAR文件中.
+	 */
+	public static final String INDEX_RESOURCE_LOCATION = "META-INF/spring-cglib.classes";
+
+	/**
+	 * 指定用于写入生成的类的目录的属性名称.
+	 */
+	public static final String DUMP_DIRECTORY_PROPERTY_NAME = "spring.cglib.pregenerate.dir";
+
+
+	private static final Log logger = LogFactory.getLog(PregeneratedClassSupport.class);
+
+	private static final Map<ClassLoader, Set<String>> indexCache =
+			new ConcurrentReferenceHashMap<ClassLoader, Set<String>>();
+
+	private static final String CALLBACK_FIELD_PREFIX = "CGLIB$CALLBACK_";
+
+	/** 代理结构 -> 类名和预先生成的类的可用性 */
+	private static final Map<ShapeKey, Resolution> resolutionCache =
+			new ConcurrentReferenceHashMap<ShapeKey, Resolution>();
+
+	private static volatile File dumpDirectory;
+
+	static {
+		String dir = SpringProperties.getProperty(DUMP_DIRECTORY_PROPERTY_NAME);
+		if (dir != null) {
+			dumpDirectory = new File(dir);
+		}
+	}
+
+
+	/**
+	 * 以编程方式设置用于写入生成的类的目录.
+	 *
+	 * @param directory 目标目录, 或{@code null}停止写入
+	 */
+	public static void setDumpDirectory(File directory) {
+		dumpDirectory = directory;
+		resolutionCache.clear();
+	}
+
+	/**
+	 * 返回当前用于写入生成的类的目录.
+	 *
+	 * @return 目标目录, 或{@code null}
+	 */
+	public static File getDumpDirectory() {
+		return dumpDirectory;
+	}
+
+	/**
+	 * 为预先生成的类配置给定的{@link Enhancer}.
+	 * <p>必须在所有其他设置之后调用, 因为会包装当前的{@link GeneratorStrategy}.
+	 *
+	 * @param enhancer 要配置的Enhancer
+	 * @param superclass 代理超类
+	 * @param interfaces 代理实现的接口
+	 * @param filter 用于确定代理类结构的回调过滤器
+	 * @param callbackTypes 回调类型
+	 * @param classLoader 用于定义代理类的ClassLoader (可以是{@code null}, 使用超类的ClassLoader)
+	 */
+	public static void configureEnhancer(Enhancer enhancer, Class<?> superclass, Class<?>[] interfaces,
+			CallbackFilter filter, Class<?>[] callbackTypes, ClassLoader classLoader) {
+
+		File dir = dumpDirectory;
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : superclass.getClassLoader());
+		if (classLoaderToUse == null) {
+			classLoaderToUse = ClassUtils.getDefaultClassLoader();
+			if (classLoaderToUse == null) {
+				return;
+			}
+		}
+		Set<String> index = getIndex(classLoaderToUse);
+		if (index.isEmpty() && dir == null) {
+			return;
+		}
+
+		ShapeKey key = new ShapeKey(superclass, interfaces, filter, callbackTypes, classLoaderToUse);
+		Resolution resolution = resolutionCache.get(key);
+		if (resolution == null) {
+			resolution = resolve(superclass, interfaces, filter, callbackTypes, classLoaderToUse, index);
+			resolutionCache.put(key, resolution);
+		}
+		if (resolution.namingPolicy == null) {
+			return;
+		}
+		enhancer.setNamingPolicy(resolution.namingPolicy);
+		if (resolution.pregenerated) {
+			enhancer.setAttemptLoad(true);
+		}
+		else if (dir != null) {
+			enhancer.setStrategy(new RecordingGeneratorStrategy(enhancer.getStrategy(), dir));
+		}
+	}
+
+	/**
+	 * 确定给定代理结构的类名, 以及是否存在可以加载的预先生成的类.
+	 * <p>结果按代理结构缓存, 因此指纹 (需要对所有方法调用回调过滤器) 对每个结构只计算一次.
+	 */
+	private static Resolution resolve(Class<?> superclass, Class<?>[] interfaces, CallbackFilter filter,
+			Class<?>[] callbackTypes, ClassLoader classLoader, Set<String> index) {
+
+		FingerprintNamingPolicy namingPolicy =
+				new FingerprintNamingPolicy(fingerprint(superclass, interfaces, filter, callbackTypes));
+		String className = namingPolicy.getBaseClassName(superclass.getName());
+		if (!index.contains(className)) {
+			return new Resolution(namingPolicy, false);
+		}
+		try {
+			Class<?> pregenerated = ClassUtils.forName(className, classLoader);
+			if (matchesShape(pregenerated, superclass, interfaces, callbackTypes)) {
+				return new Resolution(namingPolicy, true);
+			}
+			logger.warn("Ignoring pre-generated CGLIB class [" + className + "] since it does not match " +
+					"the expected proxy structure; falling back to runtime generation");
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Unable to load pre-generated CGLIB class [" + className + "]: " + ex);
+			}
+		}
+		// 不使用基于指纹的名称, 以免与已存在 (或无法加载) 的同名类冲突
+		return new Resolution(null, false);
+	}
+
+	/**
+	 * 检查预先生成的类是否具有预期的超类, 接口和回调类型.
+	 */
+	private static boolean matchesShape(Class<?> pregenerated, Class<?> superclass, Class<?>[] interfaces,
+			Class<?>[] callbackTypes) {
+
+		if (pregenerated.getSuperclass() != superclass) {
+			return false;
+		}
+		if (interfaces != null && !Arrays.asList(pregenerated.getInterfaces()).containsAll(Arrays.asList(interfaces))) {
+			return false;
+		}
+		for (int i = 0; i <= callbackTypes.length; i++) {
+			Field field;
+			try {
+				field = pregenerated.getDeclaredField(CALLBACK_FIELD_PREFIX + i);
+			}
+			catch (NoSuchFieldException ex) {
+				field = null;
+			}
+			if (i == callbackTypes.length) {
+				// 不能有多余的回调
+				return (field == null);
+			}
+			if (field == null || !field.getType().isAssignableFrom(callbackTypes[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 计算给定代理结构的稳定指纹 (MD5十六进制摘要).
+	 * <p>只考虑类名, 方法签名和回调过滤器的结果, 因此与对象标识无关.
+	 */
+	private static String fingerprint(Class<?> superclass, Class<?>[] interfaces,
+			CallbackFilter filter, Class<?>[] callbackTypes) {
+
+		List<Method> methods = new ArrayList<Method>();
+		Enhancer.getMethods(superclass, interfaces, methods);
+		List<String> signatures = new ArrayList<String>(methods.size());
+		for (Method method : methods) {
+			int mod = method.getModifiers();
+			if (!Modifier.isStatic(mod) && !Modifier.isFinal(mod) && !Modifier.isPrivate(mod)) {
+				signatures.add(method.toString() + "=" + filter.accept(method));
+			}
+		}
+		Collections.sort(signatures);
+
+		StringBuilder shape = new StringBuilder(superclass.getName());
+		if (interfaces != null) {
+			for (Class<?> ifc : interfaces) {
+				shape.append(';').append(ifc.getName());
+			}
+		}
+		for (Class<?> callbackType : callbackTypes) {
+			shape.append(';').append(callbackType.getName());
+		}
+		for (String signature : signatures) {
+			shape.append('\n').append(signature);
+		}
+		try {
+			return DigestUtils.md5DigestAsHex(shape.toString().getBytes("UTF-8"));
+		}
+		catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static Set<String> getIndex(ClassLoader classLoader) {
+		Set<String> index = indexCache.get(classLoader);
+		if (index == null) {
+			index = loadIndex(classLoader);
+			indexCache.put(classLoader, index);
+		}
+		return index;
+	}
+
+	private static Set<String> loadIndex(ClassLoader classLoader) {
+		Set<String> classNames = new HashSet<String>();
+		try {
+			Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE_LOCATION);
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if (line.length() > 0 && !line.startsWith("#")) {
+							classNames.add(line);
+						}
+					}
+				}
+				finally {
+					reader.close();
+				}
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Unable to load pre-generated CGLIB class index from location [" +
+					INDEX_RESOURCE_LOCATION + "]", ex);
+		}
+		return (classNames.isEmpty() ? Collections.<String>emptySet() : classNames);
+	}
+
+	private static void writeClass(byte[] bytes, File dir) {
+		String internalName = new ClassReader(bytes).getClassName();
+		try {
+			File file = new File(dir, internalName + ".class");
+			file.getParentFile().mkdirs();
+			FileCopyUtils.copy(bytes, file);
+			synchronized (PregeneratedClassSupport.class) {
+				File indexFile = new File(dir, INDEX_RESOURCE_LOCATION);
+				indexFile.getParentFile().mkdirs();
+				Writer writer = new FileWriter(indexFile, true);
+				try {
+					writer.write(internalName.replace('/', '.') + "\n");
+				}
+				finally {
+					writer.close();
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Wrote pre-generated CGLIB class to [" + file + "]");
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Unable to write pre-generated CGLIB class [" + internalName + "] to [" + dir + "]", ex);
+		}
+	}
+
+
+	/**
+	 * 代理结构的缓存键. 回调过滤器按{@code equals}比较, 与CGLIB自身的类缓存相同.
+	 */
+	private static final class ShapeKey {
+
+		private final Class<?> superclass;
+
+		private final Class<?>[] interfaces;
+
+		private final CallbackFilter filter;
+
+		private final Class<?>[] callbackTypes;
+
+		private final ClassLoader classLoader;
+
+		public ShapeKey(Class<?> superclass, Class<?>[] interfaces, CallbackFilter filter,
+				Class<?>[] callbackTypes, ClassLoader classLoader) {
+
+			this.superclass = superclass;
+			this.interfaces = interfaces;
+			this.filter = filter;
+			this.callbackTypes = callbackTypes;
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ShapeKey)) {
+				return false;
+			}
+			ShapeKey otherKey = (ShapeKey) other;
+			return (this.superclass == otherKey.superclass && this.classLoader == otherKey.classLoader &&
+					ObjectUtils.nullSafeEquals(this.interfaces, otherKey.interfaces) &&
+					ObjectUtils.nullSafeEquals(this.callbackTypes, otherKey.callbackTypes) &&
+					ObjectUtils.nullSafeEquals(this.filter, otherKey.filter));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.superclass.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.interfaces)) * 29 +
+					ObjectUtils.nullSafeHashCode(this.filter);
+		}
+	}
+
+
+	/**
+	 * 代理结构的类名和预先生成的类是否可用.
+	 */
+	private static final class Resolution {
+
+		/** 基于指纹的命名策略, 如果不使用基于指纹的名称, 则为{@code null} */
+		private final FingerprintNamingPolicy namingPolicy;
+
+		private final boolean pregenerated;
+
+		public Resolution(FingerprintNamingPolicy namingPolicy, boolean pregenerated) {
+			this.namingPolicy = namingPolicy;
+			this.pregenerated = pregenerated;
+		}
+	}
+
+
+	/**
+	 * 委托给原始策略的{@link GeneratorStrategy}, 将生成的字节码写入转储目录.
+	 */
+	private static class RecordingGeneratorStrategy implements GeneratorStrategy {
+
+		private final GeneratorStrategy delegate;
+
+		private final File dir;
+
+		public RecordingGeneratorStrategy(GeneratorStrategy delegate, File dir) {
+			this.delegate = delegate;
+			this.dir = dir;
+		}
+
+		@Override
+		public byte[] generate(ClassGenerator cg) throws Exception {
+			byte[] bytes = this.delegate.generate(cg);
+			writeClass(bytes, this.dir);
+			return bytes;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof RecordingGeneratorStrategy &&
+					this.delegate.equals(((RecordingGeneratorStrategy) other).delegate)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.delegate.hashCode();
+		}
+	}
+
+}
@@ -12,6 +12,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.util.MimeType.SpecificityComparator;
 
@@ -31,6 +32,12 @@ public abstract class MimeTypeUtils {
 
 	private static Charset US_ASCII = Charset.forName("US-ASCII");
 
+	/** 已解析的mime类型缓存的最大条目数; 超过此值时清除缓存 */
+	private static final int CACHE_LIMIT = 256;
+
+	/** 按原始字符串缓存的已解析mime类型 (MimeType实例是不可变的) */
+	private static final Map<String, MimeType> cachedMimeTypes = new ConcurrentHashMap<String, MimeType>(64);
+
 	/**
 	 * {@link #sortBySpecificity(List)}使用的比较器.
 	 */
@@ -213,6 +220,7 @@ public abstract class MimeTypeUtils {
 
 	/**
 	 * 将给定的String解析为单个{@code MimeType}.
+	 * <p>最近解析的结果按原始字符串缓存, 因此重复解析相同的值将返回相同的实例.
 	 * 
 	 * @param mimeType 要解析的字符串
 	 * 
@@ -223,7 +231,19 @@ public abstract class MimeTypeUtils {
 		if (!StringUtils.hasLength(mimeType)) {
 			throw new InvalidMimeTypeException(mimeType, "'mimeType' must not be empty");
 		}
+		MimeType cached = cachedMimeTypes.get(mimeType);
+		if (cached != null) {
+			return cached;
+		}
+		MimeType result = parseMimeTypeInternal(mimeType);
+		if (cachedMimeTypes.size() >= CACHE_LIMIT) {
+			cachedMimeTypes.clear();
+		}
+		cachedMimeTypes.put(mimeType, result);
+		return result;
+	}
 
+	private static MimeType parseMimeTypeInternal(String mimeType) {
 		int index = mimeType.indexOf(';');
 		String fullType = (index >= 0 ? mimeType.substring(0, index) : mimeType).trim();
 		if (fullType.isEmpty()) {
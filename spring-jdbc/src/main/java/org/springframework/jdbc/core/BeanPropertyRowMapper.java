@@ -189,6 +189,24 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		}
 	}
 
+	/**
+	 * 返回与给定列名匹配的bean属性.
+	 * 
+	 * @param column 列名 (或标签), 如结果集元数据中所示
+	 * 
+	 * @return 匹配的属性, 或{@code null}
+	 */
+	protected PropertyDescriptor getMappedProperty(String column) {
+		return this.mappedFields.get(lowerCaseName(column.replaceAll(" ", "")));
+	}
+
+	/**
+	 * 返回所有可映射的bean属性的名称.
+	 */
+	protected Set<String> getMappedProperties() {
+		return this.mappedProperties;
+	}
+
 	/**
 	 * 将camelCase中的名称转换为小写的下划线名称.
 	 * 任何大写字母都会转换为带有前面下划线的小写字母.
@@ -0,0 +1,328 @@
+package org.springframework.jdbc.core;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * 执行{@link JdbcTemplate#bulkUpdate}: 从迭代器中读取参数, 并以固定大小的JDBC批处理写入.
+ *
+ * <p>对于单个分区, 在调用线程中使用一个PreparedStatement执行所有批处理 (参与当前事务).
+ * 对于多个分区, 调用线程读取参数并将批处理放入容量为{@code 2 * parallelism}的有界队列,
+ * 由相应数量的工作线程各自使用一个独立的连接执行; 因此内存中只保留有限数量的批处理.
+ * 无论成功或失败, 都会等待所有工作线程结束后才返回.
+ *
+ * <p>仅供{@link JdbcTemplate}内部使用.
+ */
+class BulkUpdateExecutor<T> {
+
+	private static final long POLL_TIMEOUT_MILLIS = 100;
+
+	private static final Log logger = LogFactory.getLog(BulkUpdateExecutor.class);
+
+	private static final TaskExecutor defaultTaskExecutor = new SimpleAsyncTaskExecutor("JdbcBulkUpdate-");
+
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final String sql;
+
+	private final int batchSize;
+
+	private final ParameterizedPreparedStatementSetter<T> pss;
+
+	private final BulkUpdateListener listener;
+
+
+	public BulkUpdateExecutor(JdbcTemplate jdbcTemplate, String sql, int batchSize,
+			ParameterizedPreparedStatementSetter<T> pss, BulkUpdateListener listener) {
+
+		this.jdbcTemplate = jdbcTemplate;
+		this.sql = sql;
+		this.batchSize = batchSize;
+		this.pss = pss;
+		this.listener = listener;
+	}
+
+
+	/**
+	 * 执行批量更新.
+	 *
+	 * @param batchArgs 参数的迭代器
+	 * @param parallelism 并行使用的连接数
+	 * @param taskExecutor 执行工作线程的TaskExecutor (如果为{@code null}, 则使用默认的执行器)
+	 */
+	public BulkUpdateResult execute(final Iterator<T> batchArgs, int parallelism, TaskExecutor taskExecutor) {
+		long startTime = System.nanoTime();
+		List<PartitionWorker> workers;
+		if (parallelism == 1) {
+			PartitionWorker worker = new PartitionWorker(0, new BatchSource<T>() {
+				@Override
+				public List<T> nextBatch() {
+					return readBatch(batchArgs);
+				}
+			});
+			this.jdbcTemplate.execute(this.sql, worker);
+			workers = new ArrayList<PartitionWorker>(1);
+			workers.add(worker);
+		}
+		else {
+			workers = executeInParallel(batchArgs, parallelism,
+					(taskExecutor != null ? taskExecutor : defaultTaskExecutor));
+		}
+
+		long rowCount = 0;
+		long batchCount = 0;
+		long updateCount = 0;
+		for (PartitionWorker worker : workers) {
+			rowCount += worker.rowCount;
+			batchCount += worker.batchCount;
+			updateCount += worker.updateCount;
+		}
+		return new BulkUpdateResult(rowCount, batchCount, updateCount, System.nanoTime() - startTime);
+	}
+
+	private List<PartitionWorker> executeInParallel(Iterator<T> batchArgs, int parallelism, TaskExecutor taskExecutor) {
+		final QueueBatchSource source = new QueueBatchSource(parallelism * 2);
+		final CountDownLatch done = new CountDownLatch(parallelism);
+		List<PartitionWorker> workers = new ArrayList<PartitionWorker>(parallelism);
+		try {
+			for (int i = 0; i < parallelism; i++) {
+				final PartitionWorker worker = new PartitionWorker(i, source);
+				taskExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							jdbcTemplate.execute(sql, worker);
+						}
+						catch (Throwable ex) {
+							source.abort(ex);
+						}
+						finally {
+							done.countDown();
+						}
+					}
+				});
+				workers.add(worker);
+			}
+
+			List<T> batch;
+			while ((batch = readBatch(batchArgs)) != null) {
+				if (!source.put(batch, done)) {
+					break;
+				}
+			}
+			for (int i = 0; i < parallelism; i++) {
+				if (!source.put(source.endOfInput, done)) {
+					break;
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			source.abort(new DataAccessResourceFailureException("Interrupted while executing bulk update", ex));
+		}
+		catch (Throwable ex) {
+			source.abort(ex);
+		}
+		finally {
+			// 未能启动的工作线程不会结束
+			for (int i = workers.size(); i < parallelism; i++) {
+				done.countDown();
+			}
+			awaitWorkers(done);
+		}
+
+		Throwable failure = source.failure.get();
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw new UndeclaredThrowableException(failure);
+		}
+		return workers;
+	}
+
+	/**
+	 * 等待所有工作线程结束, 以便在返回或抛出异常时不再使用任何连接.
+	 * 如果等待时被中断, 则继续等待, 并在之后恢复中断状态.
+	 */
+	private void awaitWorkers(CountDownLatch done) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			}
+			catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 从迭代器中读取下一个批处理的参数, 如果没有更多参数, 则返回{@code null}.
+	 */
+	private List<T> readBatch(Iterator<T> batchArgs) {
+		if (!batchArgs.hasNext()) {
+			return null;
+		}
+		List<T> batch = new ArrayList<T>(this.batchSize);
+		while (batch.size() < this.batchSize && batchArgs.hasNext()) {
+			batch.add(batchArgs.next());
+		}
+		return batch;
+	}
+
+
+	/**
+	 * 批处理的来源.
+	 */
+	private interface BatchSource<T> {
+
+		/**
+		 * 返回下一个批处理, 如果没有更多批处理, 则返回{@code null}.
+		 */
+		List<T> nextBatch() throws SQLException;
+	}
+
+
+	/**
+	 * 由调用线程填充, 并由工作线程消费的有界批处理队列.
+	 */
+	private class QueueBatchSource implements BatchSource<T> {
+
+		final List<T> endOfInput = new ArrayList<T>(0);
+
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		private final BlockingQueue<List<T>> queue;
+
+		public QueueBatchSource(int capacity) {
+			this.queue = new ArrayBlockingQueue<List<T>>(capacity);
+		}
+
+		/**
+		 * 将批处理放入队列; 如果批量更新已中止, 或所有工作线程都已结束, 则返回{@code false}.
+		 */
+		public boolean put(List<T> batch, CountDownLatch done) throws InterruptedException {
+			while (!this.queue.offer(batch, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (this.failure.get() != null || done.getCount() == 0) {
+					return false;
+				}
+			}
+			return (this.failure.get() == null);
+		}
+
+		public void abort(Throwable ex) {
+			this.failure.compareAndSet(null, ex);
+			this.queue.clear();
+		}
+
+		@Override
+		public List<T> nextBatch() throws SQLException {
+			try {
+				while (this.failure.get() == null) {
+					List<T> batch = this.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+					if (batch != null) {
+						return (batch != this.endOfInput ? batch : null);
+					}
+				}
+				return null;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new DataAccessResourceFailureException("Interrupted while waiting for bulk update batch", ex);
+			}
+		}
+	}
+
+
+	/**
+	 * 在单个PreparedStatement上执行来自给定来源的所有批处理.
+	 */
+	private class PartitionWorker implements PreparedStatementCallback<Object> {
+
+		private final int partition;
+
+		private final BatchSource<T> source;
+
+		long rowCount;
+
+		long batchCount;
+
+		long updateCount;
+
+		public PartitionWorker(int partition, BatchSource<T> source) {
+			this.partition = partition;
+			this.source = source;
+		}
+
+		@Override
+		public Object doInPreparedStatement(PreparedStatement ps) throws SQLException {
+			boolean batchSupported = JdbcUtils.supportsBatchUpdates(ps.getConnection());
+			if (!batchSupported && this.partition == 0) {
+				logger.warn("JDBC Driver does not support Batch updates; resorting to single statement execution");
+			}
+			List<T> batch;
+			while ((batch = this.source.nextBatch()) != null) {
+				long batchStart = System.nanoTime();
+				int[] updateCounts;
+				if (batchSupported) {
+					for (T obj : batch) {
+						pss.setValues(ps, obj);
+						ps.addBatch();
+					}
+					updateCounts = ps.executeBatch();
+				}
+				else {
+					updateCounts = new int[batch.size()];
+					for (int i = 0; i < updateCounts.length; i++) {
+						pss.setValues(ps, batch.get(i));
+						updateCounts[i] = ps.executeUpdate();
+					}
+				}
+				long elapsedNanos = System.nanoTime() - batchStart;
+
+				if (logger.isDebugEnabled()) {
+					logger.debug("Executed SQL batch update #" + this.batchCount + " on partition " + this.partition +
+							" with " + batch.size() + " items in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms");
+				}
+				if (listener != null) {
+					listener.batchCompleted(this.partition, (int) this.batchCount, updateCounts, elapsedNanos);
+				}
+				this.rowCount += batch.size();
+				this.batchCount++;
+				for (int count : updateCounts) {
+					if (count > 0) {
+						this.updateCount += count;
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+package org.springframework.jdbc.core;
+
+/**
+ * {@link JdbcTemplate#bulkUpdate}的回调接口, 在每个JDBC批处理执行后被通知.
+ *
+ * <p>对于并行的批量更新, 会从多个线程同时调用; 实现必须是线程安全的.
+ */
+public interface BulkUpdateListener {
+
+	/**
+	 * 在批处理成功执行后调用.
+	 *
+	 * @param partition 执行批处理的分区 (i.e. 连接) 的索引, 从0开始
+	 * @param batchIndex 批处理在该分区中的索引, 从0开始
+	 * @param updateCounts 批处理中每个更新影响的行数,
+	 * 可能包含{@link java.sql.Statement#SUCCESS_NO_INFO}
+	 * @param elapsedNanos 绑定参数并执行批处理所用的时间, 以纳秒为单位
+	 */
+	void batchCompleted(int partition, int batchIndex, int[] updateCounts, long elapsedNanos);
+
+}
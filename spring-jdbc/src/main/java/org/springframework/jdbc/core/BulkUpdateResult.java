@@ -0,0 +1,79 @@
+package org.springframework.jdbc.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JdbcTemplate#bulkUpdate}的汇总结果.
+ *
+ * <p>为了在大量数据的情况下保持恒定的内存, 不保留每个批处理的更新计数;
+ * 如果需要, 使用{@link BulkUpdateListener}.
+ */
+public class BulkUpdateResult {
+
+	private final long rowCount;
+
+	private final long batchCount;
+
+	private final long updateCount;
+
+	private final long elapsedNanos;
+
+
+	/**
+	 * @param rowCount 处理的参数行数
+	 * @param batchCount 执行的批处理数
+	 * @param updateCount 受影响的总行数 (只计算驱动程序报告的计数)
+	 * @param elapsedNanos 批量更新的总时间, 以纳秒为单位
+	 */
+	public BulkUpdateResult(long rowCount, long batchCount, long updateCount, long elapsedNanos) {
+		this.rowCount = rowCount;
+		this.batchCount = batchCount;
+		this.updateCount = updateCount;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+
+	/**
+	 * 返回处理的参数行数.
+	 */
+	public long getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * 返回执行的批处理数.
+	 */
+	public long getBatchCount() {
+		return this.batchCount;
+	}
+
+	/**
+	 * 返回受影响的总行数.
+	 * <p>驱动程序返回{@link java.sql.Statement#SUCCESS_NO_INFO}的更新不计算在内.
+	 */
+	public long getUpdateCount() {
+		return this.updateCount;
+	}
+
+	/**
+	 * 返回批量更新的总时间, 以毫秒为单位.
+	 */
+	public long getElapsedTime() {
+		return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+	}
+
+	/**
+	 * 返回批量更新的总时间, 以纳秒为单位.
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+
+	@Override
+	public String toString() {
+		return "BulkUpdateResult: rows=" + this.rowCount + ", batches=" + this.batchCount +
+				", updates=" + this.updateCount + ", time=" + getElapsedTime() + "ms";
+	}
+
+}
@@ -0,0 +1,469 @@
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link BeanPropertyRowMapper}的变体, 每种ResultSet结构只解析一次列到属性的映射.
+ *
+ * <p>第一次映射某个ResultSet时, 根据结果集元数据为每一列确定对应的setter方法,
+ * 以及与属性类型相匹配的JDBC访问方法 (e.g. {@code getLong}, {@code getString}).
+ * 之后的每一行只通过列索引读取值并直接调用setter, 而不查询元数据, 不创建{@code BeanWrapper},
+ * 也不再逐行匹配列名. 如果后续的ResultSet具有相同的列, 则重用已解析的映射.
+ *
+ * <p>值的转换: 与属性类型不兼容的值通过{@link #setConversionService ConversionService}转换 (如果已设置);
+ * 否则抛出{@link TypeMismatchException}. 与{@link BeanPropertyRowMapper}不同,
+ * 不会调用{@link #initBeanWrapper}或{@link #getColumnValue}, 因此不支持自定义的PropertyEditor.
+ *
+ * <p>此类的实例是线程安全的, 可以在多个查询之间共享.
+ *
+ * @param <T> 结果类型
+ */
+public class IndexedBeanPropertyRowMapper<T> extends BeanPropertyRowMapper<T> {
+
+	/** 缓存计划数量的上限, 超出时不再缓存新的计划 */
+	private static final int PLAN_CACHE_LIMIT = 256;
+
+
+	/** 列名 -> 映射计划, 在所有线程之间共享 */
+	private final Map<List<String>, MappingPlan> planCache =
+			new ConcurrentHashMap<List<String>, MappingPlan>(16);
+
+	/** 当前线程正在映射的ResultSet及其计划 */
+	private final ThreadLocal<BoundPlan> currentPlan = new NamedThreadLocal<BoundPlan>("Current mapping plan");
+
+
+	/**
+	 * 为bean样式配置创建一个新的{@code IndexedBeanPropertyRowMapper}.
+	 */
+	public IndexedBeanPropertyRowMapper() {
+		super();
+	}
+
+	/**
+	 * 创建一个新的{@code IndexedBeanPropertyRowMapper}, 接受目标bean中未填充的属性.
+	 *
+	 * @param mappedClass 每行应映射到的类
+	 */
+	public IndexedBeanPropertyRowMapper(Class<T> mappedClass) {
+		super(mappedClass);
+	}
+
+	/**
+	 * @param mappedClass 每行应映射到的类
+	 * @param checkFullyPopulated 是否严格验证所有bean属性都已从相应的数据库字段映射
+	 */
+	public IndexedBeanPropertyRowMapper(Class<T> mappedClass, boolean checkFullyPopulated) {
+		super(mappedClass, checkFullyPopulated);
+	}
+
+
+	@Override
+	public void setMappedClass(Class<T> mappedClass) {
+		super.setMappedClass(mappedClass);
+		this.planCache.clear();
+	}
+
+	@Override
+	public void setCheckFullyPopulated(boolean checkFullyPopulated) {
+		super.setCheckFullyPopulated(checkFullyPopulated);
+		this.planCache.clear();
+	}
+
+	@Override
+	public void setConversionService(ConversionService conversionService) {
+		super.setConversionService(conversionService);
+		this.planCache.clear();
+	}
+
+
+	/**
+	 * 使用已解析的映射计划提取当前行的值.
+	 */
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		Assert.state(getMappedClass() != null, "Mapped class was not specified");
+		MappingPlan plan = getMappingPlan(rs, rowNumber);
+		@SuppressWarnings("unchecked")
+		T mappedObject = (T) BeanUtils.instantiateClass(plan.constructor);
+		for (PropertyMapping mapping : plan.mappings) {
+			setPropertyValue(mapping, rs, mappedObject, rowNumber);
+		}
+		return mappedObject;
+	}
+
+	/**
+	 * 返回给定ResultSet的映射计划.
+	 * <p>ResultSet与计划的绑定只保存在当前线程中, 因此并发的查询不会互相干扰.
+	 * 在每个ResultSet的第一行检查元数据, 并按列名查找已缓存的计划, 仅当没有时才解析新的计划.
+	 */
+	private MappingPlan getMappingPlan(ResultSet rs, int rowNumber) throws SQLException {
+		BoundPlan bound = this.currentPlan.get();
+		if (bound != null && rowNumber > 0 && bound.isFor(rs)) {
+			return bound.plan;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		String[] columns = new String[columnCount];
+		for (int index = 1; index <= columnCount; index++) {
+			columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+		}
+		List<String> key = Arrays.asList(columns);
+		MappingPlan plan = this.planCache.get(key);
+		if (plan == null) {
+			plan = buildMappingPlan(columns);
+			if (this.planCache.size() < PLAN_CACHE_LIMIT) {
+				this.planCache.put(key, plan);
+			}
+		}
+		this.currentPlan.set(new BoundPlan(rs, plan));
+		return plan;
+	}
+
+	/**
+	 * 为给定的列解析映射计划.
+	 */
+	private MappingPlan buildMappingPlan(String[] columns) {
+		Class<T> mappedClass = getMappedClass();
+		Set<String> populatedProperties = (isCheckFullyPopulated() ? new HashSet<String>() : null);
+		List<PropertyMapping> mappings = new ArrayList<PropertyMapping>(columns.length);
+
+		for (int index = 1; index <= columns.length; index++) {
+			String column = columns[index - 1];
+			PropertyDescriptor pd = getMappedProperty(column);
+			if (pd != null) {
+				Method writeMethod = pd.getWriteMethod();
+				if (writeMethod == null) {
+					throw new DataRetrievalFailureException(
+							"Unable to map column '" + column + "' to property '" + pd.getName() + "'");
+				}
+				ReflectionUtils.makeAccessible(writeMethod);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+				mappings.add(new PropertyMapping(index, column, pd.getName(), pd.getPropertyType(), writeMethod));
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
+				}
+			}
+			else {
+				if (logger.isDebugEnabled()) {
+					logger.debug("No property found for column '" + column + "'");
+				}
+			}
+		}
+
+		if (populatedProperties != null && !populatedProperties.equals(getMappedProperties())) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of class [" + mappedClass.getName() + "]: " +
+					getMappedProperties());
+		}
+
+		Constructor<T> constructor;
+		try {
+			constructor = mappedClass.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			throw new InvalidDataAccessApiUsageException(
+					"Mapped class [" + mappedClass.getName() + "] does not have a no-arg constructor", ex);
+		}
+		return new MappingPlan(columns, constructor, mappings.toArray(new PropertyMapping[mappings.size()]));
+	}
+
+
+	/**
+	 * 读取给定映射的列值, 并设置到映射的对象上.
+	 */
+	private void setPropertyValue(PropertyMapping mapping, ResultSet rs, Object mappedObject, int rowNumber)
+			throws SQLException {
+
+		Object value = mapping.reader.read(rs, mapping.index, mapping.propertyType);
+		if (value == null) {
+			if (mapping.propertyType.isPrimitive()) {
+				if (!isPrimitivesDefaultedForNullValue()) {
+					throw new TypeMismatchException((Object) null, mapping.propertyType);
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Skipping null value for row " + rowNumber + " and column '" + mapping.column +
+							"' when setting primitive property '" + mapping.propertyName + "' on object: " +
+							mappedObject);
+				}
+				return;
+			}
+		}
+		else if (mapping.reader == ColumnReader.OBJECT && !ClassUtils.isAssignableValue(mapping.propertyType, value)) {
+			ConversionService conversionService = getConversionService();
+			if (conversionService == null || !conversionService.canConvert(value.getClass(), mapping.propertyType)) {
+				throw new TypeMismatchException(value, mapping.propertyType);
+			}
+			value = conversionService.convert(value, mapping.propertyType);
+		}
+		try {
+			mapping.writeMethod.invoke(mappedObject, value);
+		}
+		catch (InvocationTargetException ex) {
+			throw new DataRetrievalFailureException("Unable to map column '" + mapping.column +
+					"' to property '" + mapping.propertyName + "'", ex.getTargetException());
+		}
+		catch (IllegalAccessException ex) {
+			throw new DataRetrievalFailureException("Unable to map column '" + mapping.column +
+					"' to property '" + mapping.propertyName + "'", ex);
+		}
+	}
+
+
+	/**
+	 * 为特定的列结构解析的映射计划. 不可变; 只记录最近使用它的ResultSet.
+	 */
+	private static class MappingPlan {
+
+		final String[] columns;
+
+		final Constructor<?> constructor;
+
+		final PropertyMapping[] mappings;
+
+		public MappingPlan(String[] columns, Constructor<?> constructor, PropertyMapping[] mappings) {
+			this.columns = columns;
+			this.constructor = constructor;
+			this.mappings = mappings;
+		}
+	}
+
+
+	/**
+	 * 当前线程中映射计划与ResultSet的绑定.
+	 */
+	private static class BoundPlan {
+
+		private final WeakReference<ResultSet> resultSet;
+
+		final MappingPlan plan;
+
+		public BoundPlan(ResultSet rs, MappingPlan plan) {
+			this.resultSet = new WeakReference<ResultSet>(rs);
+			this.plan = plan;
+		}
+
+		public boolean isFor(ResultSet rs) {
+			return (this.resultSet.get() == rs);
+		}
+	}
+
+
+	/**
+	 * 单个列到bean属性的映射.
+	 */
+	private static class PropertyMapping {
+
+		final int index;
+
+		final String column;
+
+		final String propertyName;
+
+		final Class<?> propertyType;
+
+		final Method writeMethod;
+
+		final ColumnReader reader;
+
+		public PropertyMapping(int index, String column, String propertyName, Class<?> propertyType,
+				Method writeMethod) {
+
+			this.index = index;
+			this.column = column;
+			this.propertyName = propertyName;
+			this.propertyType = propertyType;
+			this.writeMethod = writeMethod;
+			this.reader = ColumnReader.forType(propertyType);
+		}
+	}
+
+
+	/**
+	 * 根据属性类型选择的JDBC访问方法. {@code null}值 (根据{@code wasNull}) 返回为{@code null}.
+	 */
+	private enum ColumnReader {
+
+		STRING {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getString(index);
+			}
+		},
+
+		BOOLEAN {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				boolean value = rs.getBoolean(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		BYTE {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				byte value = rs.getByte(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		SHORT {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				short value = rs.getShort(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		INT {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				int value = rs.getInt(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		LONG {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				long value = rs.getLong(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		FLOAT {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				float value = rs.getFloat(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		DOUBLE {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				double value = rs.getDouble(index);
+				return (rs.wasNull() ? null : value);
+			}
+		},
+
+		BIG_DECIMAL {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getBigDecimal(index);
+			}
+		},
+
+		BYTES {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getBytes(index);
+			}
+		},
+
+		SQL_DATE {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getDate(index);
+			}
+		},
+
+		SQL_TIME {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getTime(index);
+			}
+		},
+
+		TIMESTAMP {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getTimestamp(index);
+			}
+		},
+
+		/**
+		 * 回退到{@link JdbcUtils#getResultSetValue(ResultSet, int, Class)}, 可能需要进一步转换.
+		 */
+		OBJECT {
+			@Override
+			public Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return JdbcUtils.getResultSetValue(rs, index, type);
+			}
+		};
+
+		public abstract Object read(ResultSet rs, int index, Class<?> type) throws SQLException;
+
+		public static ColumnReader forType(Class<?> type) {
+			if (String.class == type) {
+				return STRING;
+			}
+			else if (boolean.class == type || Boolean.class == type) {
+				return BOOLEAN;
+			}
+			else if (byte.class == type || Byte.class == type) {
+				return BYTE;
+			}
+			else if (short.class == type || Short.class == type) {
+				return SHORT;
+			}
+			else if (int.class == type || Integer.class == type) {
+				return INT;
+			}
+			else if (long.class == type || Long.class == type) {
+				return LONG;
+			}
+			else if (float.class == type || Float.class == type) {
+				return FLOAT;
+			}
+			else if (double.class == type || Double.class == type) {
+				return DOUBLE;
+			}
+			else if (BigDecimal.class == type) {
+				return BIG_DECIMAL;
+			}
+			else if (byte[].class == type) {
+				return BYTES;
+			}
+			else if (java.sql.Date.class == type) {
+				return SQL_DATE;
+			}
+			else if (java.sql.Time.class == type) {
+				return SQL_TIME;
+			}
+			else if (java.sql.Timestamp.class == type || java.util.Date.class == type) {
+				return TIMESTAMP;
+			}
+			return OBJECT;
+		}
+	}
+
+}
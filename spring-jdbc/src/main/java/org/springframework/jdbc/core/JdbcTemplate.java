@@ -16,11 +16,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.sql.DataSource;
 
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
@@ -103,6 +105,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/** 执行并行批量更新的工作线程的TaskExecutor */
+	private TaskExecutor bulkUpdateTaskExecutor;
+
 
 	/**
 	 * 为bean使用构造一个新的JdbcTemplate.
@@ -264,6 +269,22 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * 设置用于执行并行{@link #bulkUpdate 批量更新}的工作线程的TaskExecutor.
+	 * <p>执行器必须异步执行任务, 并且能够同时执行每次批量更新的所有工作线程.
+	 * 默认为{@link org.springframework.core.task.SimpleAsyncTaskExecutor}, 为每个工作线程启动一个新线程.
+	 */
+	public void setBulkUpdateTaskExecutor(TaskExecutor bulkUpdateTaskExecutor) {
+		this.bulkUpdateTaskExecutor = bulkUpdateTaskExecutor;
+	}
+
+	/**
+	 * 返回用于执行并行批量更新的工作线程的TaskExecutor.
+	 */
+	public TaskExecutor getBulkUpdateTaskExecutor() {
+		return this.bulkUpdateTaskExecutor;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -987,6 +1008,68 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		});
 	}
 
+	/**
+	 * 使用提供的SQL语句, 以固定大小的批处理写入迭代器提供的所有参数.
+	 * 参数的值将使用ParameterizedPreparedStatementSetter设置.
+	 * <p>与{@link #batchUpdate(String, Collection, int, ParameterizedPreparedStatementSetter)}不同,
+	 * 参数是按需从迭代器中读取的, 因此内存中最多只保留一个批处理.
+	 * 
+	 * @param sql 要执行的SQL语句
+	 * @param batchArgs 提供参数的迭代器
+	 * @param batchSize 批处理的大小
+	 * @param pss 要使用的ParameterizedPreparedStatementSetter
+	 * 
+	 * @return 汇总的行数, 批处理数和时间
+	 * @throws DataAccessException 如果发出更新有任何问题
+	 */
+	public <T> BulkUpdateResult bulkUpdate(String sql, Iterator<T> batchArgs, int batchSize,
+			ParameterizedPreparedStatementSetter<T> pss) throws DataAccessException {
+
+		return bulkUpdate(sql, batchArgs, batchSize, 1, pss, null);
+	}
+
+	/**
+	 * 使用提供的SQL语句, 以固定大小的批处理写入迭代器提供的所有参数, 可选地使用多个并行连接.
+	 * <p>如果{@code parallelism}大于1, 批处理将分配给相应数量的工作线程,
+	 * 每个线程使用从DataSource获取的独立连接 (i.e. <i>不</i>参与当前事务, 每个连接按其自身的提交模式提交).
+	 * 如果任何批处理失败, 批量更新将中止, 其他连接上已执行的批处理不会回滚.
+	 * 工作线程由{@link #setBulkUpdateTaskExecutor bulkUpdateTaskExecutor}执行; 在返回或抛出异常之前, 会等待所有工作线程结束.
+	 * 
+	 * @param sql 要执行的SQL语句
+	 * @param batchArgs 提供参数的迭代器; 只在调用线程中访问
+	 * @param batchSize 批处理的大小
+	 * @param parallelism 并行使用的连接数
+	 * @param pss 要使用的ParameterizedPreparedStatementSetter; 如果{@code parallelism}大于1, 则必须是线程安全的
+	 * @param listener 每个批处理执行后通知的监听器 (可以是{@code null})
+	 * 
+	 * @return 汇总的行数, 批处理数和时间
+	 * @throws DataAccessException 如果发出更新有任何问题
+	 */
+	public <T> BulkUpdateResult bulkUpdate(String sql, Iterator<T> batchArgs, int batchSize, int parallelism,
+			ParameterizedPreparedStatementSetter<T> pss, BulkUpdateListener listener) throws DataAccessException {
+
+		Assert.notNull(batchArgs, "Iterator of batch arguments must not be null");
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL bulk update [" + sql + "] with a batch size of " + batchSize +
+					" on " + parallelism + " connection(s)");
+		}
+		try {
+			BulkUpdateResult result = new BulkUpdateExecutor<T>(this, sql, batchSize, pss, listener)
+					.execute(batchArgs, parallelism, this.bulkUpdateTaskExecutor);
+			if (logger.isDebugEnabled()) {
+				logger.debug(result);
+			}
+			return result;
+		}
+		finally {
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+		}
+	}
+
 	//-------------------------------------------------------------------------
 	// Methods dealing with callable statements
 	//-------------------------------------------------------------------------
@@ -0,0 +1,339 @@
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.UsesJava8;
+import org.springframework.util.Assert;
+
+/**
+ * {@link JdbcTemplate}的扩展, 提供以延迟填充的{@link Stream}形式返回查询结果的方法.
+ *
+ * <p>与{@code query}方法不同, 这里的结果不会收集到{@code List}中:
+ * Connection, PreparedStatement 和 ResultSet在流被消费期间保持打开状态, 每次只映射一行.
+ * 语句以只向前, 只读的方式创建, 并应用{@link #setStreamFetchSize 流式获取大小},
+ * 从而能够以恒定的内存处理数百万行.
+ *
+ * <p>当流被完全消费, 或在映射期间发生异常时, 资源会自动释放.
+ * 否则, 调用者<b>必须</b>关闭流, 通常在try-with-resources块中:
+ *
+ * <pre class="code">
+ * try (Stream&lt;User&gt; users = streamingJdbcTemplate.queryForStream("select * from user", userRowMapper)) {
+ *     users.forEach(exporter::write);
+ * }</pre>
+ *
+ * <p>连接通过{@link DataSourceUtils}获取, 因此在事务中会使用事务绑定的连接.
+ * 请注意, 某些驱动程序 (e.g. PostgreSQL) 仅在事务中 (自动提交关闭时) 才真正使用基于游标的获取.
+ *
+ * <p>需要Java 8.
+ */
+@UsesJava8
+public class StreamingJdbcTemplate extends JdbcTemplate {
+
+	private int streamFetchSize = -1;
+
+
+	/**
+	 * 为bean使用构造一个新的StreamingJdbcTemplate.
+	 * <p>Note: 必须在使用实例之前设置DataSource.
+	 */
+	public StreamingJdbcTemplate() {
+		super();
+	}
+
+	/**
+	 * @param dataSource 从中获取连接的JDBC DataSource
+	 */
+	public StreamingJdbcTemplate(DataSource dataSource) {
+		super(dataSource);
+	}
+
+	/**
+	 * @param dataSource 从中获取连接的JDBC DataSource
+	 * @param lazyInit 是否延迟初始化SQLExceptionTranslator
+	 */
+	public StreamingJdbcTemplate(DataSource dataSource, boolean lazyInit) {
+		super(dataSource, lazyInit);
+	}
+
+
+	/**
+	 * 设置用于流式查询的获取大小, 覆盖一般的{@link #setFetchSize fetchSize}设置.
+	 * <p>默认是 -1, 表示使用一般的获取大小设置 (或JDBC驱动程序的默认值).
+	 * 请注意, MySQL仅在获取大小为{@code Integer.MIN_VALUE}时才逐行流式传输结果.
+	 */
+	public void setStreamFetchSize(int streamFetchSize) {
+		this.streamFetchSize = streamFetchSize;
+	}
+
+	/**
+	 * 返回用于流式查询的获取大小.
+	 */
+	public int getStreamFetchSize() {
+		return this.streamFetchSize;
+	}
+
+
+	/**
+	 * 查询给定的SQL以从SQL创建预准备语句和要绑定到查询的参数列表, 通过RowMapper将每一行映射到结果流中的对象.
+	 *
+	 * @param sql 要执行的SQL查询
+	 * @param rowMapper 每行映射一个对象的回调
+	 * @param args 绑定到查询的参数 (将其留给PreparedStatement以猜测相应的SQL类型);
+	 * 也可能包含{@link SqlParameterValue}对象, 它们不仅指示参数值, 还指示SQL类型和可选的比例
+	 *
+	 * @return 结果流, 包含映射的对象; 使用后必须关闭
+	 * @throws DataAccessException 如果查询失败
+	 */
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, Object... args)
+			throws DataAccessException {
+
+		return queryForStream(new ForwardOnlyPreparedStatementCreator(sql), newArgPreparedStatementSetter(args),
+				rowMapper);
+	}
+
+	/**
+	 * 查询给定的SQL以从SQL创建预准备语句, 和将值绑定到查询的PreparedStatementSetter实现,
+	 * 通过RowMapper将每一行映射到结果流中的对象.
+	 *
+	 * @param sql 要执行的SQL查询
+	 * @param pss 知道如何在预准备语句上设置值的对象.
+	 * 如果为{@code null}, 则假定SQL不包含绑定参数.
+	 * @param rowMapper 每行映射一个对象的回调
+	 *
+	 * @return 结果流, 包含映射的对象; 使用后必须关闭
+	 * @throws DataAccessException 如果查询失败
+	 */
+	public <T> Stream<T> queryForStream(String sql, PreparedStatementSetter pss, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(new ForwardOnlyPreparedStatementCreator(sql), pss, rowMapper);
+	}
+
+	/**
+	 * 使用预准备语句进行查询, 通过RowMapper将每一行映射到结果流中的对象.
+	 * 大多数其他{@code queryForStream}方法使用此方法.
+	 *
+	 * @param psc 在给定Connection的情况下可以创建PreparedStatement的回调处理器
+	 * @param pss 知道如何在预准备语句上设置值的对象.
+	 * 如果为{@code null}, 则假定SQL不包含绑定参数.
+	 * @param rowMapper 每行映射一个对象的回调
+	 *
+	 * @return 结果流, 包含映射的对象; 使用后必须关闭
+	 * @throws DataAccessException 如果查询失败
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, PreparedStatementSetter pss,
+			RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.notNull(psc, "PreparedStatementCreator must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		String sql = getSql(psc);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing streaming prepared SQL query" + (sql != null ? " [" + sql + "]" : ""));
+		}
+
+		Connection con = DataSourceUtils.getConnection(getDataSource());
+		ResourceCloser closer = new ResourceCloser(con);
+		boolean success = false;
+		try {
+			Connection conToUse = con;
+			if (getNativeJdbcExtractor() != null &&
+					getNativeJdbcExtractor().isNativeConnectionNecessaryForNativePreparedStatements()) {
+				conToUse = getNativeJdbcExtractor().getNativeConnection(con);
+			}
+			PreparedStatement ps = psc.createPreparedStatement(conToUse);
+			closer.statement = ps;
+			applyStatementSettings(ps);
+			if (this.streamFetchSize != -1) {
+				ps.setFetchSize(this.streamFetchSize);
+			}
+			PreparedStatement psToUse = ps;
+			if (getNativeJdbcExtractor() != null) {
+				psToUse = getNativeJdbcExtractor().getNativePreparedStatement(ps);
+			}
+			if (pss != null) {
+				pss.setValues(psToUse);
+			}
+			ResultSet rs = psToUse.executeQuery();
+			closer.resultSet = rs;
+			handleWarnings(ps);
+			ResultSet rsToUse = rs;
+			if (getNativeJdbcExtractor() != null) {
+				rsToUse = getNativeJdbcExtractor().getNativeResultSet(rs);
+			}
+			Stream<T> stream = StreamSupport.stream(
+					new ResultSetSpliterator<T>(rsToUse, rowMapper, sql, closer), false).onClose(closer);
+			success = true;
+			return stream;
+		}
+		catch (SQLException ex) {
+			// 尽早释放连接, 以避免在尚未初始化异常转换器的情况下潜在的连接池死锁.
+			closer.run();
+			throw getExceptionTranslator().translate("StreamingQuery", sql, ex);
+		}
+		finally {
+			if (psc instanceof ParameterDisposer) {
+				((ParameterDisposer) psc).cleanupParameters();
+			}
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+			if (!success) {
+				closer.run();
+			}
+		}
+	}
+
+	/**
+	 * 使用提供的SQL语句, 以固定大小的批处理写入流提供的所有参数, 可选地使用多个并行连接.
+	 * <p>流是按需消费的 (只在调用线程中), 因此内存中只保留有限数量的批处理.
+	 *
+	 * @param sql 要执行的SQL语句
+	 * @param batchArgs 提供参数的流
+	 * @param batchSize 批处理的大小
+	 * @param parallelism 并行使用的连接数
+	 * (参见{@link #bulkUpdate(String, java.util.Iterator, int, int, ParameterizedPreparedStatementSetter, BulkUpdateListener)})
+	 * @param pss 要使用的ParameterizedPreparedStatementSetter
+	 * @param listener 每个批处理执行后通知的监听器 (可以是{@code null})
+	 *
+	 * @return 汇总的行数, 批处理数和时间
+	 * @throws DataAccessException 如果发出更新有任何问题
+	 */
+	public <T> BulkUpdateResult bulkUpdate(String sql, Stream<T> batchArgs, int batchSize, int parallelism,
+			ParameterizedPreparedStatementSetter<T> pss, BulkUpdateListener listener) throws DataAccessException {
+
+		Assert.notNull(batchArgs, "Stream of batch arguments must not be null");
+		return bulkUpdate(sql, batchArgs.iterator(), batchSize, parallelism, pss, listener);
+	}
+
+	/**
+	 * 确定给定语句创建者的SQL.
+	 */
+	private static String getSql(Object sqlProvider) {
+		return (sqlProvider instanceof SqlProvider ? ((SqlProvider) sqlProvider).getSql() : null);
+	}
+
+
+	/**
+	 * 释放流使用的JDBC资源. 可以多次调用.
+	 */
+	private class ResourceCloser implements Runnable {
+
+		private Connection connection;
+
+		private PreparedStatement statement;
+
+		private ResultSet resultSet;
+
+		public ResourceCloser(Connection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void run() {
+			if (this.connection != null) {
+				JdbcUtils.closeResultSet(this.resultSet);
+				JdbcUtils.closeStatement(this.statement);
+				DataSourceUtils.releaseConnection(this.connection, getDataSource());
+				this.resultSet = null;
+				this.statement = null;
+				this.connection = null;
+			}
+		}
+	}
+
+
+	/**
+	 * 逐行遍历ResultSet的{@link Spliterator}, 通过RowMapper映射每一行.
+	 * 到达ResultSet末尾或映射失败时, 立即释放资源.
+	 */
+	private class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+		private final ResultSet resultSet;
+
+		private final RowMapper<T> rowMapper;
+
+		private final String sql;
+
+		private final ResourceCloser closer;
+
+		private int rowNum = 0;
+
+		private boolean exhausted = false;
+
+		public ResultSetSpliterator(ResultSet resultSet, RowMapper<T> rowMapper, String sql, ResourceCloser closer) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED);
+			this.resultSet = resultSet;
+			this.rowMapper = rowMapper;
+			this.sql = sql;
+			this.closer = closer;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (this.exhausted) {
+				return false;
+			}
+			try {
+				if (!this.resultSet.next()) {
+					this.exhausted = true;
+					this.closer.run();
+					return false;
+				}
+				action.accept(this.rowMapper.mapRow(this.resultSet, this.rowNum++));
+				return true;
+			}
+			catch (SQLException ex) {
+				this.exhausted = true;
+				this.closer.run();
+				throw getExceptionTranslator().translate("StreamingQuery", this.sql, ex);
+			}
+			catch (RuntimeException ex) {
+				this.exhausted = true;
+				this.closer.run();
+				throw ex;
+			}
+			catch (Error err) {
+				this.exhausted = true;
+				this.closer.run();
+				throw err;
+			}
+		}
+	}
+
+
+	/**
+	 * 创建只向前, 只读的PreparedStatement的PreparedStatementCreator, 允许使用普通的SQL语句.
+	 */
+	private static class ForwardOnlyPreparedStatementCreator implements PreparedStatementCreator, SqlProvider {
+
+		private final String sql;
+
+		public ForwardOnlyPreparedStatementCreator(String sql) {
+			Assert.notNull(sql, "SQL must not be null");
+			this.sql = sql;
+		}
+
+		@Override
+		public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+			return con.prepareStatement(this.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		}
+
+		@Override
+		public String getSql() {
+			return this.sql;
+		}
+	}
+
+}
@@ -69,6 +69,9 @@ public class CallMetaDataContext {
 	// 调用元数据的提供者
 	private CallMetaDataProvider metaDataProvider;
 
+	// 共享的元数据提供者缓存 (可选)
+	private MetaDataProviderCache metaDataCache;
+
 
 	/**
 	 * 指定用于函数返回值的名称.
@@ -211,13 +214,34 @@ public class CallMetaDataContext {
 	}
 
 
+	/**
+	 * 设置用于获取调用元数据的共享{@link MetaDataProviderCache}.
+	 * <p>默认无, 每次初始化元数据时都访问{@link java.sql.DatabaseMetaData}.
+	 */
+	public void setMetaDataCache(MetaDataProviderCache metaDataCache) {
+		this.metaDataCache = metaDataCache;
+	}
+
+	/**
+	 * 返回用于获取调用元数据的共享{@link MetaDataProviderCache}, 如果有的话.
+	 */
+	public MetaDataProviderCache getMetaDataCache() {
+		return this.metaDataCache;
+	}
+
+
 	/**
 	 * 使用数据库中的元数据初始化此类.
 	 * 
 	 * @param dataSource 用于检索元数据的DataSource
 	 */
 	public void initializeMetaData(DataSource dataSource) {
-		this.metaDataProvider = CallMetaDataProviderFactory.createMetaDataProvider(dataSource, this);
+		if (this.metaDataCache != null) {
+			this.metaDataProvider = this.metaDataCache.getCallMetaDataProvider(dataSource, this);
+		}
+		else {
+			this.metaDataProvider = CallMetaDataProviderFactory.createMetaDataProvider(dataSource, this);
+		}
 	}
 
 	/**
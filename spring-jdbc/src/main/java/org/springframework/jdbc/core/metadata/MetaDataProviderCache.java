@@ -0,0 +1,178 @@
+package org.springframework.jdbc.core.metadata;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.support.nativejdbc.NativeJdbcExtractor;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * 按{@link DataSource}共享的{@link TableMetaDataProvider}和{@link CallMetaDataProvider}缓存.
+ *
+ * <p>元数据提供者在初始化后不再改变, 因此可以在访问相同表或过程的多个
+ * {@link TableMetaDataContext}/{@link CallMetaDataContext}之间共享.
+ * 这使得短生命周期的{@code SimpleJdbcInsert}和{@code SimpleJdbcCall}实例 (e.g. 每个请求或租户一个实例)
+ * 在编译时不再需要访问{@link java.sql.DatabaseMetaData}.
+ *
+ * <p>缓存的提供者在{@link #setTimeToLive 生存时间}之后过期, 并在下次使用时重新加载;
+ * 例如在DDL变更之后, 也可以通过{@link #refresh(DataSource)}显式刷新.
+ * 缓存条目是软引用, 因此在内存不足时可以被回收.
+ */
+public class MetaDataProviderCache {
+
+	private static final MetaDataProviderCache sharedInstance = new MetaDataProviderCache();
+
+
+	/**
+	 * 返回共享的缓存实例.
+	 */
+	public static MetaDataProviderCache getSharedInstance() {
+		return sharedInstance;
+	}
+
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final ConcurrentMap<DataSource, ConcurrentMap<CacheKey, CachedProvider>> cache =
+			new ConcurrentReferenceHashMap<DataSource, ConcurrentMap<CacheKey, CachedProvider>>(16);
+
+	private volatile long timeToLive = -1;
+
+
+	/**
+	 * 设置缓存的元数据提供者的生存时间, 以毫秒为单位.
+	 * <p>默认是 -1, 表示缓存的提供者永不过期 (直到显式刷新).
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * 返回缓存的元数据提供者的生存时间, 以毫秒为单位.
+	 */
+	public long getTimeToLive() {
+		return this.timeToLive;
+	}
+
+
+	/**
+	 * 返回给定上下文的表元数据提供者, 必要时通过{@link TableMetaDataProviderFactory}创建.
+	 *
+	 * @param dataSource 用于检索元数据
+	 * @param context 包含配置的上下文
+	 * @param nativeJdbcExtractor 要使用的NativeJdbcExtractor (可以是{@code null})
+	 */
+	public TableMetaDataProvider getTableMetaDataProvider(DataSource dataSource, TableMetaDataContext context,
+			NativeJdbcExtractor nativeJdbcExtractor) {
+
+		CacheKey key = new CacheKey(TableMetaDataProvider.class, context.getCatalogName(), context.getSchemaName(),
+				context.getTableName(), context.isAccessTableColumnMetaData(),
+				context.isOverrideIncludeSynonymsDefault(), nativeJdbcExtractor);
+		ConcurrentMap<CacheKey, CachedProvider> providers = getProviders(dataSource);
+		CachedProvider cached = providers.get(key);
+		if (cached == null || cached.isExpired(this.timeToLive)) {
+			cached = new CachedProvider(
+					TableMetaDataProviderFactory.createMetaDataProvider(dataSource, context, nativeJdbcExtractor));
+			providers.put(key, cached);
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("Using cached table meta-data for table [" + context.getTableName() + "]");
+		}
+		return (TableMetaDataProvider) cached.provider;
+	}
+
+	/**
+	 * 返回给定上下文的调用元数据提供者, 必要时通过{@link CallMetaDataProviderFactory}创建.
+	 *
+	 * @param dataSource 用于检索元数据
+	 * @param context 包含配置的上下文
+	 */
+	public CallMetaDataProvider getCallMetaDataProvider(DataSource dataSource, CallMetaDataContext context) {
+		CacheKey key = new CacheKey(CallMetaDataProvider.class, context.getCatalogName(), context.getSchemaName(),
+				context.getProcedureName(), context.isAccessCallParameterMetaData(), context.isFunction(), null);
+		ConcurrentMap<CacheKey, CachedProvider> providers = getProviders(dataSource);
+		CachedProvider cached = providers.get(key);
+		if (cached == null || cached.isExpired(this.timeToLive)) {
+			cached = new CachedProvider(CallMetaDataProviderFactory.createMetaDataProvider(dataSource, context));
+			providers.put(key, cached);
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("Using cached call meta-data for procedure [" + context.getProcedureName() + "]");
+		}
+		return (CallMetaDataProvider) cached.provider;
+	}
+
+	/**
+	 * 删除给定DataSource的所有缓存的元数据提供者.
+	 */
+	public void refresh(DataSource dataSource) {
+		this.cache.remove(dataSource);
+	}
+
+	/**
+	 * 删除所有缓存的元数据提供者.
+	 */
+	public void refreshAll() {
+		this.cache.clear();
+	}
+
+	private ConcurrentMap<CacheKey, CachedProvider> getProviders(DataSource dataSource) {
+		ConcurrentMap<CacheKey, CachedProvider> providers = this.cache.get(dataSource);
+		if (providers == null) {
+			providers = new ConcurrentHashMap<CacheKey, CachedProvider>(16);
+			ConcurrentMap<CacheKey, CachedProvider> existing = this.cache.putIfAbsent(dataSource, providers);
+			if (existing != null) {
+				providers = existing;
+			}
+		}
+		return providers;
+	}
+
+
+	/**
+	 * 描述元数据提供者配置的缓存键.
+	 */
+	private static class CacheKey {
+
+		private final Object[] parts;
+
+		public CacheKey(Object... parts) {
+			this.parts = parts;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof CacheKey && Arrays.equals(this.parts, ((CacheKey) other).parts)));
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.parts);
+		}
+	}
+
+
+	/**
+	 * 缓存的元数据提供者, 以及其创建时间.
+	 */
+	private static class CachedProvider {
+
+		final Object provider;
+
+		private final long creationTime = System.currentTimeMillis();
+
+		public CachedProvider(Object provider) {
+			this.provider = provider;
+		}
+
+		public boolean isExpired(long timeToLive) {
+			return (timeToLive >= 0 && System.currentTimeMillis() - this.creationTime > timeToLive);
+		}
+	}
+
+}
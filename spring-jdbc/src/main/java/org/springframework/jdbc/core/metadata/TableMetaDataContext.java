@@ -1,6 +1,8 @@
 package org.springframework.jdbc.core.metadata;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -53,6 +55,12 @@ public class TableMetaDataContext {
 	// 用于检索本机连接的NativeJdbcExtractor
 	NativeJdbcExtractor nativeJdbcExtractor;
 
+	// 共享的元数据提供者缓存 (可选)
+	private MetaDataProviderCache metaDataCache;
+
+	// 为使用的列预先计算的参数名称映射
+	private volatile ColumnMapping columnMapping;
+
 
 	/**
 	 * 设置此上下文的表名称.
@@ -140,6 +148,22 @@ public class TableMetaDataContext {
 	}
 
 
+	/**
+	 * 设置用于获取表元数据的共享{@link MetaDataProviderCache}.
+	 * <p>默认无, 每次处理元数据时都访问{@link java.sql.DatabaseMetaData}.
+	 */
+	public void setMetaDataCache(MetaDataProviderCache metaDataCache) {
+		this.metaDataCache = metaDataCache;
+	}
+
+	/**
+	 * 返回用于获取表元数据的共享{@link MetaDataProviderCache}, 如果有的话.
+	 */
+	public MetaDataProviderCache getMetaDataCache() {
+		return this.metaDataCache;
+	}
+
+
 	/**
 	 * 使用提供的配置选项处理当前元数据.
 	 * 
@@ -148,9 +172,16 @@ public class TableMetaDataContext {
 	 * @param generatedKeyNames 生成键的名称
 	 */
 	public void processMetaData(DataSource dataSource, List<String> declaredColumns, String[] generatedKeyNames) {
-		this.metaDataProvider =
-				TableMetaDataProviderFactory.createMetaDataProvider(dataSource, this, this.nativeJdbcExtractor);
+		if (this.metaDataCache != null) {
+			this.metaDataProvider =
+					this.metaDataCache.getTableMetaDataProvider(dataSource, this, this.nativeJdbcExtractor);
+		}
+		else {
+			this.metaDataProvider =
+					TableMetaDataProviderFactory.createMetaDataProvider(dataSource, this, this.nativeJdbcExtractor);
+		}
 		this.tableColumns = reconcileColumnsToUse(declaredColumns, generatedKeyNames);
+		this.columnMapping = new ColumnMapping(this.tableColumns);
 	}
 
 	/**
@@ -185,25 +216,30 @@ public class TableMetaDataContext {
 	 * @param parameterSource 参数名称和值
 	 */
 	public List<Object> matchInParameterValuesWithInsertColumns(SqlParameterSource parameterSource) {
-		List<Object> values = new ArrayList<Object>();
+		ColumnMapping mapping = getColumnMapping();
+		List<Object> values = new ArrayList<Object>(mapping.columns.length);
 		// 对于参数源查找, 需要提供不区分大小写的查找支持, 因为数据库元数据不一定提供区分大小写的列名
-		Map<String, String> caseInsensitiveParameterNames =
-				SqlParameterSourceUtils.extractCaseInsensitiveParameterNames(parameterSource);
-		for (String column : this.tableColumns) {
+		Map<String, String> caseInsensitiveParameterNames = null;
+		for (int i = 0; i < mapping.columns.length; i++) {
+			String column = mapping.columns[i];
 			if (parameterSource.hasValue(column)) {
 				values.add(SqlParameterSourceUtils.getTypedValue(parameterSource, column));
 			}
 			else {
-				String lowerCaseName = column.toLowerCase();
+				String lowerCaseName = mapping.lowerCaseNames[i];
 				if (parameterSource.hasValue(lowerCaseName)) {
 					values.add(SqlParameterSourceUtils.getTypedValue(parameterSource, lowerCaseName));
 				}
 				else {
-					String propertyName = JdbcUtils.convertUnderscoreNameToPropertyName(column);
+					String propertyName = mapping.propertyNames[i];
 					if (parameterSource.hasValue(propertyName)) {
 						values.add(SqlParameterSourceUtils.getTypedValue(parameterSource, propertyName));
 					}
 					else {
+						if (caseInsensitiveParameterNames == null) {
+							caseInsensitiveParameterNames =
+									SqlParameterSourceUtils.extractCaseInsensitiveParameterNames(parameterSource);
+						}
 						if (caseInsensitiveParameterNames.containsKey(lowerCaseName)) {
 							values.add(SqlParameterSourceUtils.getTypedValue(
 									parameterSource, caseInsensitiveParameterNames.get(lowerCaseName)));
@@ -224,15 +260,32 @@ public class TableMetaDataContext {
 	 * @param inParameters 参数名称和值
 	 */
 	public List<Object> matchInParameterValuesWithInsertColumns(Map<String, ?> inParameters) {
-		List<Object> values = new ArrayList<Object>();
-		Map<String, Object> source = new LinkedHashMap<String, Object>(inParameters.size());
-		for (String key : inParameters.keySet()) {
-			source.put(key.toLowerCase(), inParameters.get(key));
+		ColumnMapping mapping = getColumnMapping();
+		Object[] values = new Object[mapping.columns.length];
+		for (Map.Entry<String, ?> entry : inParameters.entrySet()) {
+			int[] indexes = mapping.indexesByName.get(entry.getKey());
+			if (indexes == null) {
+				indexes = mapping.indexesByName.get(entry.getKey().toLowerCase());
+			}
+			if (indexes != null) {
+				for (int index : indexes) {
+					values[index] = entry.getValue();
+				}
+			}
 		}
-		for (String column : this.tableColumns) {
-			values.add(source.get(column.toLowerCase()));
+		return Arrays.asList(values);
+	}
+
+	/**
+	 * 返回使用的列的预先计算的映射, 如果使用的列已经改变, 则重新计算.
+	 */
+	private ColumnMapping getColumnMapping() {
+		ColumnMapping mapping = this.columnMapping;
+		if (mapping == null || !mapping.isFor(this.tableColumns)) {
+			mapping = new ColumnMapping(this.tableColumns);
+			this.columnMapping = mapping;
 		}
-		return values;
+		return mapping;
 	}
 
 
@@ -362,4 +415,66 @@ public class TableMetaDataContext {
 		return this.metaDataProvider.isGeneratedKeysColumnNameArraySupported();
 	}
 
+
+
+	/**
+	 * 为使用的列预先计算的参数名称: 小写名称, 属性名称, 以及从参数名称到列索引的映射.
+	 */
+	private static class ColumnMapping {
+
+		final String[] columns;
+
+		final String[] lowerCaseNames;
+
+		final String[] propertyNames;
+
+		/** 按原始列名和小写列名索引; 小写名称相同的列共享相同的索引 */
+		final Map<String, int[]> indexesByName;
+
+		private final List<String> source;
+
+		private final int sourceSize;
+
+		public ColumnMapping(List<String> tableColumns) {
+			this.source = tableColumns;
+			this.sourceSize = tableColumns.size();
+			this.columns = tableColumns.toArray(new String[this.sourceSize]);
+			this.lowerCaseNames = new String[this.columns.length];
+			this.propertyNames = new String[this.columns.length];
+			Map<String, List<Integer>> positions = new HashMap<String, List<Integer>>(this.columns.length);
+			for (int i = 0; i < this.columns.length; i++) {
+				String column = this.columns[i];
+				if (column == null) {
+					continue;
+				}
+				this.lowerCaseNames[i] = column.toLowerCase();
+				this.propertyNames[i] = JdbcUtils.convertUnderscoreNameToPropertyName(column);
+				List<Integer> columnPositions = positions.get(this.lowerCaseNames[i]);
+				if (columnPositions == null) {
+					columnPositions = new ArrayList<Integer>(1);
+					positions.put(this.lowerCaseNames[i], columnPositions);
+				}
+				columnPositions.add(i);
+			}
+			this.indexesByName = new HashMap<String, int[]>(positions.size() * 2);
+			for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+				List<Integer> columnPositions = entry.getValue();
+				int[] indexes = new int[columnPositions.size()];
+				for (int j = 0; j < indexes.length; j++) {
+					indexes[j] = columnPositions.get(j);
+				}
+				this.indexesByName.put(entry.getKey(), indexes);
+			}
+			for (int i = 0; i < this.columns.length; i++) {
+				if (this.columns[i] != null) {
+					this.indexesByName.put(this.columns[i], this.indexesByName.get(this.lowerCaseNames[i]));
+				}
+			}
+		}
+
+		public boolean isFor(List<String> tableColumns) {
+			return (this.source == tableColumns && this.sourceSize == tableColumns.size());
+		}
+	}
+
 }
@@ -2,10 +2,15 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Iterator;
 
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.BatchUpdateUtils;
+import org.springframework.jdbc.core.BulkUpdateListener;
+import org.springframework.jdbc.core.BulkUpdateResult;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 
 /**
  * 使用命名参数处理JDBC批处理语句的通用工具方法.
@@ -36,4 +41,25 @@ public class NamedParameterBatchUpdateUtils extends BatchUpdateUtils {
 					}
 				});
 	}
+
+	public static <T extends SqlParameterSource> BulkUpdateResult executeBulkUpdateWithNamedParameters(
+			final ParsedSql parsedSql, Iterator<T> batchArgs, int batchSize, int parallelism,
+			BulkUpdateListener listener, JdbcTemplate jdbcTemplate) {
+
+		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, null);
+		return jdbcTemplate.bulkUpdate(
+				sqlToUse,
+				batchArgs,
+				batchSize,
+				parallelism,
+				new ParameterizedPreparedStatementSetter<T>() {
+					@Override
+					public void setValues(PreparedStatement ps, T argument) throws SQLException {
+						Object[] values = NamedParameterUtils.buildValueArray(parsedSql, argument, null);
+						int[] columnTypes = NamedParameterUtils.buildSqlTypeArray(parsedSql, argument);
+						setStatementParameters(values, ps, columnTypes);
+					}
+				},
+				listener);
+	}
 }
@@ -1,12 +1,17 @@
 package org.springframework.jdbc.core.namedparam;
 
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.BulkUpdateListener;
+import org.springframework.jdbc.core.BulkUpdateResult;
 import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -44,15 +49,9 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
-	/** 原始SQL String的缓存到ParsedSql表示 */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	/** 原始SQL String到预编译的NamedSqlStatement表示的缓存 */
+	private final ConcurrentMap<String, NamedSqlStatement> statementCache =
+			new ConcurrentHashMap<String, NamedSqlStatement>(DEFAULT_CACHE_LIMIT);
 
 
 	/**
@@ -277,10 +276,11 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			String sql, SqlParameterSource paramSource, KeyHolder generatedKeyHolder, String[] keyColumnNames)
 			throws DataAccessException {
 
-		ParsedSql parsedSql = getParsedSql(sql);
-		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
-		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
-		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
+		NamedSqlStatement statement = getNamedSqlStatement(sql);
+		Object[] values = statement.resolveValues(paramSource);
+		String sqlToUse = statement.getSql(values);
+		Object[] params = statement.buildValueArray(values);
+		List<SqlParameter> declaredParameters = statement.buildSqlParameterList(paramSource);
 		PreparedStatementCreatorFactory pscf = new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 		if (keyColumnNames != null) {
 			pscf.setGeneratedKeysColumnNames(keyColumnNames);
@@ -299,7 +299,35 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	@Override
 	public int[] batchUpdate(String sql, SqlParameterSource[] batchArgs) {
 		return NamedParameterBatchUpdateUtils.executeBatchUpdateWithNamedParameters(
-				getParsedSql(sql), batchArgs, getJdbcOperations());
+				getNamedSqlStatement(sql).getParsedSql(), batchArgs, getJdbcOperations());
+	}
+
+	/**
+	 * 使用提供的SQL语句, 以固定大小的批处理写入迭代器提供的所有参数, 可选地使用多个并行连接.
+	 * <p>参数是按需从迭代器中读取的, 因此内存中只保留有限数量的批处理.
+	 * 不支持集合参数的展开: 每个命名参数都替换为单个占位符.
+	 * 
+	 * @param sql 要执行的SQL语句
+	 * @param batchArgs 提供参数的迭代器; 只在调用线程中访问
+	 * @param batchSize 批处理的大小
+	 * @param parallelism 并行使用的连接数
+	 * (参见{@link JdbcTemplate#bulkUpdate(String, Iterator, int, int,
+	 * org.springframework.jdbc.core.ParameterizedPreparedStatementSetter, BulkUpdateListener)})
+	 * @param listener 每个批处理执行后通知的监听器 (可以是{@code null})
+	 * 
+	 * @return 汇总的行数, 批处理数和时间
+	 * @throws InvalidDataAccessApiUsageException 如果包装的JdbcOperations不是{@link JdbcTemplate}
+	 */
+	public <T extends SqlParameterSource> BulkUpdateResult bulkUpdate(String sql, Iterator<T> batchArgs, int batchSize,
+			int parallelism, BulkUpdateListener listener) {
+
+		if (!(this.classicJdbcTemplate instanceof JdbcTemplate)) {
+			throw new InvalidDataAccessApiUsageException(
+					"Bulk updates require a JdbcTemplate, not " + this.classicJdbcTemplate.getClass().getName());
+		}
+		return NamedParameterBatchUpdateUtils.executeBulkUpdateWithNamedParameters(
+				getNamedSqlStatement(sql).getParsedSql(), batchArgs, batchSize, parallelism, listener,
+				(JdbcTemplate) this.classicJdbcTemplate);
 	}
 
 
@@ -314,33 +342,55 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	 * @return 相应的{@link PreparedStatementCreator}
 	 */
 	protected PreparedStatementCreator getPreparedStatementCreator(String sql, SqlParameterSource paramSource) {
-		ParsedSql parsedSql = getParsedSql(sql);
-		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
-		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
-		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
+		NamedSqlStatement statement = getNamedSqlStatement(sql);
+		Object[] values = statement.resolveValues(paramSource);
+		String sqlToUse = statement.getSql(values);
+		Object[] params = statement.buildValueArray(values);
+		List<SqlParameter> declaredParameters = statement.buildSqlParameterList(paramSource);
 		PreparedStatementCreatorFactory pscf = new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 		return pscf.newPreparedStatementCreator(params);
 	}
 
 	/**
 	 * 获取给定SQL语句的已解析表示.
-	 * <p>默认实现使用LRU缓存, 上限为256个条目.
+	 * <p>默认实现返回已缓存的预编译语句中的表示 (如果有); 否则重新解析SQL语句.
 	 * 
 	 * @param sql 原始的SQL语句
 	 * 
 	 * @return 已解析的SQL语句的表示形式
 	 */
 	protected ParsedSql getParsedSql(String sql) {
-		if (getCacheLimit() <= 0) {
-			return NamedParameterUtils.parseSqlStatement(sql);
+		NamedSqlStatement statement = this.statementCache.get(sql);
+		return (statement != null ? statement.getParsedSql() : NamedParameterUtils.parseSqlStatement(sql));
+	}
+
+	/**
+	 * 获取给定SQL语句的预编译表示.
+	 * <p>使用无锁缓存, 上限为{@link #getCacheLimit() cacheLimit}个条目.
+	 * 达到上限时, 在添加新条目之前移除任意一个现有条目.
+	 * 
+	 * @param sql 原始的SQL语句
+	 */
+	private NamedSqlStatement getNamedSqlStatement(String sql) {
+		int cacheLimit = getCacheLimit();
+		if (cacheLimit <= 0) {
+			return new NamedSqlStatement(getParsedSql(sql));
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
+		NamedSqlStatement statement = this.statementCache.get(sql);
+		if (statement == null) {
+			statement = new NamedSqlStatement(getParsedSql(sql));
+			if (this.statementCache.size() >= cacheLimit) {
+				Iterator<String> it = this.statementCache.keySet().iterator();
+				if (it.hasNext()) {
+					it.next();
+					it.remove();
+				}
+			}
+			NamedSqlStatement existing = this.statementCache.putIfAbsent(sql, statement);
+			if (existing != null) {
+				statement = existing;
 			}
-			return parsedSql;
 		}
+		return statement;
 	}
 }
@@ -0,0 +1,284 @@
+package org.springframework.jdbc.core.namedparam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * 预编译的命名参数SQL语句, 基于{@link ParsedSql}.
+ *
+ * <p>保存从参数名称到其在语句中出现位置的索引, 以及已替换为JDBC样式 '?'占位符的最终SQL.
+ * 不包含集合参数的执行直接使用预先构建的SQL; 对于集合参数, 最终SQL按集合的大小 (参数数量特征)
+ * 缓存, 因此重复执行不需要再次遍历原始SQL字符串.
+ *
+ * <p>每个参数名称的值只从{@link SqlParameterSource}获取一次, 即使该参数在语句中出现多次.
+ *
+ * <p>此类的实例是线程安全的.
+ */
+class NamedSqlStatement {
+
+	private final ParsedSql parsedSql;
+
+	/** 不同的参数名称, 按首次出现的顺序 */
+	private final String[] parameterNames;
+
+	/** 每次参数出现对应的{@link #parameterNames}中的索引 */
+	private final int[] nameIndexes;
+
+	/** 参数名称到其出现位置的索引 */
+	private final Map<String, int[]> parameterPositions;
+
+	/** 所有参数都替换为单个 '?'的SQL */
+	private final String plainSql;
+
+	/** 按参数数量特征缓存的包含集合参数的SQL */
+	private final Map<ArityKey, String> expandedSqlCache = new ConcurrentReferenceHashMap<ArityKey, String>(16);
+
+
+	/**
+	 * @param parsedSql 已解析的SQL语句
+	 */
+	NamedSqlStatement(ParsedSql parsedSql) {
+		this.parsedSql = parsedSql;
+		List<String> occurrences = parsedSql.getParameterNames();
+		Map<String, List<Integer>> positions = new LinkedHashMap<String, List<Integer>>();
+		for (int i = 0; i < occurrences.size(); i++) {
+			String name = occurrences.get(i);
+			List<Integer> namePositions = positions.get(name);
+			if (namePositions == null) {
+				namePositions = new ArrayList<Integer>(1);
+				positions.put(name, namePositions);
+			}
+			namePositions.add(i);
+		}
+
+		this.parameterNames = positions.keySet().toArray(new String[positions.size()]);
+		this.nameIndexes = new int[occurrences.size()];
+		this.parameterPositions = new LinkedHashMap<String, int[]>(positions.size());
+		for (int nameIndex = 0; nameIndex < this.parameterNames.length; nameIndex++) {
+			List<Integer> namePositions = positions.get(this.parameterNames[nameIndex]);
+			int[] positionArray = new int[namePositions.size()];
+			for (int j = 0; j < positionArray.length; j++) {
+				positionArray[j] = namePositions.get(j);
+				this.nameIndexes[positionArray[j]] = nameIndex;
+			}
+			this.parameterPositions.put(this.parameterNames[nameIndex], positionArray);
+		}
+		this.plainSql = NamedParameterUtils.substituteNamedParameters(parsedSql, null);
+	}
+
+
+	/**
+	 * 返回底层的已解析SQL语句.
+	 */
+	ParsedSql getParsedSql() {
+		return this.parsedSql;
+	}
+
+	/**
+	 * 返回给定参数名称在语句中出现的位置 (作为参数值数组中的索引).
+	 *
+	 * @param parameterName 参数的名称
+	 *
+	 * @return 出现的位置, 如果语句中不包含该参数, 则为{@code null}
+	 */
+	int[] getParameterPositions(String parameterName) {
+		return this.parameterPositions.get(parameterName);
+	}
+
+	/**
+	 * 从给定的参数源获取每个不同参数名称的值.
+	 *
+	 * @param paramSource 参数值的来源
+	 *
+	 * @return 与不同的参数名称对应的值
+	 * @throws InvalidDataAccessApiUsageException 如果缺少某个参数值, 或者混用了命名参数和传统的占位符
+	 */
+	Object[] resolveValues(SqlParameterSource paramSource) {
+		if (this.parsedSql.getNamedParameterCount() > 0 && this.parsedSql.getUnnamedParameterCount() > 0) {
+			throw new InvalidDataAccessApiUsageException(
+					"Not allowed to mix named and traditional ? placeholders. You have " +
+					this.parsedSql.getNamedParameterCount() + " named parameter(s) and " +
+					this.parsedSql.getUnnamedParameterCount() + " traditional placeholder(s) in statement: " +
+					this.parsedSql.getOriginalSql());
+		}
+		Object[] values = new Object[this.parameterNames.length];
+		for (int i = 0; i < this.parameterNames.length; i++) {
+			try {
+				values[i] = paramSource.getValue(this.parameterNames[i]);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new InvalidDataAccessApiUsageException(
+						"No value supplied for the SQL parameter '" + this.parameterNames[i] + "': " + ex.getMessage());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * 返回给定参数值的最终SQL, 其中集合参数展开为相应数量的占位符.
+	 *
+	 * @param values 从{@link #resolveValues}获取的值
+	 */
+	String getSql(Object[] values) {
+		ArityKey key = buildArityKey(values);
+		if (key == null) {
+			return this.plainSql;
+		}
+		String sql = this.expandedSqlCache.get(key);
+		if (sql == null) {
+			sql = expandSql(values);
+			this.expandedSqlCache.put(key, sql);
+		}
+		return sql;
+	}
+
+	/**
+	 * 为语句中的每次参数出现构建值数组.
+	 *
+	 * @param values 从{@link #resolveValues}获取的值
+	 */
+	Object[] buildValueArray(Object[] values) {
+		Object[] paramArray = new Object[this.parsedSql.getTotalParameterCount()];
+		for (int i = 0; i < this.nameIndexes.length; i++) {
+			paramArray[i] = values[this.nameIndexes[i]];
+		}
+		return paramArray;
+	}
+
+	/**
+	 * 为语句中的每次参数出现构建声明的参数列表, 每个参数名称只查询一次类型.
+	 *
+	 * @param paramSource 参数类型的来源
+	 */
+	List<SqlParameter> buildSqlParameterList(SqlParameterSource paramSource) {
+		SqlParameter[] byName = new SqlParameter[this.parameterNames.length];
+		for (int i = 0; i < this.parameterNames.length; i++) {
+			String paramName = this.parameterNames[i];
+			byName[i] = new SqlParameter(paramName, paramSource.getSqlType(paramName), paramSource.getTypeName(paramName));
+		}
+		List<SqlParameter> params = new ArrayList<SqlParameter>(this.nameIndexes.length);
+		for (int nameIndex : this.nameIndexes) {
+			params.add(byName[nameIndex]);
+		}
+		return params;
+	}
+
+
+	/**
+	 * 构建给定值的参数数量特征; 如果没有集合参数, 则返回{@code null}.
+	 * <p>对于每个集合参数, 记录其大小, 以及每个元素的数组长度 (非数组元素为 -1).
+	 */
+	private ArityKey buildArityKey(Object[] values) {
+		int length = 0;
+		for (int i = 0; i < values.length; i++) {
+			Object value = unwrap(values[i]);
+			if (value instanceof Collection) {
+				length += 2 + ((Collection<?>) value).size();
+			}
+		}
+		if (length == 0) {
+			return null;
+		}
+		int[] arities = new int[length];
+		int pos = 0;
+		for (int i = 0; i < values.length; i++) {
+			Object value = unwrap(values[i]);
+			if (value instanceof Collection) {
+				Collection<?> collection = (Collection<?>) value;
+				arities[pos++] = i;
+				arities[pos++] = collection.size();
+				for (Object entryItem : collection) {
+					arities[pos++] = (entryItem instanceof Object[] ? ((Object[]) entryItem).length : -1);
+				}
+			}
+		}
+		return new ArityKey(arities);
+	}
+
+	/**
+	 * 构建将集合参数展开为相应数量占位符的SQL.
+	 */
+	private String expandSql(Object[] values) {
+		String originalSql = this.parsedSql.getOriginalSql();
+		StringBuilder actualSql = new StringBuilder(originalSql.length() + 16);
+		int lastIndex = 0;
+		for (int i = 0; i < this.nameIndexes.length; i++) {
+			int[] indexes = this.parsedSql.getParameterIndexes(i);
+			actualSql.append(originalSql, lastIndex, indexes[0]);
+			Object value = unwrap(values[this.nameIndexes[i]]);
+			if (value instanceof Collection) {
+				Iterator<?> entryIter = ((Collection<?>) value).iterator();
+				int k = 0;
+				while (entryIter.hasNext()) {
+					if (k > 0) {
+						actualSql.append(", ");
+					}
+					k++;
+					Object entryItem = entryIter.next();
+					if (entryItem instanceof Object[]) {
+						Object[] expressionList = (Object[]) entryItem;
+						actualSql.append('(');
+						for (int m = 0; m < expressionList.length; m++) {
+							if (m > 0) {
+								actualSql.append(", ");
+							}
+							actualSql.append('?');
+						}
+						actualSql.append(')');
+					}
+					else {
+						actualSql.append('?');
+					}
+				}
+			}
+			else {
+				actualSql.append('?');
+			}
+			lastIndex = indexes[1];
+		}
+		actualSql.append(originalSql, lastIndex, originalSql.length());
+		return actualSql.toString();
+	}
+
+	private static Object unwrap(Object value) {
+		return (value instanceof SqlParameterValue ? ((SqlParameterValue) value).getValue() : value);
+	}
+
+
+	/**
+	 * 集合参数数量特征的缓存键.
+	 */
+	private static class ArityKey {
+
+		private final int[] arities;
+
+		private final int hashCode;
+
+		public ArityKey(int[] arities) {
+			this.arities = arities;
+			this.hashCode = Arrays.hashCode(arities);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof ArityKey &&
+					Arrays.equals(this.arities, ((ArityKey) other).arities)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+}
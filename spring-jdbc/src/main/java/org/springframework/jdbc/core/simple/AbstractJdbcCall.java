@@ -17,6 +17,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.jdbc.core.metadata.CallMetaDataContext;
+import org.springframework.jdbc.core.metadata.MetaDataProviderCache;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -190,6 +191,14 @@ public abstract class AbstractJdbcCall {
 		this.callMetaDataContext.setAccessCallParameterMetaData(accessCallParameterMetaData);
 	}
 
+	/**
+	 * 设置用于获取调用元数据的共享{@link MetaDataProviderCache}, 在多个实例之间重用元数据.
+	 * 默认无.
+	 */
+	public void setMetaDataCache(MetaDataProviderCache metaDataCache) {
+		this.callMetaDataContext.setMetaDataCache(metaDataCache);
+	}
+
 	/**
 	 * 根据参数和元数据, 获取应该使用的调用字符串.
 	 */
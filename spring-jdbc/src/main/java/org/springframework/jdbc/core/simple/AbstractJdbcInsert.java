@@ -26,6 +26,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.metadata.MetaDataProviderCache;
 import org.springframework.jdbc.core.metadata.TableMetaDataContext;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -204,6 +205,14 @@ public abstract class AbstractJdbcInsert {
 		this.tableMetaDataContext.setNativeJdbcExtractor(nativeJdbcExtractor);
 	}
 
+	/**
+	 * 设置用于获取表元数据的共享{@link MetaDataProviderCache}, 在多个实例之间重用元数据.
+	 * 默认无.
+	 */
+	public void setMetaDataCache(MetaDataProviderCache metaDataCache) {
+		this.tableMetaDataContext.setMetaDataCache(metaDataCache);
+	}
+
 	/**
 	 * 获取要使用的插入字符串.
 	 */
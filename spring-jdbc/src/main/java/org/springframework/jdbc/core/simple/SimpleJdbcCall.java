@@ -8,6 +8,7 @@ import javax.sql.DataSource;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.metadata.MetaDataProviderCache;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 
 /**
@@ -105,6 +106,12 @@ public class SimpleJdbcCall extends AbstractJdbcCall implements SimpleJdbcCallOp
 		return this;
 	}
 
+	@Override
+	public SimpleJdbcCall withMetaDataCache(MetaDataProviderCache metaDataCache) {
+		setMetaDataCache(metaDataCache);
+		return this;
+	}
+
 	@Override
 	public SimpleJdbcCall withNamedBinding() {
 		setNamedBinding(true);
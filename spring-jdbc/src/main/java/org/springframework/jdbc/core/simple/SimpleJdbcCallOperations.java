@@ -4,6 +4,7 @@ import java.util.Map;
 
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.metadata.MetaDataProviderCache;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 
 /**
@@ -88,6 +89,15 @@ public interface SimpleJdbcCallOperations {
 	 */
 	SimpleJdbcCallOperations withoutProcedureColumnMetaDataAccess();
 
+	/**
+	 * 使用提供的共享缓存获取过程列元数据, 而不是每次编译时都通过JDBC查找.
+	 * <p>对于短生命周期的实例 (e.g. 每个请求一个实例) 很有用,
+	 * 参见{@link MetaDataProviderCache#getSharedInstance()}.
+	 * 
+	 * @return 这个SimpleJdbcCall的实例
+	 */
+	SimpleJdbcCallOperations withMetaDataCache(MetaDataProviderCache metaDataCache);
+
 	/**
 	 * 表示参数应按名称绑定.
 	 * 
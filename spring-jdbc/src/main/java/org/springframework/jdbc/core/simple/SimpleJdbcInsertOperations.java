@@ -2,6 +2,7 @@ package org.springframework.jdbc.core.simple;
 
 import java.util.Map;
 
+import org.springframework.jdbc.core.metadata.MetaDataProviderCache;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.nativejdbc.NativeJdbcExtractor;
@@ -80,6 +81,15 @@ public interface SimpleJdbcInsertOperations {
 	 */
 	SimpleJdbcInsertOperations useNativeJdbcExtractorForMetaData(NativeJdbcExtractor nativeJdbcExtractor);
 
+	/**
+	 * 使用提供的共享缓存获取表元数据, 而不是每次编译时都通过JDBC查找.
+	 * <p>对于短生命周期的实例 (e.g. 每个请求一个实例) 很有用,
+	 * 参见{@link MetaDataProviderCache#getSharedInstance()}.
+	 * 
+	 * @return 这个SimpleJdbcInsert的实例
+	 */
+	SimpleJdbcInsertOperations withMetaDataCache(MetaDataProviderCache metaDataCache);
+
 
 	/**
 	 * 使用传入的值执行插入.
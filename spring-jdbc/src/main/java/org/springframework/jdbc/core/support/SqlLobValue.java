@@ -2,12 +2,15 @@ package org.springframework.jdbc.core.support;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
 
 import org.springframework.jdbc.core.DisposableSqlTypeValue;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
+import org.springframework.jdbc.support.lob.LargeLobCreator;
 import org.springframework.jdbc.support.lob.LobCreator;
 import org.springframework.jdbc.support.lob.LobHandler;
 
@@ -15,6 +18,7 @@ import org.springframework.jdbc.support.lob.LobHandler;
  * 用于表示SQL BLOB/CLOB值参数的对象. BLOB可以是InputStream或字节数组.
  * CLOB可以是Reader, InputStream或String的形式. 每个CLOB/BLOB值将与其长度一起存储.
  * 该类型基于使用哪个构造函数. 除LobCreator引用外, 此类的对象是不可变的.
+ * 流和通道的内容直接传输到JDBC驱动程序, 不会在内存中物化; 长度可以超过2 GB.
  *
  * <p>此类包含对更新完成后必须关闭的LocCreator的引用. 这是通过调用closeLobCreator方法完成的.
  * LobCreator的所有处理都是由使用它的框架类完成的 - 无需为此类的最终用户设置或关闭LobCreator.
@@ -38,7 +42,7 @@ public class SqlLobValue implements DisposableSqlTypeValue {
 
 	private final Object content;
 
-	private final int length;
+	private final long length;
 
 	/**
 	 * 这包含对LobCreator的引用 - 因此可以在更新完成后关闭它.
@@ -111,6 +115,30 @@ public class SqlLobValue implements DisposableSqlTypeValue {
 		this.lobCreator = lobHandler.getLobCreator();
 	}
 
+	/**
+	 * 使用给定流创建新的BLOB/CLOB值, 支持超过2 GB的长度.
+	 * 
+	 * @param stream 包含LOB值的流
+	 * @param length LOB值的长度; 负数表示长度未知
+	 * @param lobHandler 要使用的LobHandler
+	 */
+	public SqlLobValue(InputStream stream, long length, LobHandler lobHandler) {
+		this.content = stream;
+		this.length = length;
+		this.lobCreator = lobHandler.getLobCreator();
+	}
+
+	/**
+	 * 使用给定的通道创建新的BLOB值.
+	 * 
+	 * @param channel 包含BLOB值的通道
+	 * @param length BLOB值的长度; 负数表示长度未知
+	 * @param lobHandler 要使用的LobHandler
+	 */
+	public SqlLobValue(ReadableByteChannel channel, long length, LobHandler lobHandler) {
+		this(Channels.newInputStream(channel), length, lobHandler);
+	}
+
 	/**
 	 * 使用DefaultLobHandler和给定的字符流创建新的CLOB值.
 	 * 
@@ -134,6 +162,19 @@ public class SqlLobValue implements DisposableSqlTypeValue {
 		this.lobCreator = lobHandler.getLobCreator();
 	}
 
+	/**
+	 * 使用给定的字符流创建新的CLOB值, 支持超过2 GB的长度.
+	 * 
+	 * @param reader 包含CLOB值的字符流
+	 * @param length CLOB值的长度; 负数表示长度未知
+	 * @param lobHandler 要使用的LobHandler
+	 */
+	public SqlLobValue(Reader reader, long length, LobHandler lobHandler) {
+		this.content = reader;
+		this.length = length;
+		this.lobCreator = lobHandler.getLobCreator();
+	}
+
 
 	/**
 	 * 通过LobCreator设置指定的内容.
@@ -148,7 +189,13 @@ public class SqlLobValue implements DisposableSqlTypeValue {
 				this.lobCreator.setBlobAsBytes(ps, paramIndex, ((String) this.content).getBytes());
 			}
 			else if (this.content instanceof InputStream) {
-				this.lobCreator.setBlobAsBinaryStream(ps, paramIndex, (InputStream) this.content, this.length);
+				if (this.lobCreator instanceof LargeLobCreator) {
+					((LargeLobCreator) this.lobCreator).setBlobAsBinaryStream(
+							ps, paramIndex, (InputStream) this.content, this.length);
+				}
+				else {
+					this.lobCreator.setBlobAsBinaryStream(ps, paramIndex, (InputStream) this.content, intLength());
+				}
 			}
 			else {
 				throw new IllegalArgumentException(
@@ -160,10 +207,22 @@ public class SqlLobValue implements DisposableSqlTypeValue {
 				this.lobCreator.setClobAsString(ps, paramIndex, (String) this.content);
 			}
 			else if (this.content instanceof InputStream) {
-				this.lobCreator.setClobAsAsciiStream(ps, paramIndex, (InputStream) this.content, this.length);
+				if (this.lobCreator instanceof LargeLobCreator) {
+					((LargeLobCreator) this.lobCreator).setClobAsAsciiStream(
+							ps, paramIndex, (InputStream) this.content, this.length);
+				}
+				else {
+					this.lobCreator.setClobAsAsciiStream(ps, paramIndex, (InputStream) this.content, intLength());
+				}
 			}
 			else if (this.content instanceof Reader) {
-				this.lobCreator.setClobAsCharacterStream(ps, paramIndex, (Reader) this.content, this.length);
+				if (this.lobCreator instanceof LargeLobCreator) {
+					((LargeLobCreator) this.lobCreator).setClobAsCharacterStream(
+							ps, paramIndex, (Reader) this.content, this.length);
+				}
+				else {
+					this.lobCreator.setClobAsCharacterStream(ps, paramIndex, (Reader) this.content, intLength());
+				}
 			}
 			else {
 				throw new IllegalArgumentException(
@@ -175,6 +234,17 @@ public class SqlLobValue implements DisposableSqlTypeValue {
 		}
 	}
 
+	/**
+	 * 返回{@code int}类型的长度, 用于不支持超过2 GB内容的LobCreator.
+	 */
+	private int intLength() {
+		if (this.length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("LobCreator [" + this.lobCreator.getClass().getName() +
+					"] does not support content longer than 2 GB: " + this.length);
+		}
+		return (int) Math.max(this.length, -1);
+	}
+
 	/**
 	 * 关闭LobCreator.
 	 */
@@ -0,0 +1,936 @@
+package org.springframework.jdbc.datasource;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * 轻量级的连接池{@link DataSource}, 池化从目标DataSource (通常是{@link SimpleDriverDataSource}) 获取的物理连接.
+ * 适用于嵌入式数据库, 测试以及不需要完整连接池产品的简单部署.
+ *
+ * <p>池中的连接保存在无锁的连接集合中: 每个连接都有一个原子状态, 借用连接时通过CAS获取空闲连接,
+ * 优先尝试当前线程最近归还的连接. 只有在没有空闲连接并且已达到{@link #setMaxPoolSize 最大池大小}时,
+ * 线程才会等待, 直到另一个线程直接移交归还的连接, 或者达到{@link #setConnectionTimeout 连接超时}.
+ *
+ * <p>借用的连接是{@link ConnectionProxy}, 其{@code close()}将物理连接返回到池中.
+ * 归还时, 已更改的auto-commit, 只读和隔离级别设置将被重置 (未提交的工作将被回滚).
+ * 因此, 此DataSource可以直接与{@link DataSourceTransactionManager}, {@link DataSourceUtils}
+ * 和{@link org.springframework.jdbc.core.JdbcTemplate}一起使用; 对于嵌入式数据库,
+ * 请参阅{@link org.springframework.jdbc.datasource.embedded.PooledDataSourceFactory}.
+ *
+ * <p>其他功能:
+ * <ul>
+ * <li>借用时通过JDBC 4.0的{@link Connection#isValid(int)}验证连接, 带有{@link #setValidationTimeout 超时};
+ * 在最近500毫秒内使用过的连接不再验证.
+ * <li>超过{@link #setMaxLifetime 最大生命周期}的连接将被关闭并替换.
+ * <li>后台线程定期关闭超过{@link #setIdleTimeout 空闲超时}的空闲连接 (保留{@link #setMinIdle 最小空闲连接数}),
+ * 并报告借用时间超过{@link #setLeakDetectionThreshold 泄漏检测阈值}的连接, 包括借用连接的堆栈跟踪.
+ * <li>池指标通过getter方法公开 (例如通过Spring的JMX导出): 活动, 空闲和总连接数,
+ * 等待的线程数, 创建和关闭的连接数, 借用和超时次数, 以及平均等待时间.
+ * </ul>
+ *
+ * <p>此DataSource需要在不再需要时通过{@link #close()}关闭 (作为bean时自动调用).
+ */
+public class PooledDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+	private static final int STATE_REMOVED = -1;
+
+	private static final int STATE_NOT_IN_USE = 0;
+
+	private static final int STATE_IN_USE = 1;
+
+	/** 在此时间内使用过的连接, 借用时不再验证 */
+	private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+	/** 等待归还的连接时, 检查是否可以创建新连接的间隔 */
+	private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+
+	private DataSource targetDataSource;
+
+	private volatile int maxPoolSize = 10;
+
+	private volatile int minIdle = 0;
+
+	private volatile long connectionTimeout = 30000;
+
+	private volatile boolean validateOnBorrow = true;
+
+	private volatile int validationTimeout = 5;
+
+	private volatile long maxLifetime = 1800000;
+
+	private volatile long idleTimeout = 600000;
+
+	private volatile long leakDetectionThreshold = 0;
+
+	private volatile long housekeepingPeriod = 30000;
+
+	private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<PoolEntry>();
+
+	private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<PoolEntry>(true);
+
+	private final ThreadLocal<WeakReference<PoolEntry>> lastReturned =
+			new NamedThreadLocal<WeakReference<PoolEntry>>("Last returned pooled Connection");
+
+	/** 包括正在创建的连接 */
+	private final AtomicInteger totalConnections = new AtomicInteger();
+
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	private final AtomicLong createdCount = new AtomicLong();
+
+	private final AtomicLong closedCount = new AtomicLong();
+
+	private final AtomicLong borrowCount = new AtomicLong();
+
+	private final AtomicLong timeoutCount = new AtomicLong();
+
+	private final AtomicLong leakCount = new AtomicLong();
+
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+
+	private final Object lifecycleMonitor = new Object();
+
+	private volatile ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed = false;
+
+
+	/**
+	 * bean风格配置的构造函数.
+	 */
+	public PooledDataSource() {
+	}
+
+	/**
+	 * @param targetDataSource 提供物理连接的目标DataSource
+	 */
+	public PooledDataSource(DataSource targetDataSource) {
+		setTargetDataSource(targetDataSource);
+	}
+
+
+	/**
+	 * 设置提供物理连接的目标DataSource.
+	 */
+	public void setTargetDataSource(DataSource targetDataSource) {
+		this.targetDataSource = targetDataSource;
+	}
+
+	/**
+	 * 返回提供物理连接的目标DataSource.
+	 */
+	public DataSource getTargetDataSource() {
+		return this.targetDataSource;
+	}
+
+	/**
+	 * 设置池中物理连接的最大数量 (包括使用中和空闲的连接). 默认 10.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		if (maxPoolSize < 1) {
+			throw new IllegalArgumentException("maxPoolSize must be at least 1");
+		}
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	/**
+	 * 返回池中物理连接的最大数量.
+	 */
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	/**
+	 * 设置池维护的最小空闲连接数. 默认 0.
+	 */
+	public void setMinIdle(int minIdle) {
+		if (minIdle < 0) {
+			throw new IllegalArgumentException("minIdle must not be negative");
+		}
+		this.minIdle = minIdle;
+	}
+
+	/**
+	 * 返回池维护的最小空闲连接数.
+	 */
+	public int getMinIdle() {
+		return this.minIdle;
+	}
+
+	/**
+	 * 设置等待可用连接的最长时间, 以毫秒为单位. 默认 30000 (30 秒).
+	 * <p>超时后, {@link #getConnection()}抛出{@link SQLTransientConnectionException}.
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * 返回等待可用连接的最长时间, 以毫秒为单位.
+	 */
+	public long getConnectionTimeout() {
+		return this.connectionTimeout;
+	}
+
+	/**
+	 * 设置是否在借用时通过{@link Connection#isValid(int)}验证连接. 默认"true".
+	 */
+	public void setValidateOnBorrow(boolean validateOnBorrow) {
+		this.validateOnBorrow = validateOnBorrow;
+	}
+
+	/**
+	 * 返回是否在借用时验证连接.
+	 */
+	public boolean isValidateOnBorrow() {
+		return this.validateOnBorrow;
+	}
+
+	/**
+	 * 设置验证连接的超时时间, 以秒为单位. 默认 5.
+	 */
+	public void setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+	/**
+	 * 返回验证连接的超时时间, 以秒为单位.
+	 */
+	public int getValidationTimeout() {
+		return this.validationTimeout;
+	}
+
+	/**
+	 * 设置物理连接的最大生命周期, 以毫秒为单位; 之后连接将被关闭并替换. 默认 1800000 (30 分钟).
+	 * <p>0 表示没有最大生命周期. 使用中的连接在归还时关闭.
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+
+	/**
+	 * 返回物理连接的最大生命周期, 以毫秒为单位.
+	 */
+	public long getMaxLifetime() {
+		return this.maxLifetime;
+	}
+
+	/**
+	 * 设置空闲连接在被关闭之前可以保持空闲的最长时间, 以毫秒为单位. 默认 600000 (10 分钟).
+	 * <p>0 表示从不关闭空闲连接. 池始终保留{@link #setMinIdle 最小空闲连接数}.
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * 返回空闲连接在被关闭之前可以保持空闲的最长时间, 以毫秒为单位.
+	 */
+	public long getIdleTimeout() {
+		return this.idleTimeout;
+	}
+
+	/**
+	 * 设置连接在被报告为可能泄漏之前可以借用的时间, 以毫秒为单位.
+	 * <p>默认 0, 表示禁用泄漏检测. 启用时, 每次借用都会记录堆栈跟踪, 并在报告泄漏时记录.
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * 返回泄漏检测阈值, 以毫秒为单位.
+	 */
+	public long getLeakDetectionThreshold() {
+		return this.leakDetectionThreshold;
+	}
+
+	/**
+	 * 设置后台维护 (空闲连接驱逐, 泄漏检测, 补充最小空闲连接) 的执行间隔, 以毫秒为单位. 默认 30000.
+	 * <p>必须在池初始化之前设置.
+	 */
+	public void setHousekeepingPeriod(long housekeepingPeriod) {
+		if (housekeepingPeriod <= 0) {
+			throw new IllegalArgumentException("housekeepingPeriod must be greater than 0");
+		}
+		this.housekeepingPeriod = housekeepingPeriod;
+	}
+
+	/**
+	 * 返回后台维护的执行间隔, 以毫秒为单位.
+	 */
+	public long getHousekeepingPeriod() {
+		return this.housekeepingPeriod;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() throws SQLException {
+		initialize();
+	}
+
+	/**
+	 * 初始化池: 启动后台维护, 并创建最小空闲连接.
+	 * <p>在第一次调用{@link #getConnection()}时自动调用.
+	 */
+	public void initialize() throws SQLException {
+		if (getTargetDataSource() == null) {
+			throw new IllegalArgumentException("Property 'targetDataSource' is required");
+		}
+		synchronized (this.lifecycleMonitor) {
+			if (this.closed) {
+				throw new SQLException("PooledDataSource has been closed");
+			}
+			if (this.housekeeper != null) {
+				return;
+			}
+			ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "PooledDataSource-housekeeper");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			executor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						housekeep();
+					}
+					catch (Throwable ex) {
+						logger.warn("Pool housekeeping failed", ex);
+					}
+				}
+			}, this.housekeepingPeriod, this.housekeepingPeriod, TimeUnit.MILLISECONDS);
+			this.housekeeper = executor;
+		}
+		fillPool();
+	}
+
+	@Override
+	public void destroy() {
+		close();
+	}
+
+	/**
+	 * 关闭池: 停止后台维护并关闭所有空闲连接. 使用中的连接在归还时关闭.
+	 */
+	public void close() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (this.housekeeper != null) {
+				this.housekeeper.shutdownNow();
+				this.housekeeper = null;
+			}
+		}
+		for (PoolEntry entry : this.entries) {
+			if (entry.compareAndSetState(STATE_NOT_IN_USE, STATE_REMOVED)) {
+				closeEntry(entry, "pool closed");
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Closed PooledDataSource; " + getActiveConnections() + " connection(s) still in use");
+		}
+	}
+
+	/**
+	 * 返回池是否已关闭.
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (this.closed) {
+			throw new SQLException("PooledDataSource has been closed");
+		}
+		if (this.housekeeper == null) {
+			initialize();
+		}
+
+		long startTime = System.nanoTime();
+		long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(this.connectionTimeout);
+		PoolEntry entry;
+		while (true) {
+			entry = borrowIdleEntry();
+			if (entry == null) {
+				entry = createEntry(STATE_IN_USE);
+			}
+			if (entry == null) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					this.timeoutCount.incrementAndGet();
+					throw new SQLTransientConnectionException("Connection is not available, request timed out after " +
+							TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + "ms " + getPoolState());
+				}
+				entry = awaitEntry(Math.min(remaining, WAIT_SLICE_NANOS));
+				if (entry == null) {
+					continue;
+				}
+			}
+			if (isUsable(entry)) {
+				break;
+			}
+			entry.setState(STATE_REMOVED);
+			closeEntry(entry, "failed validation or exceeded max lifetime");
+		}
+
+		long now = System.currentTimeMillis();
+		entry.borrowTime = now;
+		entry.lastAccessed = now;
+		if (this.leakDetectionThreshold > 0) {
+			entry.borrowStack = new Exception("Connection was borrowed here");
+		}
+		this.borrowCount.incrementAndGet();
+		this.totalWaitNanos.addAndGet(System.nanoTime() - startTime);
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new PooledConnectionInvocationHandler(entry));
+	}
+
+	/**
+	 * 不支持: 池中的连接都使用目标DataSource的凭据.
+	 *
+	 * @throws SQLFeatureNotSupportedException 总是
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("PooledDataSource does not support custom username and password");
+	}
+
+
+	//---------------------------------------------------------------------
+	// Pool metrics
+	//---------------------------------------------------------------------
+
+	/**
+	 * 返回池中物理连接的总数.
+	 */
+	public int getTotalConnections() {
+		return this.entries.size();
+	}
+
+	/**
+	 * 返回当前借用的连接数.
+	 */
+	public int getActiveConnections() {
+		return countEntries(STATE_IN_USE);
+	}
+
+	/**
+	 * 返回当前空闲的连接数.
+	 */
+	public int getIdleConnections() {
+		return countEntries(STATE_NOT_IN_USE);
+	}
+
+	/**
+	 * 返回当前等待连接的线程数.
+	 */
+	public int getThreadsAwaitingConnection() {
+		return this.waiters.get();
+	}
+
+	/**
+	 * 返回已创建的物理连接总数.
+	 */
+	public long getConnectionsCreated() {
+		return this.createdCount.get();
+	}
+
+	/**
+	 * 返回已关闭的物理连接总数.
+	 */
+	public long getConnectionsClosed() {
+		return this.closedCount.get();
+	}
+
+	/**
+	 * 返回成功借用连接的总次数.
+	 */
+	public long getBorrowCount() {
+		return this.borrowCount.get();
+	}
+
+	/**
+	 * 返回借用连接超时的总次数.
+	 */
+	public long getConnectionTimeoutCount() {
+		return this.timeoutCount.get();
+	}
+
+	/**
+	 * 返回报告的可能泄漏的连接总数.
+	 */
+	public long getLeakCount() {
+		return this.leakCount.get();
+	}
+
+	/**
+	 * 返回借用连接的平均等待时间, 以毫秒为单位.
+	 */
+	public double getAverageBorrowTime() {
+		long count = this.borrowCount.get();
+		return (count > 0 ? (double) this.totalWaitNanos.get() / count / 1000000 : 0);
+	}
+
+
+	//---------------------------------------------------------------------
+	// Connection bag
+	//---------------------------------------------------------------------
+
+	/**
+	 * 获取一个空闲连接, 优先使用当前线程最近归还的连接.
+	 */
+	private PoolEntry borrowIdleEntry() {
+		WeakReference<PoolEntry> ref = this.lastReturned.get();
+		if (ref != null) {
+			PoolEntry entry = ref.get();
+			if (entry != null && entry.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+				return entry;
+			}
+		}
+		for (PoolEntry entry : this.entries) {
+			if (entry.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 等待另一个线程移交归还的连接.
+	 */
+	private PoolEntry awaitEntry(long timeoutNanos) throws SQLException {
+		this.waiters.incrementAndGet();
+		try {
+			// 在注册为等待者之后再次检查, 以免错过在此之前归还的连接
+			PoolEntry entry = borrowIdleEntry();
+			if (entry != null) {
+				return entry;
+			}
+			entry = this.handoffQueue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+			if (entry != null && entry.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+				return entry;
+			}
+			return null;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a pooled Connection", ex);
+		}
+		finally {
+			this.waiters.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 如果尚未达到最大池大小, 则创建一个新的物理连接.
+	 *
+	 * @return 新的条目, 如果已达到最大池大小, 则返回{@code null}
+	 */
+	private PoolEntry createEntry(int initialState) throws SQLException {
+		while (true) {
+			int total = this.totalConnections.get();
+			if (total >= this.maxPoolSize) {
+				return null;
+			}
+			if (this.totalConnections.compareAndSet(total, total + 1)) {
+				break;
+			}
+		}
+		try {
+			Connection con = getTargetDataSource().getConnection();
+			PoolEntry entry;
+			try {
+				entry = new PoolEntry(con, initialState);
+			}
+			catch (SQLException ex) {
+				JdbcUtils.closeConnection(con);
+				throw ex;
+			}
+			catch (RuntimeException ex) {
+				JdbcUtils.closeConnection(con);
+				throw ex;
+			}
+			this.entries.add(entry);
+			this.createdCount.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Added pooled JDBC Connection [" + con + "]");
+			}
+			return entry;
+		}
+		catch (SQLException ex) {
+			this.totalConnections.decrementAndGet();
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			this.totalConnections.decrementAndGet();
+			throw ex;
+		}
+	}
+
+	/**
+	 * 将连接返回到池中, 如果有等待的线程, 则直接移交.
+	 */
+	private void releaseEntry(PoolEntry entry) {
+		if (entry.leakReported) {
+			logger.info("Previously reported leaked Connection [" + entry.connection + "] was returned to the pool");
+		}
+		entry.borrowStack = null;
+		entry.leakReported = false;
+		long now = System.currentTimeMillis();
+		if (this.closed || entry.broken || isExpired(entry, now)) {
+			entry.setState(STATE_REMOVED);
+			closeEntry(entry, (this.closed ? "pool closed" : "broken or exceeded max lifetime"));
+			return;
+		}
+		try {
+			entry.reset();
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not reset pooled JDBC Connection", ex);
+			entry.setState(STATE_REMOVED);
+			closeEntry(entry, "reset failed");
+			return;
+		}
+		entry.lastAccessed = now;
+		entry.setState(STATE_NOT_IN_USE);
+		this.lastReturned.set(new WeakReference<PoolEntry>(entry));
+
+		for (int i = 0; this.waiters.get() > 0; i++) {
+			if (entry.getState() != STATE_NOT_IN_USE || this.handoffQueue.offer(entry)) {
+				return;
+			}
+			if ((i & 0xff) == 0xff) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+			}
+			else {
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * 关闭给定条目的物理连接, 并将其从池中删除. 调用者必须已将条目标记为已删除.
+	 * 如果连接不处于自动提交模式, 则先回滚任何未提交的工作, 因为某些驱动程序在关闭时会提交.
+	 */
+	private void closeEntry(PoolEntry entry, String reason) {
+		if (this.entries.remove(entry)) {
+			this.totalConnections.decrementAndGet();
+			this.closedCount.incrementAndGet();
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Closing pooled JDBC Connection [" + entry.connection + "]: " + reason);
+		}
+		try {
+			if (!entry.connection.getAutoCommit()) {
+				entry.connection.rollback();
+			}
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not roll back pooled JDBC Connection before closing", ex);
+		}
+		try {
+			entry.connection.close();
+		}
+		catch (Throwable ex) {
+			logger.debug("Could not close pooled JDBC Connection", ex);
+		}
+	}
+
+	private boolean isUsable(PoolEntry entry) {
+		long now = System.currentTimeMillis();
+		if (entry.broken || isExpired(entry, now)) {
+			return false;
+		}
+		if (this.validateOnBorrow && now - entry.lastAccessed > VALIDATION_BYPASS_MILLIS) {
+			try {
+				return entry.connection.isValid(this.validationTimeout);
+			}
+			catch (SQLException ex) {
+				logger.debug("Validation of pooled JDBC Connection failed", ex);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isExpired(PoolEntry entry, long now) {
+		return (this.maxLifetime > 0 && now - entry.creationTime > this.maxLifetime);
+	}
+
+	private int countEntries(int state) {
+		int count = 0;
+		for (PoolEntry entry : this.entries) {
+			if (entry.getState() == state) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private String getPoolState() {
+		return "(total=" + getTotalConnections() + ", active=" + getActiveConnections() +
+				", idle=" + getIdleConnections() + ", waiting=" + getThreadsAwaitingConnection() + ")";
+	}
+
+
+	//---------------------------------------------------------------------
+	// Housekeeping
+	//---------------------------------------------------------------------
+
+	/**
+	 * 关闭过期和超过空闲超时的空闲连接, 报告可能泄漏的连接, 并补充最小空闲连接.
+	 */
+	void housekeep() {
+		long now = System.currentTimeMillis();
+		int idle = getIdleConnections();
+		for (PoolEntry entry : this.entries) {
+			int state = entry.getState();
+			if (state == STATE_NOT_IN_USE) {
+				boolean idleExpired = (this.idleTimeout > 0 && now - entry.lastAccessed > this.idleTimeout &&
+						idle > this.minIdle);
+				if ((idleExpired || isExpired(entry, now)) &&
+						entry.compareAndSetState(STATE_NOT_IN_USE, STATE_REMOVED)) {
+					closeEntry(entry, (idleExpired ? "idle timeout" : "exceeded max lifetime"));
+					idle--;
+				}
+			}
+			else if (state == STATE_IN_USE) {
+				Exception borrowStack = entry.borrowStack;
+				if (borrowStack != null && !entry.leakReported && this.leakDetectionThreshold > 0 &&
+						now - entry.borrowTime > this.leakDetectionThreshold) {
+					entry.leakReported = true;
+					this.leakCount.incrementAndGet();
+					logger.warn("Connection leak detection triggered for [" + entry.connection + "], borrowed " +
+							(now - entry.borrowTime) + "ms ago", borrowStack);
+				}
+			}
+		}
+		try {
+			fillPool();
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not add pooled JDBC Connection", ex);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Pool state after housekeeping " + getPoolState());
+		}
+	}
+
+	/**
+	 * 创建新的空闲连接, 直到达到最小空闲连接数.
+	 */
+	private void fillPool() throws SQLException {
+		int toAdd = this.minIdle - getIdleConnections();
+		for (int i = 0; i < toAdd && !this.closed; i++) {
+			PoolEntry entry = createEntry(STATE_NOT_IN_USE);
+			if (entry == null) {
+				break;
+			}
+		}
+	}
+
+
+	/**
+	 * 池中的物理连接, 以及其状态.
+	 */
+	private static class PoolEntry {
+
+		final Connection connection;
+
+		final long creationTime = System.currentTimeMillis();
+
+		private final AtomicInteger state;
+
+		private final boolean defaultAutoCommit;
+
+		private final boolean defaultReadOnly;
+
+		private final int defaultTransactionIsolation;
+
+		volatile long lastAccessed = this.creationTime;
+
+		volatile long borrowTime;
+
+		volatile Exception borrowStack;
+
+		volatile boolean leakReported;
+
+		volatile boolean broken;
+
+		boolean autoCommitChanged;
+
+		boolean readOnlyChanged;
+
+		boolean transactionIsolationChanged;
+
+		public PoolEntry(Connection connection, int state) throws SQLException {
+			this.connection = connection;
+			this.state = new AtomicInteger(state);
+			this.defaultAutoCommit = connection.getAutoCommit();
+			this.defaultReadOnly = connection.isReadOnly();
+			this.defaultTransactionIsolation = connection.getTransactionIsolation();
+		}
+
+		public int getState() {
+			return this.state.get();
+		}
+
+		public void setState(int state) {
+			this.state.set(state);
+		}
+
+		public boolean compareAndSetState(int expect, int update) {
+			return this.state.compareAndSet(expect, update);
+		}
+
+		/**
+		 * 重置在借用期间更改的连接设置.
+		 * 如果连接不处于自动提交模式, 则回滚任何未提交的工作, 即使这是连接的默认模式.
+		 */
+		public void reset() throws SQLException {
+			boolean autoCommit = this.connection.getAutoCommit();
+			if (!autoCommit) {
+				this.connection.rollback();
+			}
+			if (this.autoCommitChanged) {
+				if (autoCommit != this.defaultAutoCommit) {
+					this.connection.setAutoCommit(this.defaultAutoCommit);
+				}
+				this.autoCommitChanged = false;
+			}
+			if (this.readOnlyChanged) {
+				this.connection.setReadOnly(this.defaultReadOnly);
+				this.readOnlyChanged = false;
+			}
+			if (this.transactionIsolationChanged) {
+				this.connection.setTransactionIsolation(this.defaultTransactionIsolation);
+				this.transactionIsolationChanged = false;
+			}
+			this.connection.clearWarnings();
+		}
+	}
+
+
+	/**
+	 * 借用的连接的调用处理器: {@code close()}将物理连接返回到池中.
+	 */
+	private class PooledConnectionInvocationHandler implements InvocationHandler {
+
+		private final PoolEntry entry;
+
+		private volatile boolean closed = false;
+
+		public PooledConnectionInvocationHandler(PoolEntry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// 来自ConnectionProxy接口的调用...
+
+			String methodName = method.getName();
+			if (methodName.equals("equals")) {
+				// 只有在代理相同时才被视为相等.
+				return (proxy == args[0]);
+			}
+			else if (methodName.equals("hashCode")) {
+				// 使用Connection代理的hashCode.
+				return System.identityHashCode(proxy);
+			}
+			else if (methodName.equals("toString")) {
+				return "Pooled proxy for target Connection [" + this.entry.connection + "]";
+			}
+			else if (methodName.equals("unwrap")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (methodName.equals("isWrapperFor")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (methodName.equals("close")) {
+				// 将物理连接返回到池中, 只执行一次.
+				if (!this.closed) {
+					this.closed = true;
+					releaseEntry(this.entry);
+				}
+				return null;
+			}
+			else if (methodName.equals("isClosed")) {
+				if (this.closed) {
+					return true;
+				}
+			}
+
+			if (this.closed) {
+				throw new SQLException("Connection handle already closed");
+			}
+
+			if (methodName.equals("getTargetConnection")) {
+				// 处理getTargetConnection方法: 返回底层Connection.
+				return this.entry.connection;
+			}
+			else if (methodName.equals("setAutoCommit")) {
+				this.entry.autoCommitChanged = true;
+			}
+			else if (methodName.equals("setReadOnly")) {
+				this.entry.readOnlyChanged = true;
+			}
+			else if (methodName.equals("setTransactionIsolation")) {
+				this.entry.transactionIsolationChanged = true;
+			}
+
+			// 在目标Connection上调用方法.
+			try {
+				return method.invoke(this.entry.connection, args);
+			}
+			catch (InvocationTargetException ex) {
+				Throwable targetEx = ex.getTargetException();
+				if (targetEx instanceof SQLException) {
+					String sqlState = ((SQLException) targetEx).getSQLState();
+					// SQL状态类 08: 连接异常
+					if (sqlState != null && sqlState.startsWith("08")) {
+						this.entry.broken = true;
+					}
+				}
+				throw targetEx;
+			}
+		}
+	}
+
+}
@@ -97,7 +97,7 @@ public class EmbeddedDatabaseBuilder {
 
 	/**
 	 * 设置用于创建连接到嵌入式数据库的{@link DataSource}实例的工厂.
-	 * <p>默认为{@link SimpleDriverDataSourceFactory}, 但可以覆盖, 例如引入连接池.
+	 * <p>默认为{@link SimpleDriverDataSourceFactory}, 但可以覆盖, 例如通过{@link PooledDataSourceFactory}引入连接池.
 	 * 
 	 * @return {@code this}, 方便方法调用链
 	 */
@@ -10,6 +10,7 @@ import javax.sql.DataSource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.jdbc.datasource.PooledDataSource;
 import org.springframework.jdbc.datasource.SimpleDriverDataSource;
 import org.springframework.jdbc.datasource.init.DatabasePopulator;
 import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
@@ -182,6 +183,9 @@ public class EmbeddedDatabaseFactory {
 				}
 			}
 			this.databaseConfigurer.shutdown(this.dataSource, this.databaseName);
+			if (this.dataSource instanceof PooledDataSource) {
+				((PooledDataSource) this.dataSource).close();
+			}
 			this.dataSource = null;
 		}
 	}
@@ -0,0 +1,66 @@
+package org.springframework.jdbc.datasource.embedded;
+
+import java.sql.Driver;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.PooledDataSource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+/**
+ * 创建{@link PooledDataSource}的{@link DataSourceFactory}, 池化从{@link SimpleDriverDataSource}获取的连接.
+ *
+ * <p>与默认的{@link SimpleDriverDataSourceFactory}不同, 不会为每个{@code getConnection()}调用创建新的物理连接.
+ * 嵌入式数据库关闭时, 池也会被{@link EmbeddedDatabaseFactory}关闭.
+ *
+ * <p>可以通过{@link #getPooledDataSource()}进一步配置池, 例如:
+ *
+ * <pre class="code">
+ * PooledDataSourceFactory factory = new PooledDataSourceFactory();
+ * factory.getPooledDataSource().setMaxPoolSize(4);
+ * EmbeddedDatabase db = new EmbeddedDatabaseBuilder().setDataSourceFactory(factory).build();</pre>
+ */
+public class PooledDataSourceFactory implements DataSourceFactory {
+
+	private final SimpleDriverDataSource targetDataSource = new SimpleDriverDataSource();
+
+	private final PooledDataSource dataSource = new PooledDataSource(this.targetDataSource);
+
+
+	/**
+	 * 返回要创建的{@link PooledDataSource}, 以进一步配置池.
+	 */
+	public PooledDataSource getPooledDataSource() {
+		return this.dataSource;
+	}
+
+	@Override
+	public ConnectionProperties getConnectionProperties() {
+		return new ConnectionProperties() {
+			@Override
+			public void setDriverClass(Class<? extends Driver> driverClass) {
+				targetDataSource.setDriverClass(driverClass);
+			}
+
+			@Override
+			public void setUrl(String url) {
+				targetDataSource.setUrl(url);
+			}
+
+			@Override
+			public void setUsername(String username) {
+				targetDataSource.setUsername(username);
+			}
+
+			@Override
+			public void setPassword(String password) {
+				targetDataSource.setPassword(password);
+			}
+		};
+	}
+
+	@Override
+	public DataSource getDataSource() {
+		return this.dataSource;
+	}
+
+}
@@ -6,14 +6,26 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.Assert;
 
 /**
  * 复合{@link DatabasePopulator}, 它委托给给定的{@code DatabasePopulator}实现列表, 执行所有脚本.
+ *
+ * <p>如果{@link #setConcurrencyLimit 并发限制}大于1, 则通过{@link #execute(DataSource)}
+ * (或{@link DatabasePopulatorUtils#execute})执行时, 彼此独立的填充器在单独的线程中并行执行,
+ * 每个线程使用从{@code DataSource}获取的单独连接.
  */
 public class CompositeDatabasePopulator implements DatabasePopulator {
 
 	private final List<DatabasePopulator> populators = new ArrayList<DatabasePopulator>(4);
 
+	private int concurrencyLimit = 1;
+
 
 	public CompositeDatabasePopulator() {
 	}
@@ -48,6 +60,23 @@ public class CompositeDatabasePopulator implements DatabasePopulator {
 		this.populators.addAll(Arrays.asList(populators));
 	}
 
+	/**
+	 * 设置通过{@link #execute(DataSource)}执行时, 并行执行的填充器的最大数量.
+	 * <p>默认为1, 表示按顺序执行所有填充器. 只有在填充器彼此独立 (e.g. 填充不同的表) 时,
+	 * 才应该使用大于1的值: 并行执行的填充器使用单独的连接, 因此不参与当前事务, 并且执行顺序是不确定的.
+	 */
+	public void setConcurrencyLimit(int concurrencyLimit) {
+		Assert.isTrue(concurrencyLimit > 0, "Concurrency limit must be greater than 0");
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	/**
+	 * 返回并行执行的填充器的最大数量.
+	 */
+	public int getConcurrencyLimit() {
+		return this.concurrencyLimit;
+	}
+
 
 	@Override
 	public void populate(Connection connection) throws SQLException, ScriptException {
@@ -56,4 +85,65 @@ public class CompositeDatabasePopulator implements DatabasePopulator {
 		}
 	}
 
+	/**
+	 * 针对给定的{@link DataSource}执行此{@code CompositeDatabasePopulator}.
+	 * <p>如果并发限制为1, 则委托给{@link DatabasePopulatorUtils#execute}, 使用单个连接按顺序执行所有填充器;
+	 * 否则每个填充器在单独的线程中使用单独的连接执行, 直到所有填充器都已完成.
+	 * 
+	 * @param dataSource 要执行的{@code DataSource} (never {@code null})
+	 * 
+	 * @throws ScriptException 如果发生错误; 如果多个填充器失败, 则为第一个错误
+	 */
+	public void execute(final DataSource dataSource) throws ScriptException {
+		Assert.notNull(dataSource, "DataSource must not be null");
+		if (this.concurrencyLimit <= 1 || this.populators.size() <= 1) {
+			DatabasePopulatorUtils.populate(this, dataSource);
+			return;
+		}
+
+		List<DatabasePopulator> populatorsToExecute = new ArrayList<DatabasePopulator>(this.populators);
+		SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("DatabasePopulator-");
+		taskExecutor.setConcurrencyLimit(this.concurrencyLimit);
+		final CountDownLatch done = new CountDownLatch(populatorsToExecute.size());
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		for (final DatabasePopulator populator : populatorsToExecute) {
+			taskExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						// 如果其他填充器已失败, 则不再开始执行
+						if (failure.get() == null) {
+							DatabasePopulatorUtils.execute(populator, dataSource);
+						}
+					}
+					catch (Throwable ex) {
+						failure.compareAndSet(null, ex);
+					}
+					finally {
+						done.countDown();
+					}
+				}
+			});
+		}
+
+		try {
+			done.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new UncategorizedScriptException("Interrupted while waiting for database populators", ex);
+		}
+
+		Throwable ex = failure.get();
+		if (ex instanceof ScriptException) {
+			throw (ScriptException) ex;
+		}
+		if (ex instanceof Error) {
+			throw (Error) ex;
+		}
+		if (ex != null) {
+			throw new UncategorizedScriptException("Failed to execute database script", ex);
+		}
+	}
+
 }
@@ -14,6 +14,7 @@ public abstract class DatabasePopulatorUtils {
 
 	/**
 	 * 针对给定的{@link DataSource}执行给定的{@link DatabasePopulator}.
+	 * <p>并发限制大于1的{@link CompositeDatabasePopulator}将并行执行其填充器, 每个填充器使用单独的连接.
 	 * 
 	 * @param populator 要执行的{@code DatabasePopulator}
 	 * @param dataSource 要执行的{@code DataSource}
@@ -23,6 +24,19 @@ public abstract class DatabasePopulatorUtils {
 	public static void execute(DatabasePopulator populator, DataSource dataSource) throws DataAccessException {
 		Assert.notNull(populator, "DatabasePopulator must not be null");
 		Assert.notNull(dataSource, "DataSource must not be null");
+		if (populator instanceof CompositeDatabasePopulator &&
+				((CompositeDatabasePopulator) populator).getConcurrencyLimit() > 1) {
+			// 并行执行彼此独立的填充器, 每个填充器使用单独的连接
+			((CompositeDatabasePopulator) populator).execute(dataSource);
+			return;
+		}
+		populate(populator, dataSource);
+	}
+
+	/**
+	 * 使用从给定的{@link DataSource}获取的单个连接执行给定的{@link DatabasePopulator}.
+	 */
+	static void populate(DatabasePopulator populator, DataSource dataSource) throws DataAccessException {
 		try {
 			Connection connection = DataSourceUtils.getConnection(dataSource);
 			try {
@@ -39,6 +39,8 @@ public class ResourceDatabasePopulator implements DatabasePopulator {
 
 	private boolean ignoreFailedDrops = false;
 
+	private int dmlBatchSize = 0;
+
 
 	/**
 	 * 使用默认设置构造新的{@code ResourceDatabasePopulator}.
@@ -181,6 +183,20 @@ public class ResourceDatabasePopulator implements DatabasePopulator {
 	}
 
 
+	/**
+	 * 指定将连续的DML语句 ({@code INSERT}, {@code UPDATE}, {@code DELETE}, {@code MERGE})
+	 * 分组为JDBC批处理时, 每个批处理的最大语句数.
+	 * <p>这可以显著加快包含大量数据的脚本的执行速度. 默认为0, 表示单独执行每个语句.
+	 * 
+	 * @param dmlBatchSize 每个批处理的最大语句数; 0或1表示禁用批处理
+	 * @see ScriptUtils#executeSqlScript(Connection, EncodedResource, boolean, boolean, String, String, String, String, int)
+	 */
+	public void setDmlBatchSize(int dmlBatchSize) {
+		Assert.isTrue(dmlBatchSize >= 0, "DML batch size must not be negative");
+		this.dmlBatchSize = dmlBatchSize;
+	}
+
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -190,7 +206,8 @@ public class ResourceDatabasePopulator implements DatabasePopulator {
 		for (Resource script : this.scripts) {
 			EncodedResource encodedScript = new EncodedResource(script, this.sqlScriptEncoding);
 			ScriptUtils.executeSqlScript(connection, encodedScript, this.continueOnError, this.ignoreFailedDrops,
-					this.commentPrefix, this.separator, this.blockCommentStartDelimiter, this.blockCommentEndDelimiter);
+					this.commentPrefix, this.separator, this.blockCommentStartDelimiter, this.blockCommentEndDelimiter,
+					this.dmlBatchSize);
 		}
 	}
 
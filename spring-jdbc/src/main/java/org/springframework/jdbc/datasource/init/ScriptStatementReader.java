@@ -0,0 +1,342 @@
+package org.springframework.jdbc.datasource.init;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.util.LinkedList;
+
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * 增量地从SQL脚本中读取单独的语句.
+ *
+ * <p>与{@link ScriptUtils#readScript}和{@link ScriptUtils#splitSqlScript}的组合具有相同的语义:
+ * 以注释前缀开头的行将被排除, 行注释和块注释将从语句中省略, 多个相邻的空白字符将折叠为单个空格;
+ * 如果脚本不包含语句分隔符, 则回退到{@value ScriptUtils#FALLBACK_STATEMENT_SEPARATOR}.
+ * 但脚本是逐行读取的, 内存中只保留当前语句, 而不是整个脚本及其所有语句.
+ *
+ * <p>在找到第一个语句分隔符之前, 需要保留已读取的脚本, 以便能够回退到
+ * {@value ScriptUtils#FALLBACK_STATEMENT_SEPARATOR}; 因此对于没有语句分隔符的脚本, 内存使用与以前相同.
+ *
+ * <p>此类的实例不是线程安全的.
+ */
+public class ScriptStatementReader implements Closeable {
+
+	private final LineNumberReader reader;
+
+	private final EncodedResource resource;
+
+	private final String separator;
+
+	private final String commentPrefix;
+
+	private final String blockCommentStartDelimiter;
+
+	private final String blockCommentEndDelimiter;
+
+	/** 需要向前查看的最大字符数 */
+	private final int lookahead;
+
+	/** 已读取但尚未完全处理的脚本 */
+	private final StringBuilder pending = new StringBuilder();
+
+	/** 语句拆分在{@link #pending}中的位置 */
+	private int position;
+
+	/** 语句分隔符检测在{@link #pending}中的位置 */
+	private int scanPosition;
+
+	private long scriptLength;
+
+	private boolean endOfScript;
+
+	private boolean separatorFound;
+
+	private boolean inScanLiteral;
+
+	private final StringBuilder statement = new StringBuilder();
+
+	private boolean inSingleQuote;
+
+	private boolean inDoubleQuote;
+
+	private boolean inEscape;
+
+	private boolean inLineComment;
+
+	private boolean inBlockComment;
+
+	/** 已拆分但尚未返回的语句 */
+	private final LinkedList<String> statements = new LinkedList<String>();
+
+
+	/**
+	 * 从给定的资源读取脚本.
+	 *
+	 * @param resource 从中读取脚本的资源 (可能与特定编码相关联)
+	 * @param separator 脚本语句分隔符; 如果未指定, 则默认为{@value ScriptUtils#DEFAULT_STATEMENT_SEPARATOR}
+	 * @param commentPrefix 标识SQL行注释的前缀 &mdash; 通常是 "--"; never {@code null} or empty
+	 * @param blockCommentStartDelimiter <em>start</em>块注释分隔符; never {@code null} or empty
+	 * @param blockCommentEndDelimiter <em>end</em>块注释分隔符; never {@code null} or empty
+	 *
+	 * @throws IOException 如果无法打开资源
+	 */
+	public ScriptStatementReader(EncodedResource resource, String separator, String commentPrefix,
+			String blockCommentStartDelimiter, String blockCommentEndDelimiter) throws IOException {
+
+		this(resource.getReader(), resource, separator, commentPrefix, blockCommentStartDelimiter,
+				blockCommentEndDelimiter);
+	}
+
+	/**
+	 * 从给定的{@code Reader}读取脚本.
+	 *
+	 * @param reader 从中读取脚本的{@code Reader}
+	 * @param resource 脚本的资源, 仅用于错误消息 (可以是{@code null})
+	 * @param separator 脚本语句分隔符; 如果未指定, 则默认为{@value ScriptUtils#DEFAULT_STATEMENT_SEPARATOR}
+	 * @param commentPrefix 标识SQL行注释的前缀 &mdash; 通常是 "--"; never {@code null} or empty
+	 * @param blockCommentStartDelimiter <em>start</em>块注释分隔符; never {@code null} or empty
+	 * @param blockCommentEndDelimiter <em>end</em>块注释分隔符; never {@code null} or empty
+	 */
+	public ScriptStatementReader(Reader reader, EncodedResource resource, String separator, String commentPrefix,
+			String blockCommentStartDelimiter, String blockCommentEndDelimiter) {
+
+		Assert.notNull(reader, "'reader' must not be null");
+		Assert.hasText(commentPrefix, "'commentPrefix' must not be null or empty");
+		Assert.hasText(blockCommentStartDelimiter, "'blockCommentStartDelimiter' must not be null or empty");
+		Assert.hasText(blockCommentEndDelimiter, "'blockCommentEndDelimiter' must not be null or empty");
+		this.reader = (reader instanceof LineNumberReader ? (LineNumberReader) reader : new LineNumberReader(reader));
+		this.resource = resource;
+		this.separator = (separator != null ? separator : ScriptUtils.DEFAULT_STATEMENT_SEPARATOR);
+		this.commentPrefix = commentPrefix;
+		this.blockCommentStartDelimiter = blockCommentStartDelimiter;
+		this.blockCommentEndDelimiter = blockCommentEndDelimiter;
+		this.lookahead = Math.max(Math.max(this.separator.length(), commentPrefix.length()),
+				Math.max(blockCommentStartDelimiter.length(), blockCommentEndDelimiter.length()));
+		// EOF分隔符表示单个语句, 不需要回退
+		this.separatorFound = ScriptUtils.EOF_STATEMENT_SEPARATOR.equals(this.separator);
+	}
+
+
+	/**
+	 * 返回脚本中的下一个语句, 如果没有更多语句, 则返回{@code null}.
+	 *
+	 * @throws IOException 在I/O错误的情况下
+	 * @throws ScriptException 如果在拆分SQL脚本时发生错误
+	 */
+	public String nextStatement() throws IOException, ScriptException {
+		while (true) {
+			if (this.separatorFound && !this.statements.isEmpty()) {
+				return this.statements.removeFirst();
+			}
+			if (this.endOfScript) {
+				return null;
+			}
+			readLine();
+			split();
+			if (this.endOfScript) {
+				finish();
+			}
+		}
+	}
+
+	/**
+	 * 返回当前的行号.
+	 */
+	public int getLineNumber() {
+		return this.reader.getLineNumber();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.reader.close();
+	}
+
+
+	/**
+	 * 读取下一行, 排除以注释前缀开头的行.
+	 */
+	private void readLine() throws IOException {
+		String line = this.reader.readLine();
+		if (line == null) {
+			this.endOfScript = true;
+			appendSeparatorIfNecessary();
+			return;
+		}
+		if (!line.startsWith(this.commentPrefix)) {
+			if (this.scriptLength > 0) {
+				this.pending.append('\n');
+				this.scriptLength++;
+			}
+			this.pending.append(line);
+			this.scriptLength += line.length();
+		}
+	}
+
+	/**
+	 * 与{@link ScriptUtils#readScript}一致: 如果分隔符以空格结尾, 而脚本以去掉空格的分隔符结尾, 则补全分隔符.
+	 */
+	private void appendSeparatorIfNecessary() {
+		String trimmed = this.separator.trim();
+		if (trimmed.length() == this.separator.length()) {
+			return;
+		}
+		int length = this.pending.length();
+		if (length >= trimmed.length() && this.pending.indexOf(trimmed, length - trimmed.length()) >= 0) {
+			String suffix = this.separator.substring(trimmed.length());
+			this.pending.append(suffix);
+			this.scriptLength += suffix.length();
+		}
+	}
+
+	/**
+	 * 处理所有已读取的字符, 只要有足够的字符可以向前查看.
+	 */
+	private void split() {
+		if (!this.separatorFound) {
+			while (this.scanPosition < this.pending.length() &&
+					(this.endOfScript || this.scanPosition + this.separator.length() <= this.pending.length())) {
+				// 与ScriptUtils.containsSqlScriptDelimiters相同的规则
+				if (this.pending.charAt(this.scanPosition) == '\'') {
+					this.inScanLiteral = !this.inScanLiteral;
+				}
+				if (!this.inScanLiteral && startsWith(this.separator, this.scanPosition)) {
+					this.separatorFound = true;
+					break;
+				}
+				this.scanPosition++;
+			}
+		}
+
+		while (this.position < this.pending.length() &&
+				(this.endOfScript || this.position + this.lookahead <= this.pending.length())) {
+			processCharacter();
+		}
+
+		// 找到分隔符后, 不再需要保留已处理的脚本
+		if (this.separatorFound && this.position > 0 && this.position >= this.pending.length() - this.position) {
+			this.pending.delete(0, this.position);
+			this.position = 0;
+		}
+	}
+
+	/**
+	 * 处理当前位置的字符, 与{@link ScriptUtils#splitSqlScript}的规则相同.
+	 */
+	private void processCharacter() {
+		char c = this.pending.charAt(this.position);
+		if (this.inLineComment) {
+			// 跳过注释开头的任何内容到EOL
+			if (c == '\n') {
+				this.inLineComment = false;
+			}
+			this.position++;
+			return;
+		}
+		if (this.inBlockComment) {
+			if (startsWith(this.blockCommentEndDelimiter, this.position)) {
+				this.inBlockComment = false;
+				this.position += this.blockCommentEndDelimiter.length();
+			}
+			else {
+				this.position++;
+			}
+			return;
+		}
+		if (this.inEscape) {
+			this.inEscape = false;
+			this.statement.append(c);
+			this.position++;
+			return;
+		}
+		// MySQL style escapes
+		if (c == '\\') {
+			this.inEscape = true;
+			this.statement.append(c);
+			this.position++;
+			return;
+		}
+		if (!this.inDoubleQuote && (c == '\'')) {
+			this.inSingleQuote = !this.inSingleQuote;
+		}
+		else if (!this.inSingleQuote && (c == '"')) {
+			this.inDoubleQuote = !this.inDoubleQuote;
+		}
+		if (!this.inSingleQuote && !this.inDoubleQuote) {
+			if (startsWith(this.separator, this.position)) {
+				// 已经到了当前声明的末尾
+				if (this.statement.length() > 0) {
+					this.statements.add(this.statement.toString());
+					this.statement.setLength(0);
+				}
+				this.position += this.separator.length();
+				return;
+			}
+			else if (startsWith(this.commentPrefix, this.position)) {
+				this.inLineComment = true;
+				this.position++;
+				return;
+			}
+			else if (startsWith(this.blockCommentStartDelimiter, this.position)) {
+				// 从当前位置开始查找块注释的结束分隔符
+				this.inBlockComment = true;
+				return;
+			}
+			else if (c == ' ' || c == '\n' || c == '\t') {
+				// 避免使用多个相邻的空白字符
+				if (this.statement.length() > 0 && this.statement.charAt(this.statement.length() - 1) != ' ') {
+					c = ' ';
+				}
+				else {
+					this.position++;
+					return;
+				}
+			}
+		}
+		this.statement.append(c);
+		this.position++;
+	}
+
+	/**
+	 * 在脚本结束时, 添加最后一个语句; 如果脚本不包含语句分隔符, 则使用回退分隔符重新拆分脚本.
+	 */
+	private void finish() {
+		if (this.inBlockComment) {
+			throw new ScriptParseException(
+					"Missing block comment end delimiter: " + this.blockCommentEndDelimiter, this.resource);
+		}
+		if (StringUtils.hasText(this.statement)) {
+			this.statements.add(this.statement.toString());
+		}
+		this.statement.setLength(0);
+		if (!this.separatorFound) {
+			this.statements.clear();
+			String script = this.pending.toString();
+			if (StringUtils.hasText(script)) {
+				ScriptUtils.splitSqlScript(this.resource, script, ScriptUtils.FALLBACK_STATEMENT_SEPARATOR,
+						this.commentPrefix, this.blockCommentStartDelimiter, this.blockCommentEndDelimiter,
+						this.statements);
+			}
+			this.separatorFound = true;
+		}
+		this.pending.setLength(0);
+		this.position = 0;
+	}
+
+	private boolean startsWith(String prefix, int index) {
+		int length = prefix.length();
+		if (index + length > this.pending.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (this.pending.charAt(index + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
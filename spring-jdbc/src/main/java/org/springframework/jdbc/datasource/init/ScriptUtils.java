@@ -2,10 +2,12 @@ package org.springframework.jdbc.datasource.init;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -14,6 +16,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -359,69 +362,109 @@ public abstract class ScriptUtils {
 			boolean ignoreFailedDrops, String commentPrefix, String separator, String blockCommentStartDelimiter,
 			String blockCommentEndDelimiter) throws ScriptException {
 
+		executeSqlScript(connection, resource, continueOnError, ignoreFailedDrops, commentPrefix, separator,
+				blockCommentStartDelimiter, blockCommentEndDelimiter, 0);
+	}
+
+	/**
+	 * 执行给定的SQL脚本, 可选地将连续的DML语句分组为JDBC批处理.
+	 * <p>如果{@code dmlBatchSize}大于1, 脚本通过{@link ScriptStatementReader}增量地读取和拆分,
+	 * 因此不需要将整个脚本保存在内存中; 否则, 在执行任何语句之前先解析整个脚本.
+	 * 在提供的脚本中执行单个语句之前, 将删除语句分隔符和注释.
+	 * <p>如果{@code dmlBatchSize}大于1, 并且JDBC驱动程序支持批量更新, 则连续的{@code INSERT},
+	 * {@code UPDATE}, {@code DELETE}和{@code MERGE}语句将通过{@link Statement#addBatch}分组执行;
+	 * 任何其他语句都会先执行挂起的批处理, 因此语句的执行顺序保持不变.
+	 * <p><strong>Warning</strong>: 此方法<em>不</em>释放提供的{@link Connection}.
+	 * 
+	 * @param connection 用于执行脚本的JDBC连接; 已配置并可以使用
+	 * @param resource 从中加载SQL脚本的资源 (可能与特定编码相关联)
+	 * @param continueOnError 是否在发生错误时继续而不抛出异常
+	 * @param ignoreFailedDrops 是否在{@code DROP}语句中发生特定错误时继续
+	 * @param commentPrefix 标识SQL脚本中单行注释的前缀 &mdash; 通常是 "--"
+	 * @param separator 脚本语句分隔符;
+	 * 如果未指定, 则默认为{@value #DEFAULT_STATEMENT_SEPARATOR}, 并作为最后的手段回退到{@value #FALLBACK_STATEMENT_SEPARATOR};
+	 * 可以设置为{@value #EOF_STATEMENT_SEPARATOR}以表示脚本包含没有分隔符的单个语句
+	 * @param blockCommentStartDelimiter <em>start</em>块注释分隔符; never {@code null} or empty
+	 * @param blockCommentEndDelimiter <em>end</em>块注释分隔符; never {@code null} or empty
+	 * @param dmlBatchSize 每个JDBC批处理中DML语句的最大数量; 0或1表示单独执行每个语句
+	 * 
+	 * @throws ScriptException 如果在执行SQL脚本时发生错误
+	 */
+	public static void executeSqlScript(Connection connection, EncodedResource resource, boolean continueOnError,
+			boolean ignoreFailedDrops, String commentPrefix, String separator, String blockCommentStartDelimiter,
+			String blockCommentEndDelimiter, int dmlBatchSize) throws ScriptException {
+
 		try {
 			if (logger.isInfoEnabled()) {
 				logger.info("Executing SQL script from " + resource);
 			}
 			long startTime = System.currentTimeMillis();
 
-			String script;
+			if (dmlBatchSize > 1 && !JdbcUtils.supportsBatchUpdates(connection)) {
+				logger.debug("JDBC Driver does not support Batch updates; executing DML statements one by one");
+				dmlBatchSize = 0;
+			}
+
+			// 不分批执行时, 先解析整个脚本, 以便脚本中的语法错误不会导致部分执行
+			List<String> statements = null;
+			ScriptStatementReader reader = null;
 			try {
-				script = readScript(resource, commentPrefix, separator);
+				if (dmlBatchSize > 1) {
+					reader = new ScriptStatementReader(resource, separator, commentPrefix,
+							blockCommentStartDelimiter, blockCommentEndDelimiter);
+				}
+				else {
+					String script = readScript(resource, commentPrefix, separator);
+					if (separator == null) {
+						separator = DEFAULT_STATEMENT_SEPARATOR;
+					}
+					if (!EOF_STATEMENT_SEPARATOR.equals(separator) && !containsSqlScriptDelimiters(script, separator)) {
+						separator = FALLBACK_STATEMENT_SEPARATOR;
+					}
+					statements = new LinkedList<String>();
+					splitSqlScript(resource, script, separator, commentPrefix, blockCommentStartDelimiter,
+							blockCommentEndDelimiter, statements);
+				}
 			}
 			catch (IOException ex) {
 				throw new CannotReadScriptException(resource, ex);
 			}
 
-			if (separator == null) {
-				separator = DEFAULT_STATEMENT_SEPARATOR;
-			}
-			if (!EOF_STATEMENT_SEPARATOR.equals(separator) && !containsSqlScriptDelimiters(script, separator)) {
-				separator = FALLBACK_STATEMENT_SEPARATOR;
-			}
-
-			List<String> statements = new LinkedList<String>();
-			splitSqlScript(resource, script, separator, commentPrefix, blockCommentStartDelimiter,
-					blockCommentEndDelimiter, statements);
-
-			int stmtNumber = 0;
-			Statement stmt = connection.createStatement();
 			try {
-				for (String statement : statements) {
-					stmtNumber++;
-					try {
-						stmt.execute(statement);
-						int rowsAffected = stmt.getUpdateCount();
-						if (logger.isDebugEnabled()) {
-							logger.debug(rowsAffected + " returned as update count for SQL: " + statement);
-							SQLWarning warningToLog = stmt.getWarnings();
-							while (warningToLog != null) {
-								logger.debug("SQLWarning ignored: SQL state '" + warningToLog.getSQLState() +
-										"', error code '" + warningToLog.getErrorCode() +
-										"', message [" + warningToLog.getMessage() + "]");
-								warningToLog = warningToLog.getNextWarning();
-							}
+				Statement stmt = connection.createStatement();
+				try {
+					ScriptStatementExecutor executor = new ScriptStatementExecutor(
+							stmt, resource, continueOnError, ignoreFailedDrops, dmlBatchSize);
+					if (statements != null) {
+						for (String statement : statements) {
+							executor.execute(statement);
 						}
 					}
-					catch (SQLException ex) {
-						boolean dropStatement = StringUtils.startsWithIgnoreCase(statement.trim(), "drop");
-						if (continueOnError || (dropStatement && ignoreFailedDrops)) {
-							if (logger.isDebugEnabled()) {
-								logger.debug(ScriptStatementFailedException.buildErrorMessage(statement, stmtNumber, resource), ex);
-							}
-						}
-						else {
-							throw new ScriptStatementFailedException(statement, stmtNumber, resource, ex);
+					else {
+						String statement;
+						while ((statement = nextStatement(reader, resource)) != null) {
+							executor.execute(statement);
 						}
 					}
+					executor.flush();
+				}
+				finally {
+					try {
+						stmt.close();
+					}
+					catch (Throwable ex) {
+						logger.debug("Could not close JDBC Statement", ex);
+					}
 				}
 			}
 			finally {
-				try {
-					stmt.close();
-				}
-				catch (Throwable ex) {
-					logger.debug("Could not close JDBC Statement", ex);
+				if (reader != null) {
+					try {
+						reader.close();
+					}
+					catch (IOException ex) {
+						logger.debug("Could not close SQL script reader", ex);
+					}
 				}
 			}
 
@@ -438,4 +481,177 @@ public abstract class ScriptUtils {
 				"Failed to execute database script from resource [" + resource + "]", ex);
 		}
 	}
+
+	private static String nextStatement(ScriptStatementReader reader, EncodedResource resource) {
+		try {
+			return reader.nextStatement();
+		}
+		catch (IOException ex) {
+			throw new CannotReadScriptException(resource, ex);
+		}
+	}
+
+	/**
+	 * 给定的语句是否是可以分组为JDBC批处理的DML语句?
+	 */
+	private static boolean isBatchableStatement(String statement) {
+		return (startsWithKeyword(statement, "insert") || startsWithKeyword(statement, "update") ||
+				startsWithKeyword(statement, "delete") || startsWithKeyword(statement, "merge"));
+	}
+
+	private static boolean startsWithKeyword(String statement, String keyword) {
+		if (!StringUtils.startsWithIgnoreCase(statement, keyword)) {
+			return false;
+		}
+		if (statement.length() == keyword.length()) {
+			return true;
+		}
+		char next = statement.charAt(keyword.length());
+		return (Character.isWhitespace(next) || next == '(');
+	}
+
+
+	/**
+	 * 在单个{@link Statement}上执行脚本的语句, 将连续的DML语句分组为批处理.
+	 */
+	private static class ScriptStatementExecutor {
+
+		private final Statement stmt;
+
+		private final EncodedResource resource;
+
+		private final boolean continueOnError;
+
+		private final boolean ignoreFailedDrops;
+
+		private final int batchSize;
+
+		private final List<String> batch;
+
+		private int stmtNumber;
+
+		/** 批处理中第一个语句的编号 */
+		private int batchStartNumber;
+
+		public ScriptStatementExecutor(Statement stmt, EncodedResource resource, boolean continueOnError,
+				boolean ignoreFailedDrops, int batchSize) {
+
+			this.stmt = stmt;
+			this.resource = resource;
+			this.continueOnError = continueOnError;
+			this.ignoreFailedDrops = ignoreFailedDrops;
+			this.batchSize = batchSize;
+			this.batch = (batchSize > 1 ? new ArrayList<String>(batchSize) : null);
+		}
+
+		public void execute(String statement) throws SQLException {
+			this.stmtNumber++;
+			if (this.batch != null && isBatchableStatement(statement)) {
+				if (this.batch.isEmpty()) {
+					this.batchStartNumber = this.stmtNumber;
+				}
+				this.stmt.addBatch(statement);
+				this.batch.add(statement);
+				if (this.batch.size() >= this.batchSize) {
+					flush();
+				}
+			}
+			else {
+				flush();
+				executeSingle(statement, this.stmtNumber);
+			}
+		}
+
+		/**
+		 * 执行挂起的批处理 (如果有).
+		 */
+		public void flush() throws SQLException {
+			if (this.batch == null || this.batch.isEmpty()) {
+				return;
+			}
+			String[] statements = this.batch.toArray(new String[this.batch.size()]);
+			int firstNumber = this.batchStartNumber;
+			this.batch.clear();
+			int[] updateCounts;
+			try {
+				updateCounts = this.stmt.executeBatch();
+			}
+			catch (BatchUpdateException ex) {
+				this.stmt.clearBatch();
+				handleBatchFailure(statements, firstNumber, ex);
+				return;
+			}
+			catch (SQLException ex) {
+				// 驱动程序没有报告各个语句的结果: 将失败归于批处理中的第一个语句
+				try {
+					this.stmt.clearBatch();
+				}
+				catch (SQLException clearEx) {
+					logger.debug("Could not clear JDBC batch", clearEx);
+				}
+				handleFailure(statements[0], firstNumber, ex);
+				return;
+			}
+			if (logger.isDebugEnabled()) {
+				for (int i = 0; i < statements.length && i < updateCounts.length; i++) {
+					logger.debug(updateCounts[i] + " returned as update count for SQL: " + statements[i]);
+				}
+			}
+		}
+
+		private void handleBatchFailure(String[] statements, int firstNumber, BatchUpdateException ex)
+				throws SQLException {
+
+			int[] updateCounts = ex.getUpdateCounts();
+			if (updateCounts == null || updateCounts.length < statements.length) {
+				// 驱动程序在第一个失败的语句处停止: 单独执行剩余的语句
+				int failed = (updateCounts != null ? updateCounts.length : 0);
+				handleFailure(statements[failed], firstNumber + failed, ex);
+				for (int i = failed + 1; i < statements.length; i++) {
+					executeSingle(statements[i], firstNumber + i);
+				}
+			}
+			else {
+				// 驱动程序继续执行了批处理中的所有语句
+				for (int i = 0; i < statements.length; i++) {
+					if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+						handleFailure(statements[i], firstNumber + i, ex);
+					}
+				}
+			}
+		}
+
+		private void executeSingle(String statement, int number) throws SQLException {
+			try {
+				this.stmt.execute(statement);
+				int rowsAffected = this.stmt.getUpdateCount();
+				if (logger.isDebugEnabled()) {
+					logger.debug(rowsAffected + " returned as update count for SQL: " + statement);
+					SQLWarning warningToLog = this.stmt.getWarnings();
+					while (warningToLog != null) {
+						logger.debug("SQLWarning ignored: SQL state '" + warningToLog.getSQLState() +
+								"', error code '" + warningToLog.getErrorCode() +
+								"', message [" + warningToLog.getMessage() + "]");
+						warningToLog = warningToLog.getNextWarning();
+					}
+				}
+			}
+			catch (SQLException ex) {
+				handleFailure(statement, number, ex);
+			}
+		}
+
+		private void handleFailure(String statement, int number, SQLException ex) {
+			boolean dropStatement = StringUtils.startsWithIgnoreCase(statement.trim(), "drop");
+			if (this.continueOnError || (dropStatement && this.ignoreFailedDrops)) {
+				if (logger.isDebugEnabled()) {
+					logger.debug(ScriptStatementFailedException.buildErrorMessage(statement, number, this.resource), ex);
+				}
+			}
+			else {
+				throw new ScriptStatementFailedException(statement, number, this.resource, ex);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,371 @@
+package org.springframework.jdbc.datasource.lookup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 将只读事务中的{@link #getConnection()}调用路由到一组只读副本, 而将所有其他调用路由到主DataSource的DataSource.
+ *
+ * <p>是否只读通过{@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}确定.
+ * 由于事务管理器 (e.g. {@link org.springframework.jdbc.datasource.DataSourceTransactionManager})
+ * 通常在设置只读标志<i>之前</i>获取连接, 此DataSource应该包装在
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}中,
+ * 从而在执行第一个语句时才获取实际的连接:
+ *
+ * <pre class="code">
+ * &lt;bean id="dataSource" class="org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy"&gt;
+ *   &lt;property name="targetDataSource"&gt;
+ *     &lt;bean class="org.springframework.jdbc.datasource.lookup.ReadReplicaRoutingDataSource"&gt;
+ *       &lt;property name="primaryDataSource" ref="primaryDataSource"/&gt;
+ *       &lt;property name="replicaDataSources"&gt;
+ *         &lt;list&gt;
+ *           &lt;ref bean="replicaDataSource1"/&gt;
+ *           &lt;ref bean="replicaDataSource2"/&gt;
+ *         &lt;/list&gt;
+ *       &lt;/property&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * <p>副本根据{@link #setSelectionStrategy 选择策略}选择: 未完成的连接 (已获取但尚未关闭) 最少的副本,
+ * 或者按获取连接所需时间的指数加权移动平均值加权. 获取连接失败的副本在连续失败
+ * {@link #setFailureThreshold 指定次数}后被暂时剔除, 在{@link #setEjectionTime 剔除时间}之后重新启用.
+ * 如果没有可用的副本, 则回退到主DataSource (除非{@link #setFallbackToPrimary 禁用}).
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+	/**
+	 * 副本选择策略.
+	 */
+	public enum SelectionStrategy {
+
+		/** 选择未完成的连接最少的副本 */
+		LEAST_OUTSTANDING,
+
+		/**
+		 * 选择获取连接的平均时间乘以 (未完成的连接数 + 1) 最小的副本.
+		 * <p>测量的是副本DataSource的{@code getConnection()}调用时间, 而不是连接的使用时间,
+		 * 因此不受调用者在连接上执行的工作量的影响.
+		 */
+		LATENCY_WEIGHTED
+	}
+
+
+	/** 延迟的指数加权移动平均值中, 最新样本的权重 */
+	private static final double LATENCY_DECAY = 0.2;
+
+
+	private DataSource primaryDataSource;
+
+	private List<DataSource> replicaDataSources;
+
+	private SelectionStrategy selectionStrategy = SelectionStrategy.LEAST_OUTSTANDING;
+
+	private int failureThreshold = 3;
+
+	private long ejectionTime = 30000;
+
+	private boolean fallbackToPrimary = true;
+
+	private Replica[] replicas;
+
+	private final AtomicInteger nextStart = new AtomicInteger();
+
+
+	/**
+	 * 设置用于写入和非只读事务的主DataSource.
+	 */
+	public void setPrimaryDataSource(DataSource primaryDataSource) {
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	/**
+	 * 返回主DataSource.
+	 */
+	public DataSource getPrimaryDataSource() {
+		return this.primaryDataSource;
+	}
+
+	/**
+	 * 设置用于只读事务的副本DataSource.
+	 */
+	public void setReplicaDataSources(List<DataSource> replicaDataSources) {
+		this.replicaDataSources = replicaDataSources;
+	}
+
+	/**
+	 * 设置副本选择策略.
+	 * <p>默认是{@link SelectionStrategy#LEAST_OUTSTANDING}.
+	 */
+	public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+		Assert.notNull(selectionStrategy, "SelectionStrategy must not be null");
+		this.selectionStrategy = selectionStrategy;
+	}
+
+	/**
+	 * 设置剔除副本之前, 获取连接连续失败的次数.
+	 * <p>默认是 3.
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		Assert.isTrue(failureThreshold > 0, "Failure threshold must be greater than 0");
+		this.failureThreshold = failureThreshold;
+	}
+
+	/**
+	 * 设置剔除的副本重新启用之前的时间, 以毫秒为单位.
+	 * <p>默认是 30000 (30秒).
+	 */
+	public void setEjectionTime(long ejectionTime) {
+		this.ejectionTime = ejectionTime;
+	}
+
+	/**
+	 * 设置如果没有可用的副本, 是否回退到主DataSource.
+	 * <p>默认是{@code true}. 否则, 抛出最后一次获取副本连接时的异常;
+	 * 如果所有副本都已被剔除而没有尝试任何副本, 则抛出{@link SQLException}.
+	 */
+	public void setFallbackToPrimary(boolean fallbackToPrimary) {
+		this.fallbackToPrimary = fallbackToPrimary;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.notNull(this.primaryDataSource, "Property 'primaryDataSource' is required");
+		int count = (this.replicaDataSources != null ? this.replicaDataSources.size() : 0);
+		this.replicas = new Replica[count];
+		for (int i = 0; i < count; i++) {
+			this.replicas[i] = new Replica(this.replicaDataSources.get(i));
+		}
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(null, null, false);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getConnection(username, password, true);
+	}
+
+	private Connection getConnection(String username, String password, boolean withCredentials) throws SQLException {
+		Assert.state(this.replicas != null, "ReadReplicaRoutingDataSource not initialized");
+		if (this.replicas.length == 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return doGetConnection(this.primaryDataSource, username, password, withCredentials);
+		}
+
+		SQLException lastEx = null;
+		boolean[] attempted = new boolean[this.replicas.length];
+		for (int attempt = 0; attempt < this.replicas.length; attempt++) {
+			int index = selectReplica(attempted);
+			if (index == -1) {
+				break;
+			}
+			attempted[index] = true;
+			Replica replica = this.replicas[index];
+			replica.outstanding.incrementAndGet();
+			long startTime = System.nanoTime();
+			try {
+				Connection con = doGetConnection(replica.dataSource, username, password, withCredentials);
+				replica.recordSuccess(System.nanoTime() - startTime);
+				return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+						new Class<?>[] {ConnectionProxy.class}, new ReplicaConnectionHandler(con, replica));
+			}
+			catch (SQLException ex) {
+				replica.outstanding.decrementAndGet();
+				replica.recordFailure();
+				lastEx = ex;
+				logger.warn("Failed to obtain connection from replica DataSource [" + replica.dataSource + "]", ex);
+			}
+		}
+
+		if (!this.fallbackToPrimary) {
+			throw (lastEx != null ? lastEx : new SQLException("No replica DataSource available"));
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("No replica DataSource available - routing read-only connection to primary DataSource");
+		}
+		return doGetConnection(this.primaryDataSource, username, password, withCredentials);
+	}
+
+	private Connection doGetConnection(DataSource dataSource, String username, String password,
+			boolean withCredentials) throws SQLException {
+
+		return (withCredentials ? dataSource.getConnection(username, password) : dataSource.getConnection());
+	}
+
+	/**
+	 * 根据当前的选择策略, 选择一个可用的副本.
+	 *
+	 * @param excluded 在本次获取连接时已尝试过的副本
+	 *
+	 * @return 选择的副本的索引, 如果没有可用的副本, 则返回 -1
+	 */
+	private int selectReplica(boolean[] excluded) {
+		long now = System.currentTimeMillis();
+		int count = this.replicas.length;
+		// 从轮转的位置开始, 以便在负载相同时均匀分配
+		int start = (this.nextStart.getAndIncrement() & Integer.MAX_VALUE) % count;
+		int best = -1;
+		double bestScore = Double.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			int index = (start + i) % count;
+			Replica replica = this.replicas[index];
+			if (excluded[index] || !replica.isAvailable(now)) {
+				continue;
+			}
+			double score = (this.selectionStrategy == SelectionStrategy.LATENCY_WEIGHTED ?
+					replica.latency * (replica.outstanding.get() + 1) : replica.outstanding.get());
+			if (score < bestScore) {
+				best = index;
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+		return this.primaryDataSource.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (iface.isInstance(this) || this.primaryDataSource.isWrapperFor(iface));
+	}
+
+
+	/**
+	 * 副本DataSource, 以及其负载和健康状态.
+	 */
+	private class Replica {
+
+		final DataSource dataSource;
+
+		final AtomicInteger outstanding = new AtomicInteger();
+
+		/** 获取连接所需时间的指数加权移动平均值, 以纳秒为单位 */
+		volatile double latency = 1;
+
+		private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+		private volatile long ejectedUntil;
+
+		public Replica(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		public boolean isAvailable(long now) {
+			long ejectedUntil = this.ejectedUntil;
+			if (ejectedUntil == 0) {
+				return true;
+			}
+			if (now < ejectedUntil) {
+				return false;
+			}
+			// 剔除时间已过: 再次尝试, 下一次失败会立即重新剔除
+			this.ejectedUntil = 0;
+			this.consecutiveFailures.set(failureThreshold - 1);
+			return true;
+		}
+
+		public void recordSuccess(long elapsedNanos) {
+			this.consecutiveFailures.set(0);
+			double current = this.latency;
+			this.latency = (current <= 1 ? elapsedNanos : current + LATENCY_DECAY * (elapsedNanos - current));
+		}
+
+		public void recordFailure() {
+			if (this.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+				this.ejectedUntil = System.currentTimeMillis() + ejectionTime;
+				logger.warn("Ejecting replica DataSource [" + this.dataSource + "] for " + ejectionTime + "ms");
+			}
+		}
+
+		public void recordRelease() {
+			this.outstanding.decrementAndGet();
+		}
+	}
+
+
+	/**
+	 * 副本连接的代理, 在关闭时减少未完成的连接数.
+	 */
+	private static class ReplicaConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final Replica replica;
+
+		private boolean closed = false;
+
+		public ReplicaConnectionHandler(Connection target, Replica replica) {
+			this.target = target;
+			this.replica = replica;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// 来自ConnectionProxy接口的调用...
+
+			if (method.getName().equals("equals")) {
+				// 只有在代理相同时才被视为相等.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// 使用Connection代理的hashCode.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Replica proxy for target Connection [" + this.target + "]";
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("getTargetConnection")) {
+				// 处理getTargetConnection方法: 返回底层Connection.
+				return this.target;
+			}
+			else if (method.getName().equals("close")) {
+				if (!this.closed) {
+					this.closed = true;
+					this.replica.recordRelease();
+				}
+			}
+
+			// 在目标Connection上调用方法.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+package org.springframework.jdbc.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从{@link SQLErrorCodes}预编译的错误代码查找表.
+ *
+ * <p>将每个错误代码映射到一个{@link Entry}, 其中包含匹配的自定义转换 (按声明的顺序),
+ * 以及第一个匹配的错误代码分组 (按{@link SQLErrorCodeSQLExceptionTranslator}检查分组的顺序).
+ * 数字错误代码保存在已排序的{@code int}数组中, 因此查找时不需要将错误代码转换为字符串;
+ * SQL状态则通过{@code HashMap}查找.
+ *
+ * <p>此类的实例是不可变的, 因此是线程安全的. 仅供此包内部使用.
+ */
+final class SQLErrorCodeLookup {
+
+	/**
+	 * 错误代码分组, 按转换器检查的顺序.
+	 */
+	enum Category {
+
+		BAD_SQL_GRAMMAR,
+
+		INVALID_RESULT_SET_ACCESS,
+
+		DUPLICATE_KEY,
+
+		DATA_INTEGRITY_VIOLATION,
+
+		PERMISSION_DENIED,
+
+		DATA_ACCESS_RESOURCE_FAILURE,
+
+		TRANSIENT_DATA_ACCESS_RESOURCE,
+
+		CANNOT_ACQUIRE_LOCK,
+
+		DEADLOCK_LOSER,
+
+		CANNOT_SERIALIZE_TRANSACTION
+	}
+
+
+	private final boolean useSqlState;
+
+	/** 已排序的数字错误代码 */
+	private final int[] codes;
+
+	/** 与{@link #codes}对应的条目 */
+	private final Entry[] entries;
+
+	/** SQL状态到条目的映射 (仅当使用SQL状态进行转换时) */
+	private final Map<String, Entry> stateEntries;
+
+
+	/**
+	 * 编译给定的错误代码.
+	 */
+	SQLErrorCodeLookup(SQLErrorCodes sqlErrorCodes) {
+		Map<String, List<CustomSQLErrorCodesTranslation>> customs =
+				new LinkedHashMap<String, List<CustomSQLErrorCodesTranslation>>();
+		CustomSQLErrorCodesTranslation[] customTranslations = sqlErrorCodes.getCustomTranslations();
+		if (customTranslations != null) {
+			for (CustomSQLErrorCodesTranslation customTranslation : customTranslations) {
+				for (String code : customTranslation.getErrorCodes()) {
+					List<CustomSQLErrorCodesTranslation> list = customs.get(code);
+					if (list == null) {
+						list = new ArrayList<CustomSQLErrorCodesTranslation>(1);
+						customs.put(code, list);
+					}
+					if (!list.contains(customTranslation)) {
+						list.add(customTranslation);
+					}
+				}
+			}
+		}
+
+		Map<String, Category> categories = new HashMap<String, Category>();
+		register(categories, sqlErrorCodes.getBadSqlGrammarCodes(), Category.BAD_SQL_GRAMMAR);
+		register(categories, sqlErrorCodes.getInvalidResultSetAccessCodes(), Category.INVALID_RESULT_SET_ACCESS);
+		register(categories, sqlErrorCodes.getDuplicateKeyCodes(), Category.DUPLICATE_KEY);
+		register(categories, sqlErrorCodes.getDataIntegrityViolationCodes(), Category.DATA_INTEGRITY_VIOLATION);
+		register(categories, sqlErrorCodes.getPermissionDeniedCodes(), Category.PERMISSION_DENIED);
+		register(categories, sqlErrorCodes.getDataAccessResourceFailureCodes(), Category.DATA_ACCESS_RESOURCE_FAILURE);
+		register(categories, sqlErrorCodes.getTransientDataAccessResourceCodes(), Category.TRANSIENT_DATA_ACCESS_RESOURCE);
+		register(categories, sqlErrorCodes.getCannotAcquireLockCodes(), Category.CANNOT_ACQUIRE_LOCK);
+		register(categories, sqlErrorCodes.getDeadlockLoserCodes(), Category.DEADLOCK_LOSER);
+		register(categories, sqlErrorCodes.getCannotSerializeTransactionCodes(), Category.CANNOT_SERIALIZE_TRANSACTION);
+
+		Map<String, Entry> allEntries = new HashMap<String, Entry>();
+		for (Map.Entry<String, List<CustomSQLErrorCodesTranslation>> custom : customs.entrySet()) {
+			List<CustomSQLErrorCodesTranslation> list = custom.getValue();
+			allEntries.put(custom.getKey(), new Entry(
+					list.toArray(new CustomSQLErrorCodesTranslation[list.size()]), categories.get(custom.getKey())));
+		}
+		for (Map.Entry<String, Category> category : categories.entrySet()) {
+			if (!allEntries.containsKey(category.getKey())) {
+				allEntries.put(category.getKey(), new Entry(null, category.getValue()));
+			}
+		}
+
+		this.useSqlState = sqlErrorCodes.isUseSqlStateForTranslation();
+		if (this.useSqlState) {
+			this.codes = new int[0];
+			this.entries = new Entry[0];
+			this.stateEntries = allEntries;
+		}
+		else {
+			// 只保留与Integer.toString的结果一致的代码; 其他代码 (e.g. "+100") 在此之前也永远不会匹配.
+			Map<Integer, Entry> numericEntries = new HashMap<Integer, Entry>(allEntries.size());
+			for (Map.Entry<String, Entry> entry : allEntries.entrySet()) {
+				Integer code = parseCode(entry.getKey());
+				if (code != null) {
+					numericEntries.put(code, entry.getValue());
+				}
+			}
+			this.codes = new int[numericEntries.size()];
+			int i = 0;
+			for (Integer code : numericEntries.keySet()) {
+				this.codes[i++] = code;
+			}
+			Arrays.sort(this.codes);
+			this.entries = new Entry[this.codes.length];
+			for (i = 0; i < this.codes.length; i++) {
+				this.entries[i] = numericEntries.get(this.codes[i]);
+			}
+			this.stateEntries = null;
+		}
+	}
+
+
+	/**
+	 * 返回是否按SQL状态 (而不是数字错误代码) 查找.
+	 */
+	boolean isUseSqlState() {
+		return this.useSqlState;
+	}
+
+	/**
+	 * 返回给定数字错误代码的条目, 如果没有匹配的转换, 则返回{@code null}.
+	 */
+	Entry getEntry(int errorCode) {
+		int index = Arrays.binarySearch(this.codes, errorCode);
+		return (index >= 0 ? this.entries[index] : null);
+	}
+
+	/**
+	 * 返回给定SQL状态的条目, 如果没有匹配的转换, 则返回{@code null}.
+	 */
+	Entry getEntry(String sqlState) {
+		return (sqlState != null && this.stateEntries != null ? this.stateEntries.get(sqlState) : null);
+	}
+
+
+	private static void register(Map<String, Category> categories, String[] codes, Category category) {
+		if (codes != null) {
+			for (String code : codes) {
+				// 第一个分组优先, 与转换器检查分组的顺序一致
+				if (!categories.containsKey(code)) {
+					categories.put(code, category);
+				}
+			}
+		}
+	}
+
+	private static Integer parseCode(String code) {
+		try {
+			int value = Integer.parseInt(code);
+			return (Integer.toString(value).equals(code) ? value : null);
+		}
+		catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * 单个错误代码的转换: 自定义转换, 以及错误代码分组.
+	 */
+	static final class Entry {
+
+		private final CustomSQLErrorCodesTranslation[] customTranslations;
+
+		private final Category category;
+
+		Entry(CustomSQLErrorCodesTranslation[] customTranslations, Category category) {
+			this.customTranslations = customTranslations;
+			this.category = category;
+		}
+
+		/**
+		 * 返回匹配的自定义转换, 按声明的顺序 (可以是{@code null}).
+		 */
+		CustomSQLErrorCodesTranslation[] getCustomTranslations() {
+			return this.customTranslations;
+		}
+
+		/**
+		 * 返回匹配的错误代码分组 (可以是{@code null}).
+		 */
+		Category getCategory() {
+			return this.category;
+		}
+	}
+
+}
@@ -3,7 +3,6 @@ package org.springframework.jdbc.support;
 import java.lang.reflect.Constructor;
 import java.sql.BatchUpdateException;
 import java.sql.SQLException;
-import java.util.Arrays;
 import javax.sql.DataSource;
 
 import org.springframework.dao.CannotAcquireLockException;
@@ -156,11 +155,12 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 			}
 		}
 
-		// 检查SQLErrorCodes以及相应的错误代码.
+		// 检查SQLErrorCodes以及相应的错误代码 (通过预编译的查找表).
 		if (this.sqlErrorCodes != null) {
-			String errorCode;
-			if (this.sqlErrorCodes.isUseSqlStateForTranslation()) {
-				errorCode = sqlEx.getSQLState();
+			SQLErrorCodeLookup lookup = this.sqlErrorCodes.getLookup();
+			SQLErrorCodeLookup.Entry entry;
+			if (lookup.isUseSqlState()) {
+				entry = lookup.getEntry(sqlEx.getSQLState());
 			}
 			else {
 				// 尝试使用实际错误代码查找SQLException, 循环查看原因.
@@ -169,66 +169,29 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 				while (current.getErrorCode() == 0 && current.getCause() instanceof SQLException) {
 					current = (SQLException) current.getCause();
 				}
-				errorCode = Integer.toString(current.getErrorCode());
+				entry = lookup.getEntry(current.getErrorCode());
 			}
 
-			if (errorCode != null) {
+			if (entry != null) {
 				// 首先查找定义的自定义转换.
-				CustomSQLErrorCodesTranslation[] customTranslations = this.sqlErrorCodes.getCustomTranslations();
+				CustomSQLErrorCodesTranslation[] customTranslations = entry.getCustomTranslations();
 				if (customTranslations != null) {
 					for (CustomSQLErrorCodesTranslation customTranslation : customTranslations) {
-						if (Arrays.binarySearch(customTranslation.getErrorCodes(), errorCode) >= 0) {
-							if (customTranslation.getExceptionClass() != null) {
-								DataAccessException customException = createCustomException(
-										task, sql, sqlEx, customTranslation.getExceptionClass());
-								if (customException != null) {
-									logTranslation(task, sql, sqlEx, true);
-									return customException;
-								}
+						if (customTranslation.getExceptionClass() != null) {
+							DataAccessException customException = createCustomException(
+									task, sql, sqlEx, customTranslation.getExceptionClass());
+							if (customException != null) {
+								logTranslation(task, sql, sqlEx, true);
+								return customException;
 							}
 						}
 					}
 				}
 				// 接下来, 查找分组的错误代码.
-				if (Arrays.binarySearch(this.sqlErrorCodes.getBadSqlGrammarCodes(), errorCode) >= 0) {
+				SQLErrorCodeLookup.Category category = entry.getCategory();
+				if (category != null) {
 					logTranslation(task, sql, sqlEx, false);
-					return new BadSqlGrammarException(task, sql, sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getInvalidResultSetAccessCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new InvalidResultSetAccessException(task, sql, sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDuplicateKeyCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DuplicateKeyException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDataIntegrityViolationCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DataIntegrityViolationException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getPermissionDeniedCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new PermissionDeniedDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDataAccessResourceFailureCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DataAccessResourceFailureException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getTransientDataAccessResourceCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new TransientDataAccessResourceException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getCannotAcquireLockCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new CannotAcquireLockException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getDeadlockLoserCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new DeadlockLoserDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
-				}
-				else if (Arrays.binarySearch(this.sqlErrorCodes.getCannotSerializeTransactionCodes(), errorCode) >= 0) {
-					logTranslation(task, sql, sqlEx, false);
-					return new CannotSerializeTransactionException(buildMessage(task, sql, sqlEx), sqlEx);
+					return createException(category, task, sql, sqlEx);
 				}
 			}
 		}
@@ -248,6 +211,38 @@ public class SQLErrorCodeSQLExceptionTranslator extends AbstractFallbackSQLExcep
 		return null;
 	}
 
+	/**
+	 * 为给定的错误代码分组创建相应的DataAccessException.
+	 */
+	private DataAccessException createException(
+			SQLErrorCodeLookup.Category category, String task, String sql, SQLException sqlEx) {
+
+		switch (category) {
+			case BAD_SQL_GRAMMAR:
+				return new BadSqlGrammarException(task, sql, sqlEx);
+			case INVALID_RESULT_SET_ACCESS:
+				return new InvalidResultSetAccessException(task, sql, sqlEx);
+			case DUPLICATE_KEY:
+				return new DuplicateKeyException(buildMessage(task, sql, sqlEx), sqlEx);
+			case DATA_INTEGRITY_VIOLATION:
+				return new DataIntegrityViolationException(buildMessage(task, sql, sqlEx), sqlEx);
+			case PERMISSION_DENIED:
+				return new PermissionDeniedDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
+			case DATA_ACCESS_RESOURCE_FAILURE:
+				return new DataAccessResourceFailureException(buildMessage(task, sql, sqlEx), sqlEx);
+			case TRANSIENT_DATA_ACCESS_RESOURCE:
+				return new TransientDataAccessResourceException(buildMessage(task, sql, sqlEx), sqlEx);
+			case CANNOT_ACQUIRE_LOCK:
+				return new CannotAcquireLockException(buildMessage(task, sql, sqlEx), sqlEx);
+			case DEADLOCK_LOSER:
+				return new DeadlockLoserDataAccessException(buildMessage(task, sql, sqlEx), sqlEx);
+			case CANNOT_SERIALIZE_TRANSACTION:
+				return new CannotSerializeTransactionException(buildMessage(task, sql, sqlEx), sqlEx);
+			default:
+				throw new IllegalStateException("Unknown error code category: " + category);
+		}
+	}
+
 	/**
 	 * 子类可以重写此方法以尝试从SQLException到DataAccessException的自定义映射.
 	 * 
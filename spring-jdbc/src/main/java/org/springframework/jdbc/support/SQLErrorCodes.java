@@ -39,6 +39,9 @@ public class SQLErrorCodes {
 
 	private SQLExceptionTranslator customSqlExceptionTranslator;
 
+	/** 预编译的错误代码查找表, 在任何错误代码属性改变时重置 */
+	private volatile SQLErrorCodeLookup lookup;
+
 
 	/**
 	 * 如果数据库名称包含空格, 设置此属性, 在这种情况下, 不能使用bean名称进行查找.
@@ -68,6 +71,7 @@ public class SQLErrorCodes {
 	 */
 	public void setUseSqlStateForTranslation(boolean useStateCodeForTranslation) {
 		this.useSqlStateForTranslation = useStateCodeForTranslation;
+		this.lookup = null;
 	}
 
 	public boolean isUseSqlStateForTranslation() {
@@ -76,6 +80,7 @@ public class SQLErrorCodes {
 
 	public void setBadSqlGrammarCodes(String... badSqlGrammarCodes) {
 		this.badSqlGrammarCodes = StringUtils.sortStringArray(badSqlGrammarCodes);
+		this.lookup = null;
 	}
 
 	public String[] getBadSqlGrammarCodes() {
@@ -84,6 +89,7 @@ public class SQLErrorCodes {
 
 	public void setInvalidResultSetAccessCodes(String... invalidResultSetAccessCodes) {
 		this.invalidResultSetAccessCodes = StringUtils.sortStringArray(invalidResultSetAccessCodes);
+		this.lookup = null;
 	}
 
 	public String[] getInvalidResultSetAccessCodes() {
@@ -96,10 +102,12 @@ public class SQLErrorCodes {
 
 	public void setDuplicateKeyCodes(String... duplicateKeyCodes) {
 		this.duplicateKeyCodes = duplicateKeyCodes;
+		this.lookup = null;
 	}
 
 	public void setDataIntegrityViolationCodes(String... dataIntegrityViolationCodes) {
 		this.dataIntegrityViolationCodes = StringUtils.sortStringArray(dataIntegrityViolationCodes);
+		this.lookup = null;
 	}
 
 	public String[] getDataIntegrityViolationCodes() {
@@ -108,6 +116,7 @@ public class SQLErrorCodes {
 
 	public void setPermissionDeniedCodes(String... permissionDeniedCodes) {
 		this.permissionDeniedCodes = StringUtils.sortStringArray(permissionDeniedCodes);
+		this.lookup = null;
 	}
 
 	public String[] getPermissionDeniedCodes() {
@@ -116,6 +125,7 @@ public class SQLErrorCodes {
 
 	public void setDataAccessResourceFailureCodes(String... dataAccessResourceFailureCodes) {
 		this.dataAccessResourceFailureCodes = StringUtils.sortStringArray(dataAccessResourceFailureCodes);
+		this.lookup = null;
 	}
 
 	public String[] getDataAccessResourceFailureCodes() {
@@ -124,6 +134,7 @@ public class SQLErrorCodes {
 
 	public void setTransientDataAccessResourceCodes(String... transientDataAccessResourceCodes) {
 		this.transientDataAccessResourceCodes = StringUtils.sortStringArray(transientDataAccessResourceCodes);
+		this.lookup = null;
 	}
 
 	public String[] getTransientDataAccessResourceCodes() {
@@ -132,6 +143,7 @@ public class SQLErrorCodes {
 
 	public void setCannotAcquireLockCodes(String... cannotAcquireLockCodes) {
 		this.cannotAcquireLockCodes = StringUtils.sortStringArray(cannotAcquireLockCodes);
+		this.lookup = null;
 	}
 
 	public String[] getCannotAcquireLockCodes() {
@@ -140,6 +152,7 @@ public class SQLErrorCodes {
 
 	public void setDeadlockLoserCodes(String... deadlockLoserCodes) {
 		this.deadlockLoserCodes = StringUtils.sortStringArray(deadlockLoserCodes);
+		this.lookup = null;
 	}
 
 	public String[] getDeadlockLoserCodes() {
@@ -148,6 +161,7 @@ public class SQLErrorCodes {
 
 	public void setCannotSerializeTransactionCodes(String... cannotSerializeTransactionCodes) {
 		this.cannotSerializeTransactionCodes = StringUtils.sortStringArray(cannotSerializeTransactionCodes);
+		this.lookup = null;
 	}
 
 	public String[] getCannotSerializeTransactionCodes() {
@@ -156,6 +170,7 @@ public class SQLErrorCodes {
 
 	public void setCustomTranslations(CustomSQLErrorCodesTranslation... customTranslations) {
 		this.customTranslations = customTranslations;
+		this.lookup = null;
 	}
 
 	public CustomSQLErrorCodesTranslation[] getCustomTranslations() {
@@ -184,4 +199,16 @@ public class SQLErrorCodes {
 		return this.customSqlExceptionTranslator;
 	}
 
+	/**
+	 * 返回从当前错误代码预编译的查找表, 在第一次访问时编译.
+	 */
+	SQLErrorCodeLookup getLookup() {
+		SQLErrorCodeLookup lookup = this.lookup;
+		if (lookup == null) {
+			lookup = new SQLErrorCodeLookup(this);
+			this.lookup = lookup;
+		}
+		return lookup;
+	}
+
 }
@@ -0,0 +1,314 @@
+package org.springframework.jdbc.support.incrementer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * 按块分配值的{@link DataFieldMaxValueIncrementer}装饰器.
+ *
+ * <p>目标增量器的每个值都被视为{@link #setBlockSize 块大小}个连续值的块的起始值:
+ * 对于值<i>n</i>, 此增量器提供<i>n</i>到<i>n + blockSize - 1</i>的值.
+ * 因此, 目标序列必须每次至少递增块大小, 例如使用{@code INCREMENT BY}子句定义的数据库序列:
+ *
+ * <pre class="code">create sequence tab_seq start with 1 increment by 100;</pre>
+ *
+ * 与{@link AbstractSequenceMaxValueIncrementer}的子类结合使用, 因为它们每次调用都会访问数据库.
+ *
+ * <p>当前块中的值通过原子计数器提供, 无需任何锁; 只有切换到下一个块时才进行同步.
+ * 当当前块的一半被使用时, 下一个块将在后台通过{@link #setTaskExecutor TaskExecutor}预取,
+ * 因此调用者通常不需要等待数据库.
+ *
+ * <p>通过设置{@link #setThreadBlockSize 线程块大小}, 每个线程从共享块中获取自己的子块,
+ * 并在不访问共享计数器的情况下提供子块中的值. 在这种情况下, 值在线程之间不是单调递增的.
+ *
+ * <p>如果应用程序停止, 则永远不会提供当前块 (以及预取的块) 中未使用的值.
+ */
+public class BlockAllocatingMaxValueIncrementer implements DataFieldMaxValueIncrementer, InitializingBean {
+
+	private DataFieldMaxValueIncrementer targetIncrementer;
+
+	private int blockSize = 100;
+
+	private int threadBlockSize = 0;
+
+	private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("BlockAllocatingMaxValueIncrementer-");
+
+	/** 应该用零预先设置的字符串结果的长度 */
+	private int paddingLength = 0;
+
+	private final AtomicReference<Block> currentBlock = new AtomicReference<Block>(Block.EMPTY);
+
+	/** 正在预取的下一个块 */
+	private final AtomicReference<FutureTask<Block>> nextBlock = new AtomicReference<FutureTask<Block>>();
+
+	private final Object blockMonitor = new Object();
+
+	private final ThreadLocal<long[]> threadBlock = new NamedThreadLocal<long[]>("Incrementer thread block");
+
+
+	public BlockAllocatingMaxValueIncrementer() {
+	}
+
+	/**
+	 * @param targetIncrementer 提供块起始值的目标增量器
+	 * @param blockSize 每个块中的值的数量
+	 */
+	public BlockAllocatingMaxValueIncrementer(DataFieldMaxValueIncrementer targetIncrementer, int blockSize) {
+		setTargetIncrementer(targetIncrementer);
+		setBlockSize(blockSize);
+	}
+
+
+	/**
+	 * 设置提供块起始值的目标增量器.
+	 */
+	public void setTargetIncrementer(DataFieldMaxValueIncrementer targetIncrementer) {
+		this.targetIncrementer = targetIncrementer;
+	}
+
+	/**
+	 * 返回提供块起始值的目标增量器.
+	 */
+	public DataFieldMaxValueIncrementer getTargetIncrementer() {
+		return this.targetIncrementer;
+	}
+
+	/**
+	 * 设置每个块中的值的数量, 必须与目标序列的增量匹配. 默认 100.
+	 */
+	public void setBlockSize(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("blockSize must be at least 1");
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * 返回每个块中的值的数量.
+	 */
+	public int getBlockSize() {
+		return this.blockSize;
+	}
+
+	/**
+	 * 设置每个线程从共享块中获取的子块中的值的数量.
+	 * <p>默认 0, 表示所有线程直接从共享块中获取值.
+	 */
+	public void setThreadBlockSize(int threadBlockSize) {
+		this.threadBlockSize = threadBlockSize;
+	}
+
+	/**
+	 * 返回每个线程的子块中的值的数量.
+	 */
+	public int getThreadBlockSize() {
+		return this.threadBlockSize;
+	}
+
+	/**
+	 * 设置用于在后台预取下一个块的TaskExecutor.
+	 * <p>默认{@link SimpleAsyncTaskExecutor}. 设置为{@code null}以禁用预取,
+	 * 在这种情况下, 当前块用完时同步获取下一个块.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * 返回用于在后台预取下一个块的TaskExecutor.
+	 */
+	public TaskExecutor getTaskExecutor() {
+		return this.taskExecutor;
+	}
+
+	/**
+	 * 设置填充长度, i.e. 应该用零预先设置的字符串结果的长度.
+	 */
+	public void setPaddingLength(int paddingLength) {
+		this.paddingLength = paddingLength;
+	}
+
+	/**
+	 * 返回String值的填充长度.
+	 */
+	public int getPaddingLength() {
+		return this.paddingLength;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.targetIncrementer == null) {
+			throw new IllegalArgumentException("Property 'targetIncrementer' is required");
+		}
+		if (this.threadBlockSize > this.blockSize) {
+			throw new IllegalArgumentException("threadBlockSize must not be greater than blockSize");
+		}
+	}
+
+
+	@Override
+	public int nextIntValue() throws DataAccessException {
+		return (int) getNextKey();
+	}
+
+	@Override
+	public long nextLongValue() throws DataAccessException {
+		return getNextKey();
+	}
+
+	@Override
+	public String nextStringValue() throws DataAccessException {
+		String s = Long.toString(getNextKey());
+		int len = s.length();
+		if (len < this.paddingLength) {
+			StringBuilder sb = new StringBuilder(this.paddingLength);
+			for (int i = 0; i < this.paddingLength - len; i++) {
+				sb.append('0');
+			}
+			sb.append(s);
+			s = sb.toString();
+		}
+		return s;
+	}
+
+
+	/**
+	 * 确定下一个要使用的键: 从当前线程的子块, 或者从共享块中获取.
+	 */
+	protected long getNextKey() throws DataAccessException {
+		if (this.threadBlockSize > 1) {
+			long[] range = this.threadBlock.get();
+			if (range == null) {
+				range = new long[2];
+				this.threadBlock.set(range);
+			}
+			if (range[0] >= range[1]) {
+				claim(this.threadBlockSize, range);
+			}
+			return range[0]++;
+		}
+		long[] range = new long[2];
+		claim(1, range);
+		return range[0];
+	}
+
+	/**
+	 * 从共享块中获取最多给定数量的值, 并将范围存储在给定数组中 (起始值, 结束值 (不包括)).
+	 */
+	private void claim(int count, long[] range) throws DataAccessException {
+		while (true) {
+			Block block = this.currentBlock.get();
+			long start = block.next.getAndAdd(count);
+			if (start < block.end) {
+				if (start <= block.prefetchAt && block.prefetchAt < start + count) {
+					prefetch();
+				}
+				range[0] = start;
+				range[1] = Math.min(start + count, block.end);
+				return;
+			}
+			switchBlock(block);
+		}
+	}
+
+	/**
+	 * 在给定的块用完后, 切换到下一个块.
+	 */
+	private void switchBlock(Block exhausted) throws DataAccessException {
+		synchronized (this.blockMonitor) {
+			if (this.currentBlock.get() != exhausted) {
+				// 另一个线程已经切换了块
+				return;
+			}
+			FutureTask<Block> pending = this.nextBlock.getAndSet(null);
+			Block block;
+			if (pending != null) {
+				pending.run();
+				try {
+					block = pending.get();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new DataAccessResourceFailureException("Interrupted while allocating next block", ex);
+				}
+				catch (ExecutionException ex) {
+					Throwable cause = ex.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new DataAccessResourceFailureException("Could not allocate next block", cause);
+				}
+			}
+			else {
+				block = allocateBlock();
+			}
+			this.currentBlock.set(block);
+		}
+	}
+
+	/**
+	 * 在后台开始获取下一个块.
+	 */
+	private void prefetch() {
+		if (this.taskExecutor == null) {
+			return;
+		}
+		FutureTask<Block> task = new FutureTask<Block>(new Callable<Block>() {
+			@Override
+			public Block call() {
+				return allocateBlock();
+			}
+		});
+		if (this.nextBlock.compareAndSet(null, task)) {
+			try {
+				this.taskExecutor.execute(task);
+			}
+			catch (RuntimeException ex) {
+				// 在切换块时同步运行任务
+			}
+		}
+	}
+
+	/**
+	 * 从目标增量器获取新的块.
+	 */
+	private Block allocateBlock() throws DataAccessException {
+		return new Block(this.targetIncrementer.nextLongValue(), this.blockSize);
+	}
+
+
+	/**
+	 * 一块连续的值.
+	 */
+	private static class Block {
+
+		static final Block EMPTY = new Block(0, 0);
+
+		final AtomicLong next;
+
+		final long end;
+
+		/** 获取此值时开始预取下一个块 */
+		final long prefetchAt;
+
+		Block(long start, int size) {
+			this.next = new AtomicLong(start);
+			this.end = start + size;
+			this.prefetchAt = (size > 0 ? start + size / 2 : Long.MIN_VALUE);
+		}
+	}
+
+}
@@ -1,14 +1,22 @@
 package org.springframework.jdbc.support.lob;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import org.springframework.jdbc.LobRetrievalFailureException;
+
 /**
  * {@link LobHandler}实现的抽象基类.
  *
  * <p>通过列查找实现列名的所有访问器方法, 并委托给采用列索引的相应访问器.
+ * 另外提供基于{@link #getBlobAsBinaryStream}和{@link #getClobAsCharacterStream}的流式传输方法,
+ * 通过{@link LobTransferUtils}的池化缓冲区将LOB内容直接写入目标.
  */
 public abstract class AbstractLobHandler implements LobHandler {
 
@@ -37,4 +45,124 @@ public abstract class AbstractLobHandler implements LobHandler {
 		return getClobAsCharacterStream(rs, rs.findColumn(columnName));
 	}
 
+	/**
+	 * 将给定列的BLOB内容直接传输到给定的OutputStream, 而不将其保存在内存中.
+	 * 适用于在{@link org.springframework.jdbc.core.ResultSetExtractor}或
+	 * {@link org.springframework.jdbc.core.RowCallbackHandler}中流式传输大型BLOB.
+	 * 
+	 * @param rs 从中检索内容的ResultSet
+	 * @param columnName 要使用的列名
+	 * @param out 要写入的OutputStream (不会关闭)
+	 * 
+	 * @return 传输的字节数, 或-1 如果内容为SQL NULL
+	 * @throws SQLException 如果被JDBC方法抛出
+	 * @throws org.springframework.jdbc.LobRetrievalFailureException 在I/O错误的情况下
+	 * @see LobTransferUtils
+	 */
+	public long transferBlob(ResultSet rs, String columnName, OutputStream out) throws SQLException {
+		return transferBlob(rs, rs.findColumn(columnName), out);
+	}
+
+	/**
+	 * 将给定列的BLOB内容直接传输到给定的OutputStream, 而不将其保存在内存中.
+	 * 
+	 * @param rs 从中检索内容的ResultSet
+	 * @param columnIndex 要使用的列索引
+	 * @param out 要写入的OutputStream (不会关闭)
+	 * 
+	 * @return 传输的字节数, 或-1 如果内容为SQL NULL
+	 * @throws SQLException 如果被JDBC方法抛出
+	 * @throws org.springframework.jdbc.LobRetrievalFailureException 在I/O错误的情况下
+	 */
+	public long transferBlob(ResultSet rs, int columnIndex, OutputStream out) throws SQLException {
+		InputStream in = getBlobAsBinaryStream(rs, columnIndex);
+		if (in == null) {
+			return -1;
+		}
+		try {
+			return LobTransferUtils.copy(in, out);
+		}
+		catch (IOException ex) {
+			throw new LobRetrievalFailureException("Could not transfer BLOB content", ex);
+		}
+	}
+
+	/**
+	 * 将给定列的BLOB内容直接传输到给定的通道, 而不将其保存在内存中.
+	 * 
+	 * @param rs 从中检索内容的ResultSet
+	 * @param columnName 要使用的列名
+	 * @param channel 要写入的通道 (不会关闭)
+	 * 
+	 * @return 传输的字节数, 或-1 如果内容为SQL NULL
+	 * @throws SQLException 如果被JDBC方法抛出
+	 * @throws org.springframework.jdbc.LobRetrievalFailureException 在I/O错误的情况下
+	 */
+	public long transferBlob(ResultSet rs, String columnName, WritableByteChannel channel) throws SQLException {
+		return transferBlob(rs, rs.findColumn(columnName), channel);
+	}
+
+	/**
+	 * 将给定列的BLOB内容直接传输到给定的通道, 而不将其保存在内存中.
+	 * 
+	 * @param rs 从中检索内容的ResultSet
+	 * @param columnIndex 要使用的列索引
+	 * @param channel 要写入的通道 (不会关闭)
+	 * 
+	 * @return 传输的字节数, 或-1 如果内容为SQL NULL
+	 * @throws SQLException 如果被JDBC方法抛出
+	 * @throws org.springframework.jdbc.LobRetrievalFailureException 在I/O错误的情况下
+	 */
+	public long transferBlob(ResultSet rs, int columnIndex, WritableByteChannel channel) throws SQLException {
+		InputStream in = getBlobAsBinaryStream(rs, columnIndex);
+		if (in == null) {
+			return -1;
+		}
+		try {
+			return LobTransferUtils.copy(in, channel);
+		}
+		catch (IOException ex) {
+			throw new LobRetrievalFailureException("Could not transfer BLOB content", ex);
+		}
+	}
+
+	/**
+	 * 将给定列的CLOB内容直接传输到给定的Writer, 而不将其保存在内存中.
+	 * 
+	 * @param rs 从中检索内容的ResultSet
+	 * @param columnName 要使用的列名
+	 * @param out 要写入的Writer (不会关闭)
+	 * 
+	 * @return 传输的字符数, 或-1 如果内容为SQL NULL
+	 * @throws SQLException 如果被JDBC方法抛出
+	 * @throws org.springframework.jdbc.LobRetrievalFailureException 在I/O错误的情况下
+	 */
+	public long transferClob(ResultSet rs, String columnName, Writer out) throws SQLException {
+		return transferClob(rs, rs.findColumn(columnName), out);
+	}
+
+	/**
+	 * 将给定列的CLOB内容直接传输到给定的Writer, 而不将其保存在内存中.
+	 * 
+	 * @param rs 从中检索内容的ResultSet
+	 * @param columnIndex 要使用的列索引
+	 * @param out 要写入的Writer (不会关闭)
+	 * 
+	 * @return 传输的字符数, 或-1 如果内容为SQL NULL
+	 * @throws SQLException 如果被JDBC方法抛出
+	 * @throws org.springframework.jdbc.LobRetrievalFailureException 在I/O错误的情况下
+	 */
+	public long transferClob(ResultSet rs, int columnIndex, Writer out) throws SQLException {
+		Reader in = getClobAsCharacterStream(rs, columnIndex);
+		if (in == null) {
+			return -1;
+		}
+		try {
+			return LobTransferUtils.copy(in, out);
+		}
+		catch (IOException ex) {
+			throw new LobRetrievalFailureException("Could not transfer CLOB content", ex);
+		}
+	}
+
 }
@@ -158,7 +158,7 @@ public class DefaultLobHandler extends AbstractLobHandler {
 	 * 默认LobCreator实现.
 	 * 可以在DefaultLobHandler扩展中进行子类化.
 	 */
-	protected class DefaultLobCreator implements LobCreator {
+	protected class DefaultLobCreator implements LargeLobCreator {
 
 		@Override
 		public void setBlobAsBytes(PreparedStatement ps, int paramIndex, byte[] content)
@@ -338,6 +338,83 @@ public class DefaultLobHandler extends AbstractLobHandler {
 			}
 		}
 
+		@Override
+		public void setBlobAsBinaryStream(
+				PreparedStatement ps, int paramIndex, InputStream binaryStream, long contentLength)
+				throws SQLException {
+
+			if (binaryStream == null || contentLength <= Integer.MAX_VALUE) {
+				setBlobAsBinaryStream(ps, paramIndex, binaryStream, (int) Math.max(contentLength, -1));
+				return;
+			}
+			// 超过2 GB的内容需要JDBC 4.0的long长度变体
+			if (streamAsLob) {
+				ps.setBlob(paramIndex, binaryStream, contentLength);
+			}
+			else if (wrapAsLob) {
+				ps.setBlob(paramIndex, new PassThroughBlob(binaryStream, contentLength));
+			}
+			else {
+				ps.setBinaryStream(paramIndex, binaryStream, contentLength);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Set binary stream for BLOB with length " + contentLength);
+			}
+		}
+
+		@Override
+		public void setClobAsAsciiStream(
+				PreparedStatement ps, int paramIndex, InputStream asciiStream, long contentLength)
+				throws SQLException {
+
+			if (asciiStream == null || contentLength <= Integer.MAX_VALUE) {
+				setClobAsAsciiStream(ps, paramIndex, asciiStream, (int) Math.max(contentLength, -1));
+				return;
+			}
+			// 超过2 GB的内容需要JDBC 4.0的long长度变体
+			if (streamAsLob) {
+				try {
+					ps.setClob(paramIndex, new InputStreamReader(asciiStream, "US-ASCII"), contentLength);
+				}
+				catch (UnsupportedEncodingException ex) {
+					throw new SQLException("US-ASCII encoding not supported: " + ex);
+				}
+			}
+			else if (wrapAsLob) {
+				ps.setClob(paramIndex, new PassThroughClob(asciiStream, contentLength));
+			}
+			else {
+				ps.setAsciiStream(paramIndex, asciiStream, contentLength);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Set ASCII stream for CLOB with length " + contentLength);
+			}
+		}
+
+		@Override
+		public void setClobAsCharacterStream(
+				PreparedStatement ps, int paramIndex, Reader characterStream, long contentLength)
+				throws SQLException {
+
+			if (characterStream == null || contentLength <= Integer.MAX_VALUE) {
+				setClobAsCharacterStream(ps, paramIndex, characterStream, (int) Math.max(contentLength, -1));
+				return;
+			}
+			// 超过2 GB的内容需要JDBC 4.0的long长度变体
+			if (streamAsLob) {
+				ps.setClob(paramIndex, characterStream, contentLength);
+			}
+			else if (wrapAsLob) {
+				ps.setClob(paramIndex, new PassThroughClob(characterStream, contentLength));
+			}
+			else {
+				ps.setCharacterStream(paramIndex, characterStream, contentLength);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Set character stream for CLOB with length " + contentLength);
+			}
+		}
+
 		@Override
 		public void close() {
 			// 不创建临时LOB时, 什么都不需要做
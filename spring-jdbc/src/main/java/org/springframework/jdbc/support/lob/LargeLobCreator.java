@@ -0,0 +1,60 @@
+package org.springframework.jdbc.support.lob;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link LobCreator}接口的扩展, 支持超过2 GB的流内容.
+ *
+ * <p>{@link DefaultLobHandler}, {@link OracleLobHandler}和{@link TemporaryLobCreator}
+ * 创建的LobCreator实现此接口. {@link org.springframework.jdbc.core.support.SqlLobValue}
+ * 在LobCreator实现此接口时使用long长度的变体.
+ */
+public interface LargeLobCreator extends LobCreator {
+
+	/**
+	 * 使用给定的参数索引, 将给定内容设置为给定语句的二进制流, 支持超过2 GB的内容长度.
+	 * 内容直接从流传输到JDBC驱动程序, 不会在内存中物化.
+	 * 
+	 * @param ps 要设置内容的PreparedStatement
+	 * @param paramIndex 要使用的参数索引
+	 * @param contentStream 内容, 或{@code null}用于SQL NULL
+	 * @param contentLength 内容的长度; 负数表示长度未知
+	 * 
+	 * @throws SQLException 如果被JDBC方法抛出
+	 */
+	void setBlobAsBinaryStream(
+			PreparedStatement ps, int paramIndex, InputStream contentStream, long contentLength)
+			throws SQLException;
+
+	/**
+	 * 使用给定的参数索引, 将给定内容设置为给定语句的ASCII流, 支持超过2 GB的内容长度.
+	 * 
+	 * @param ps 要设置内容的PreparedStatement
+	 * @param paramIndex 要使用的参数索引
+	 * @param asciiStream 内容, 或{@code null}用于SQL NULL
+	 * @param contentLength 内容的长度; 负数表示长度未知
+	 * 
+	 * @throws SQLException 如果被JDBC方法抛出
+	 */
+	void setClobAsAsciiStream(
+			PreparedStatement ps, int paramIndex, InputStream asciiStream, long contentLength)
+			throws SQLException;
+
+	/**
+	 * 使用给定的参数索引, 将给定内容设置为给定语句的字符流, 支持超过2 GB的内容长度.
+	 * 
+	 * @param ps 要设置内容的PreparedStatement
+	 * @param paramIndex 要使用的参数索引
+	 * @param characterStream 内容, 或{@code null}用于SQL NULL
+	 * @param contentLength 内容的长度; 负数表示长度未知
+	 * 
+	 * @throws SQLException 如果被JDBC方法抛出
+	 */
+	void setClobAsCharacterStream(
+			PreparedStatement ps, int paramIndex, Reader characterStream, long contentLength)
+			throws SQLException;
+
+}
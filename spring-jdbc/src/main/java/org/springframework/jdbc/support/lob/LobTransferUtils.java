@@ -0,0 +1,153 @@
+package org.springframework.jdbc.support.lob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 在LOB流和应用程序流/通道之间传输内容的工具方法.
+ *
+ * <p>所有传输都使用从有界池中获取的固定大小的缓冲区, 因此传输任意大小的LOB时,
+ * 内存使用量都是恒定的, 并且重复传输不会为每次调用分配新的缓冲区.
+ *
+ * <p>主要供{@link LobHandler}和{@link LobCreator}实现内部使用.
+ */
+public abstract class LobTransferUtils {
+
+	/**
+	 * 传输缓冲区的大小: 64 KB.
+	 */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int MAX_POOLED_BUFFERS = 16;
+
+
+	private static final BlockingQueue<byte[]> byteBuffers = new ArrayBlockingQueue<byte[]>(MAX_POOLED_BUFFERS);
+
+	private static final BlockingQueue<char[]> charBuffers = new ArrayBlockingQueue<char[]>(MAX_POOLED_BUFFERS);
+
+
+	/**
+	 * 将给定InputStream的内容复制到给定的OutputStream.
+	 * <p>完成后关闭InputStream, 但不关闭OutputStream.
+	 *
+	 * @param in 要从中复制的流
+	 * @param out 要复制到的流
+	 *
+	 * @return 复制的字节数
+	 * @throws IOException 在I/O错误的情况下
+	 */
+	public static long copy(InputStream in, OutputStream out) throws IOException {
+		byte[] buffer = acquireByteBuffer();
+		try {
+			long byteCount = 0;
+			int bytesRead;
+			while ((bytesRead = in.read(buffer)) != -1) {
+				out.write(buffer, 0, bytesRead);
+				byteCount += bytesRead;
+			}
+			out.flush();
+			return byteCount;
+		}
+		finally {
+			releaseByteBuffer(buffer);
+			closeQuietly(in);
+		}
+	}
+
+	/**
+	 * 将给定InputStream的内容复制到给定的通道.
+	 * <p>完成后关闭InputStream, 但不关闭通道.
+	 *
+	 * @param in 要从中复制的流
+	 * @param out 要复制到的通道
+	 *
+	 * @return 复制的字节数
+	 * @throws IOException 在I/O错误的情况下
+	 */
+	public static long copy(InputStream in, WritableByteChannel out) throws IOException {
+		byte[] buffer = acquireByteBuffer();
+		try {
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+			long byteCount = 0;
+			int bytesRead;
+			while ((bytesRead = in.read(buffer)) != -1) {
+				byteBuffer.clear();
+				byteBuffer.limit(bytesRead);
+				while (byteBuffer.hasRemaining()) {
+					out.write(byteBuffer);
+				}
+				byteCount += bytesRead;
+			}
+			return byteCount;
+		}
+		finally {
+			releaseByteBuffer(buffer);
+			closeQuietly(in);
+		}
+	}
+
+	/**
+	 * 将给定Reader的内容复制到给定的Writer.
+	 * <p>完成后关闭Reader, 但不关闭Writer.
+	 *
+	 * @param in 要从中复制的Reader
+	 * @param out 要复制到的Writer
+	 *
+	 * @return 复制的字符数
+	 * @throws IOException 在I/O错误的情况下
+	 */
+	public static long copy(Reader in, Writer out) throws IOException {
+		char[] buffer = acquireCharBuffer();
+		try {
+			long charCount = 0;
+			int charsRead;
+			while ((charsRead = in.read(buffer)) != -1) {
+				out.write(buffer, 0, charsRead);
+				charCount += charsRead;
+			}
+			out.flush();
+			return charCount;
+		}
+		finally {
+			releaseCharBuffer(buffer);
+			closeQuietly(in);
+		}
+	}
+
+
+	private static byte[] acquireByteBuffer() {
+		byte[] buffer = byteBuffers.poll();
+		return (buffer != null ? buffer : new byte[BUFFER_SIZE]);
+	}
+
+	private static void releaseByteBuffer(byte[] buffer) {
+		byteBuffers.offer(buffer);
+	}
+
+	private static char[] acquireCharBuffer() {
+		char[] buffer = charBuffers.poll();
+		return (buffer != null ? buffer : new char[BUFFER_SIZE]);
+	}
+
+	private static void releaseCharBuffer(char[] buffer) {
+		charBuffers.offer(buffer);
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+}
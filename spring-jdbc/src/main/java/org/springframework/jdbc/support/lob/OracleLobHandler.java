@@ -342,7 +342,7 @@ public class OracleLobHandler extends AbstractLobHandler {
 	 * 适用于Oracle数据库的LobCreator实现.
 	 * 创建在关闭时释放的Oracle样式的临时BLOB和CLOB.
 	 */
-	protected class OracleLobCreator implements LobCreator {
+	protected class OracleLobCreator implements LargeLobCreator {
 
 		private final List<Object> temporaryLobs = new LinkedList<Object>();
 
@@ -469,6 +469,31 @@ public class OracleLobHandler extends AbstractLobHandler {
 			}
 		}
 
+		@Override
+		public void setBlobAsBinaryStream(
+				PreparedStatement ps, int paramIndex, InputStream binaryStream, long contentLength)
+				throws SQLException {
+
+			// Oracle临时LOB不使用内容长度
+			setBlobAsBinaryStream(ps, paramIndex, binaryStream, (int) Math.min(contentLength, Integer.MAX_VALUE));
+		}
+
+		@Override
+		public void setClobAsAsciiStream(
+				PreparedStatement ps, int paramIndex, InputStream asciiStream, long contentLength)
+				throws SQLException {
+
+			setClobAsAsciiStream(ps, paramIndex, asciiStream, (int) Math.min(contentLength, Integer.MAX_VALUE));
+		}
+
+		@Override
+		public void setClobAsCharacterStream(
+				PreparedStatement ps, int paramIndex, Reader characterStream, long contentLength)
+				throws SQLException {
+
+			setClobAsCharacterStream(ps, paramIndex, characterStream, (int) Math.min(contentLength, Integer.MAX_VALUE));
+		}
+
 		/**
 		 * 为给定的PreparedStatement创建一个LOB实例, 通过给定的回调填充它.
 		 */
@@ -2,7 +2,9 @@ package org.springframework.jdbc.support.lob;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.Writer;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.PreparedStatement;
@@ -14,7 +16,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.dao.DataAccessResourceFailureException;
-import org.springframework.util.FileCopyUtils;
 
 /**
  * 基于临时LOB的{@link LobCreator}实现,
@@ -23,7 +24,7 @@ import org.springframework.util.FileCopyUtils;
  * <p>由DefaultLobHandler的{@link DefaultLobHandler#setCreateTemporaryLob}模式使用.
  * 也可以直接用于重用跟踪和释放临时LOB.
  */
-public class TemporaryLobCreator implements LobCreator {
+public class TemporaryLobCreator implements LargeLobCreator {
 
 	protected static final Log logger = LogFactory.getLog(TemporaryLobCreator.class);
 
@@ -57,10 +58,24 @@ public class TemporaryLobCreator implements LobCreator {
 			PreparedStatement ps, int paramIndex, InputStream binaryStream, int contentLength)
 			throws SQLException {
 
+		setBlobAsBinaryStream(ps, paramIndex, binaryStream, (long) contentLength);
+	}
+
+	@Override
+	public void setBlobAsBinaryStream(
+			PreparedStatement ps, int paramIndex, InputStream binaryStream, long contentLength)
+			throws SQLException {
+
 		if (binaryStream != null) {
 			Blob blob = ps.getConnection().createBlob();
 			try {
-				FileCopyUtils.copy(binaryStream, blob.setBinaryStream(1));
+				OutputStream out = blob.setBinaryStream(1);
+				try {
+					LobTransferUtils.copy(binaryStream, out);
+				}
+				finally {
+					out.close();
+				}
 			}
 			catch (IOException ex) {
 				throw new DataAccessResourceFailureException("Could not copy into LOB stream", ex);
@@ -104,10 +119,24 @@ public class TemporaryLobCreator implements LobCreator {
 			PreparedStatement ps, int paramIndex, InputStream asciiStream, int contentLength)
 			throws SQLException {
 
+		setClobAsAsciiStream(ps, paramIndex, asciiStream, (long) contentLength);
+	}
+
+	@Override
+	public void setClobAsAsciiStream(
+			PreparedStatement ps, int paramIndex, InputStream asciiStream, long contentLength)
+			throws SQLException {
+
 		if (asciiStream != null) {
 			Clob clob = ps.getConnection().createClob();
 			try {
-				FileCopyUtils.copy(asciiStream, clob.setAsciiStream(1));
+				OutputStream out = clob.setAsciiStream(1);
+				try {
+					LobTransferUtils.copy(asciiStream, out);
+				}
+				finally {
+					out.close();
+				}
 			}
 			catch (IOException ex) {
 				throw new DataAccessResourceFailureException("Could not copy into LOB stream", ex);
@@ -131,10 +160,24 @@ public class TemporaryLobCreator implements LobCreator {
 			PreparedStatement ps, int paramIndex, Reader characterStream, int contentLength)
 			throws SQLException {
 
+		setClobAsCharacterStream(ps, paramIndex, characterStream, (long) contentLength);
+	}
+
+	@Override
+	public void setClobAsCharacterStream(
+			PreparedStatement ps, int paramIndex, Reader characterStream, long contentLength)
+			throws SQLException {
+
 		if (characterStream != null) {
 			Clob clob = ps.getConnection().createClob();
 			try {
-				FileCopyUtils.copy(characterStream, clob.setCharacterStream(1));
+				Writer out = clob.setCharacterStream(1);
+				try {
+					LobTransferUtils.copy(characterStream, out);
+				}
+				finally {
+					out.close();
+				}
 			}
 			catch (IOException ex) {
 				throw new DataAccessResourceFailureException("Could not copy into LOB stream", ex);
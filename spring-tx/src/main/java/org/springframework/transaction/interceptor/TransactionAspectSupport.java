@@ -11,6 +11,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.NamedThreadLocal;
 import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -20,6 +21,7 @@ import org.springframework.transaction.support.CallbackPreferringPlatformTransac
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -98,12 +100,32 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	private final ConcurrentMap<Object, PlatformTransactionManager> transactionManagerCache =
 			new ConcurrentReferenceHashMap<Object, PlatformTransactionManager>(4);
 
+	/** 以方法为键的事务计划缓存, 针对每个方法只有一个目标类的常见情况 */
+	private final ConcurrentMap<Method, TransactionPlan> transactionPlanCache =
+			new ConcurrentReferenceHashMap<Method, TransactionPlan>(256);
+
+	/** 以方法和目标类为键的事务计划缓存 */
+	private final ConcurrentMap<MethodClassKey, TransactionPlan> targetClassTransactionPlanCache =
+			new ConcurrentReferenceHashMap<MethodClassKey, TransactionPlan>(256);
+
+	/** 是否可以将事务管理器保存在事务计划中, i.e. {@link #determineTransactionManager}没有被覆盖 */
+	private final boolean transactionManagerCacheable;
+
+
+	public TransactionAspectSupport() {
+		Method determineMethod = ReflectionUtils.findMethod(
+				getClass(), "determineTransactionManager", TransactionAttribute.class);
+		this.transactionManagerCacheable =
+				(determineMethod != null && determineMethod.getDeclaringClass() == TransactionAspectSupport.class);
+	}
+
 
 	/**
 	 * 指定默认事务管理器bean的名称.
 	 */
 	public void setTransactionManagerBeanName(String transactionManagerBeanName) {
 		this.transactionManagerBeanName = transactionManagerBeanName;
+		clearTransactionPlanCache();
 	}
 
 	/**
@@ -119,6 +141,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionManager(PlatformTransactionManager transactionManager) {
 		this.transactionManager = transactionManager;
+		clearTransactionPlanCache();
 	}
 
 	/**
@@ -138,6 +161,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource();
 		tas.setProperties(transactionAttributes);
 		this.transactionAttributeSource = tas;
+		clearTransactionPlanCache();
 	}
 
 	/**
@@ -146,6 +170,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionAttributeSources(TransactionAttributeSource... transactionAttributeSources) {
 		this.transactionAttributeSource = new CompositeTransactionAttributeSource(transactionAttributeSources);
+		clearTransactionPlanCache();
 	}
 
 	/**
@@ -154,6 +179,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionAttributeSource(TransactionAttributeSource transactionAttributeSource) {
 		this.transactionAttributeSource = transactionAttributeSource;
+		clearTransactionPlanCache();
 	}
 
 	/**
@@ -169,6 +195,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
+		clearTransactionPlanCache();
 	}
 
 	/**
@@ -211,9 +238,17 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 			throws Throwable {
 
 		// 如果事务属性为null, 则该方法是非事务性的.
-		final TransactionAttribute txAttr = getTransactionAttributeSource().getTransactionAttribute(method, targetClass);
-		final PlatformTransactionManager tm = determineTransactionManager(txAttr);
-		final String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+		TransactionPlan plan = getTransactionPlan(method, targetClass);
+		final TransactionAttribute txAttr = plan.transactionAttribute;
+		final String joinpointIdentification = plan.joinpointIdentification;
+
+		if (txAttr == null && transactionInfoHolder.get() == null) {
+			// 非事务性方法, 且没有需要维护的TransactionInfo堆栈: 直接调用.
+			return invocation.proceedWithInvocation();
+		}
+
+		final PlatformTransactionManager tm = (plan.transactionManagerResolved ?
+				plan.transactionManager : determineTransactionManager(txAttr));
 
 		if (txAttr == null || !(tm instanceof CallbackPreferringPlatformTransactionManager)) {
 			// 使用getTransaction和commit/rollback调用的标准事务划分.
@@ -301,9 +336,71 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	protected void clearTransactionManagerCache() {
 		this.transactionManagerCache.clear();
+		clearTransactionPlanCache();
 		this.beanFactory = null;
 	}
 
+	/**
+	 * 清空事务计划缓存, e.g. 在更改事务管理器或事务属性源之后.
+	 */
+	protected void clearTransactionPlanCache() {
+		this.transactionPlanCache.clear();
+		this.targetClassTransactionPlanCache.clear();
+	}
+
+	/**
+	 * 返回给定方法的事务计划, 必要时创建它.
+	 * <p>如果事务属性源无法保证每次返回相同的属性, 则每次调用都重新解析.
+	 */
+	private TransactionPlan getTransactionPlan(Method method, Class<?> targetClass) {
+		TransactionPlan plan = this.transactionPlanCache.get(method);
+		if (plan != null && plan.targetClass == targetClass) {
+			return plan;
+		}
+		MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+		plan = this.targetClassTransactionPlanCache.get(cacheKey);
+		if (plan == null) {
+			TransactionAttributeSource tas = getTransactionAttributeSource();
+			TransactionAttribute txAttr = tas.getTransactionAttribute(method, targetClass);
+			String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+			if (txAttr != null && txAttr.getName() == null) {
+				txAttr = new NamedTransactionAttribute(txAttr, joinpointIdentification);
+			}
+			if (this.transactionManagerCacheable) {
+				plan = new TransactionPlan(targetClass, txAttr, joinpointIdentification,
+						determineTransactionManager(txAttr));
+			}
+			else {
+				plan = new TransactionPlan(targetClass, txAttr, joinpointIdentification);
+			}
+			if (!isCacheable(tas)) {
+				return plan;
+			}
+			this.targetClassTransactionPlanCache.put(cacheKey, plan);
+			this.transactionPlanCache.putIfAbsent(method, plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * 确定给定的事务属性源是否对同一个方法始终返回相同的事务属性.
+	 */
+	private boolean isCacheable(TransactionAttributeSource tas) {
+		if (tas instanceof CompositeTransactionAttributeSource) {
+			for (TransactionAttributeSource source :
+					((CompositeTransactionAttributeSource) tas).getTransactionAttributeSources()) {
+				if (!isCacheable(source)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return (tas instanceof AbstractFallbackTransactionAttributeSource ||
+				tas instanceof NameMatchTransactionAttributeSource ||
+				tas instanceof MethodMapTransactionAttributeSource ||
+				tas instanceof MatchAlwaysTransactionAttributeSource);
+	}
+
 	/**
 	 * 确定要用于给定事务的特定事务管理器.
 	 */
@@ -599,6 +696,64 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	}
 
 
+	/**
+	 * 针对特定方法和目标类预先计算的事务计划:
+	 * 事务属性 (已应用方法标识作为事务名称), 连接点标识以及 (如果可能) 解析后的事务管理器.
+	 */
+	private static final class TransactionPlan {
+
+		final Class<?> targetClass;
+
+		final TransactionAttribute transactionAttribute;
+
+		final String joinpointIdentification;
+
+		final PlatformTransactionManager transactionManager;
+
+		final boolean transactionManagerResolved;
+
+		TransactionPlan(Class<?> targetClass, TransactionAttribute transactionAttribute,
+				String joinpointIdentification) {
+
+			this.targetClass = targetClass;
+			this.transactionAttribute = transactionAttribute;
+			this.joinpointIdentification = joinpointIdentification;
+			this.transactionManager = null;
+			this.transactionManagerResolved = false;
+		}
+
+		TransactionPlan(Class<?> targetClass, TransactionAttribute transactionAttribute,
+				String joinpointIdentification, PlatformTransactionManager transactionManager) {
+
+			this.targetClass = targetClass;
+			this.transactionAttribute = transactionAttribute;
+			this.joinpointIdentification = joinpointIdentification;
+			this.transactionManager = transactionManager;
+			this.transactionManagerResolved = true;
+		}
+	}
+
+
+	/**
+	 * 使用连接点标识作为事务名称的{@link DelegatingTransactionAttribute}.
+	 */
+	@SuppressWarnings("serial")
+	private static class NamedTransactionAttribute extends DelegatingTransactionAttribute {
+
+		private final String name;
+
+		public NamedTransactionAttribute(TransactionAttribute targetAttribute, String name) {
+			super(targetAttribute);
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+	}
+
+
 	/**
 	 * 用于继续目标调用的简单回调接口.
 	 * 具体的拦截器/切面使其适配其调用机制.
@@ -2,7 +2,7 @@ package org.springframework.transaction.support;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,28 +36,16 @@ import org.springframework.util.Assert;
  * 如果事务同步未处于活动状态, 则表示没有当前事务, 或者事务管理器不支持事务同步.
  *
  * <p>例如, 同步用于始终在JTA事务中返回相同的资源, e.g. 分别为任何给定的DataSource或SessionFactory提供JDBC连接或Hibernate会话.
+ *
+ * <p>所有的每线程状态都保存在单个线程绑定的状态对象中; 通常只有一两个绑定的资源, 因此使用小数组而不是Map保存.
+ * 当状态变为空时, 将删除整个ThreadLocal.
  */
 public abstract class TransactionSynchronizationManager {
 
 	private static final Log logger = LogFactory.getLog(TransactionSynchronizationManager.class);
 
-	private static final ThreadLocal<Map<Object, Object>> resources =
-			new NamedThreadLocal<Map<Object, Object>>("Transactional resources");
-
-	private static final ThreadLocal<Set<TransactionSynchronization>> synchronizations =
-			new NamedThreadLocal<Set<TransactionSynchronization>>("Transaction synchronizations");
-
-	private static final ThreadLocal<String> currentTransactionName =
-			new NamedThreadLocal<String>("Current transaction name");
-
-	private static final ThreadLocal<Boolean> currentTransactionReadOnly =
-			new NamedThreadLocal<Boolean>("Current transaction read-only status");
-
-	private static final ThreadLocal<Integer> currentTransactionIsolationLevel =
-			new NamedThreadLocal<Integer>("Current transaction isolation level");
-
-	private static final ThreadLocal<Boolean> actualTransactionActive =
-			new NamedThreadLocal<Boolean>("Actual transaction active");
+	private static final ThreadLocal<TransactionState> transactionState =
+			new NamedThreadLocal<TransactionState>("Transaction state");
 
 
 	//-------------------------------------------------------------------------
@@ -71,8 +59,9 @@ public abstract class TransactionSynchronizationManager {
 	 * @return 带资源键的Map (通常是资源工厂)和资源值 (通常是活动资源对象), 或空Map 如果当前没有资源绑定
 	 */
 	public static Map<Object, Object> getResourceMap() {
-		Map<Object, Object> map = resources.get();
-		return (map != null ? Collections.unmodifiableMap(map) : Collections.emptyMap());
+		TransactionState state = transactionState.get();
+		return (state != null && state.resourceCount > 0 ?
+				Collections.unmodifiableMap(state.getResourceMap()) : Collections.emptyMap());
 	}
 
 	/**
@@ -109,18 +98,20 @@ public abstract class TransactionSynchronizationManager {
 	 * 实际检查绑定给定键的资源的值.
 	 */
 	private static Object doGetResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
-		if (map == null) {
+		TransactionState state = transactionState.get();
+		if (state == null) {
+			return null;
+		}
+		int index = state.indexOfResource(actualKey);
+		if (index == -1) {
 			return null;
 		}
-		Object value = map.get(actualKey);
+		Object value = state.resourceValues[index];
 		// 透明地删除标记为void的ResourceHolder...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
-			map.remove(actualKey);
+			state.removeResource(index);
 			// 如果为空, 则删除整个ThreadLocal...
-			if (map.isEmpty()) {
-				resources.remove();
-			}
+			removeIfEmpty(state);
 			value = null;
 		}
 		return value;
@@ -137,13 +128,7 @@ public abstract class TransactionSynchronizationManager {
 	public static void bindResource(Object key, Object value) throws IllegalStateException {
 		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
 		Assert.notNull(value, "Value must not be null");
-		Map<Object, Object> map = resources.get();
-		// set ThreadLocal Map if none found
-		if (map == null) {
-			map = new HashMap<Object, Object>();
-			resources.set(map);
-		}
-		Object oldValue = map.put(actualKey, value);
+		Object oldValue = obtainState().putResource(actualKey, value);
 		// 透明地禁止标记为void的ResourceHolder...
 		if (oldValue instanceof ResourceHolder && ((ResourceHolder) oldValue).isVoid()) {
 			oldValue = null;
@@ -192,15 +177,14 @@ public abstract class TransactionSynchronizationManager {
 	 * 实际删除绑定给定键的资源的值.
 	 */
 	private static Object doUnbindResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
-		if (map == null) {
+		TransactionState state = transactionState.get();
+		if (state == null) {
 			return null;
 		}
-		Object value = map.remove(actualKey);
+		int index = state.indexOfResource(actualKey);
+		Object value = (index != -1 ? state.removeResource(index) : null);
 		// Remove entire ThreadLocal if empty...
-		if (map.isEmpty()) {
-			resources.remove();
-		}
+		removeIfEmpty(state);
 		// 透明地禁止标记为void的ResourceHolder...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
 			value = null;
@@ -222,7 +206,8 @@ public abstract class TransactionSynchronizationManager {
 	 * 可以在注册前调用, 以避免不必要的实例创建.
 	 */
 	public static boolean isSynchronizationActive() {
-		return (synchronizations.get() != null);
+		TransactionState state = transactionState.get();
+		return (state != null && state.synchronizations != null);
 	}
 
 	/**
@@ -236,7 +221,7 @@ public abstract class TransactionSynchronizationManager {
 			throw new IllegalStateException("Cannot activate transaction synchronization - already active");
 		}
 		logger.trace("Initializing transaction synchronization");
-		synchronizations.set(new LinkedHashSet<TransactionSynchronization>());
+		obtainState().synchronizations = new LinkedHashSet<TransactionSynchronization>();
 	}
 
 	/**
@@ -256,7 +241,7 @@ public abstract class TransactionSynchronizationManager {
 		if (!isSynchronizationActive()) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
-		synchronizations.get().add(synchronization);
+		transactionState.get().synchronizations.add(synchronization);
 	}
 
 	/**
@@ -266,7 +251,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @throws IllegalStateException 如果同步未激活
 	 */
 	public static List<TransactionSynchronization> getSynchronizations() throws IllegalStateException {
-		Set<TransactionSynchronization> synchs = synchronizations.get();
+		TransactionState state = transactionState.get();
+		Set<TransactionSynchronization> synchs = (state != null ? state.synchronizations : null);
 		if (synchs == null) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
@@ -294,7 +280,9 @@ public abstract class TransactionSynchronizationManager {
 			throw new IllegalStateException("Cannot deactivate transaction synchronization - not active");
 		}
 		logger.trace("Clearing transaction synchronization");
-		synchronizations.remove();
+		TransactionState state = transactionState.get();
+		state.synchronizations = null;
+		removeIfEmpty(state);
 	}
 
 
@@ -309,7 +297,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @param name 事务的名称, 或{@code null}
 	 */
 	public static void setCurrentTransactionName(String name) {
-		currentTransactionName.set(name);
+		TransactionState state = (name != null ? obtainState() : transactionState.get());
+		if (state != null) {
+			state.name = name;
+			removeIfEmpty(state);
+		}
 	}
 
 	/**
@@ -317,7 +309,8 @@ public abstract class TransactionSynchronizationManager {
 	 * 由资源管理代码调用以针对每个用例进行优化, 例如, 优化特定命名事务的获取策略.
 	 */
 	public static String getCurrentTransactionName() {
-		return currentTransactionName.get();
+		TransactionState state = transactionState.get();
+		return (state != null ? state.name : null);
 	}
 
 	/**
@@ -327,7 +320,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @param readOnly {@code true}将当前事务标记为只读; {@code false}重置这样的只读标记
 	 */
 	public static void setCurrentTransactionReadOnly(boolean readOnly) {
-		currentTransactionReadOnly.set(readOnly ? Boolean.TRUE : null);
+		TransactionState state = (readOnly ? obtainState() : transactionState.get());
+		if (state != null) {
+			state.readOnly = readOnly;
+			removeIfEmpty(state);
+		}
 	}
 
 	/**
@@ -337,7 +334,8 @@ public abstract class TransactionSynchronizationManager {
 	 * 本方法旨在用于早期的只读检查, 例如将Hibernate会话的刷新模式设置为"FlushMode.NEVER".
 	 */
 	public static boolean isCurrentTransactionReadOnly() {
-		return (currentTransactionReadOnly.get() != null);
+		TransactionState state = transactionState.get();
+		return (state != null && state.readOnly);
 	}
 
 	/**
@@ -347,7 +345,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @param isolationLevel 要公开的隔离级别, 根据JDBC连接常量 (相当于相应的Spring TransactionDefinition常量), 或{@code null}来重置它
 	 */
 	public static void setCurrentTransactionIsolationLevel(Integer isolationLevel) {
-		currentTransactionIsolationLevel.set(isolationLevel);
+		TransactionState state = (isolationLevel != null ? obtainState() : transactionState.get());
+		if (state != null) {
+			state.isolationLevel = isolationLevel;
+			removeIfEmpty(state);
+		}
 	}
 
 	/**
@@ -357,7 +359,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @return 当前公开的隔离级别, 根据JDBC连接常量 (相当于相应的Spring TransactionDefinition常量), 或{@code null}
 	 */
 	public static Integer getCurrentTransactionIsolationLevel() {
-		return currentTransactionIsolationLevel.get();
+		TransactionState state = transactionState.get();
+		return (state != null ? state.isolationLevel : null);
 	}
 
 	/**
@@ -367,7 +370,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @param active {@code true}将当前线程标记为与实际事务关联; {@code false}重置该标记
 	 */
 	public static void setActualTransactionActive(boolean active) {
-		actualTransactionActive.set(active ? Boolean.TRUE : null);
+		TransactionState state = (active ? obtainState() : transactionState.get());
+		if (state != null) {
+			state.actualTransactionActive = active;
+			removeIfEmpty(state);
+		}
 	}
 
 	/**
@@ -377,7 +384,8 @@ public abstract class TransactionSynchronizationManager {
 	 * 和实际事务处于活动状态 (支持资源事务; 在PROPAGATION_REQUIRED, PROPAGATION_REQUIRES_NEW, etc上).
 	 */
 	public static boolean isActualTransactionActive() {
-		return (actualTransactionActive.get() != null);
+		TransactionState state = transactionState.get();
+		return (state != null && state.actualTransactionActive);
 	}
 
 
@@ -386,10 +394,128 @@ public abstract class TransactionSynchronizationManager {
 	 * 注册的同步以及各种事务特征.
 	 */
 	public static void clear() {
-		synchronizations.remove();
-		currentTransactionName.remove();
-		currentTransactionReadOnly.remove();
-		currentTransactionIsolationLevel.remove();
-		actualTransactionActive.remove();
+		TransactionState state = transactionState.get();
+		if (state != null) {
+			state.synchronizations = null;
+			state.name = null;
+			state.readOnly = false;
+			state.isolationLevel = null;
+			state.actualTransactionActive = false;
+			removeIfEmpty(state);
+		}
+	}
+
+
+	/**
+	 * 返回当前线程的状态对象, 必要时创建它.
+	 */
+	private static TransactionState obtainState() {
+		TransactionState state = transactionState.get();
+		if (state == null) {
+			state = new TransactionState();
+			transactionState.set(state);
+		}
+		return state;
+	}
+
+	/**
+	 * 如果给定的状态对象不再包含任何内容, 则删除整个ThreadLocal.
+	 */
+	private static void removeIfEmpty(TransactionState state) {
+		if (state.isEmpty()) {
+			transactionState.remove();
+		}
+	}
+
+
+	/**
+	 * 单个线程的事务状态: 绑定的资源, 注册的同步以及当前事务的特征.
+	 */
+	private static final class TransactionState {
+
+		private static final int INITIAL_RESOURCE_CAPACITY = 2;
+
+		Object[] resourceKeys;
+
+		Object[] resourceValues;
+
+		int resourceCount;
+
+		Set<TransactionSynchronization> synchronizations;
+
+		String name;
+
+		boolean readOnly;
+
+		Integer isolationLevel;
+
+		boolean actualTransactionActive;
+
+		int indexOfResource(Object key) {
+			// 首先按标识比较, 这是常见情况
+			for (int i = 0; i < this.resourceCount; i++) {
+				if (this.resourceKeys[i] == key) {
+					return i;
+				}
+			}
+			for (int i = 0; i < this.resourceCount; i++) {
+				if (this.resourceKeys[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		Object putResource(Object key, Object value) {
+			int index = indexOfResource(key);
+			if (index != -1) {
+				Object oldValue = this.resourceValues[index];
+				this.resourceValues[index] = value;
+				return oldValue;
+			}
+			if (this.resourceKeys == null) {
+				this.resourceKeys = new Object[INITIAL_RESOURCE_CAPACITY];
+				this.resourceValues = new Object[INITIAL_RESOURCE_CAPACITY];
+			}
+			else if (this.resourceCount == this.resourceKeys.length) {
+				Object[] newKeys = new Object[this.resourceCount * 2];
+				Object[] newValues = new Object[this.resourceCount * 2];
+				System.arraycopy(this.resourceKeys, 0, newKeys, 0, this.resourceCount);
+				System.arraycopy(this.resourceValues, 0, newValues, 0, this.resourceCount);
+				this.resourceKeys = newKeys;
+				this.resourceValues = newValues;
+			}
+			this.resourceKeys[this.resourceCount] = key;
+			this.resourceValues[this.resourceCount] = value;
+			this.resourceCount++;
+			return null;
+		}
+
+		Object removeResource(int index) {
+			Object value = this.resourceValues[index];
+			int numMoved = this.resourceCount - index - 1;
+			if (numMoved > 0) {
+				System.arraycopy(this.resourceKeys, index + 1, this.resourceKeys, index, numMoved);
+				System.arraycopy(this.resourceValues, index + 1, this.resourceValues, index, numMoved);
+			}
+			this.resourceCount--;
+			this.resourceKeys[this.resourceCount] = null;
+			this.resourceValues[this.resourceCount] = null;
+			return value;
+		}
+
+		Map<Object, Object> getResourceMap() {
+			Map<Object, Object> map = new LinkedHashMap<Object, Object>(this.resourceCount * 2);
+			for (int i = 0; i < this.resourceCount; i++) {
+				map.put(this.resourceKeys[i], this.resourceValues[i]);
+			}
+			return map;
+		}
+
+		boolean isEmpty() {
+			return (this.resourceCount == 0 && this.synchronizations == null && this.name == null &&
+					!this.readOnly && this.isolationLevel == null && !this.actualTransactionActive);
+		}
 	}
+
 }
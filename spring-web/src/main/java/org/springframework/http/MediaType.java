@@ -6,9 +6,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -217,27 +219,46 @@ public class MediaType extends MimeType implements Serializable {
 
 	private static final String PARAM_QUALITY_FACTOR = "q";
 
+	/** 每个解析缓存的最大条目数; 超过此值时清除缓存 */
+	private static final int CACHE_LIMIT = 256;
+
+	/** 公共常量媒体类型, 按其字符串值; 解析这些值时始终返回常量实例 */
+	private static final Map<String, MediaType> internedMediaTypes = new HashMap<String, MediaType>(32);
+
+	/** 按原始字符串缓存的已解析媒体类型 */
+	private static final Map<String, MediaType> cachedMediaTypes = new ConcurrentHashMap<String, MediaType>(64);
+
+	/** 按原始header值缓存的已解析媒体类型列表 */
+	private static final Map<String, List<MediaType>> cachedMediaTypeLists =
+			new ConcurrentHashMap<String, List<MediaType>>(64);
+
 
 	static {
-		ALL = valueOf(ALL_VALUE);
-		APPLICATION_ATOM_XML = valueOf(APPLICATION_ATOM_XML_VALUE);
-		APPLICATION_FORM_URLENCODED = valueOf(APPLICATION_FORM_URLENCODED_VALUE);
-		APPLICATION_JSON = valueOf(APPLICATION_JSON_VALUE);
-		APPLICATION_JSON_UTF8 = valueOf(APPLICATION_JSON_UTF8_VALUE);
-		APPLICATION_OCTET_STREAM = valueOf(APPLICATION_OCTET_STREAM_VALUE);
-		APPLICATION_PDF = valueOf(APPLICATION_PDF_VALUE);
-		APPLICATION_RSS_XML = valueOf(APPLICATION_RSS_XML_VALUE);
-		APPLICATION_XHTML_XML = valueOf(APPLICATION_XHTML_XML_VALUE);
-		APPLICATION_XML = valueOf(APPLICATION_XML_VALUE);
-		IMAGE_GIF = valueOf(IMAGE_GIF_VALUE);
-		IMAGE_JPEG = valueOf(IMAGE_JPEG_VALUE);
-		IMAGE_PNG = valueOf(IMAGE_PNG_VALUE);
-		MULTIPART_FORM_DATA = valueOf(MULTIPART_FORM_DATA_VALUE);
-		TEXT_EVENT_STREAM = valueOf(TEXT_EVENT_STREAM_VALUE);
-		TEXT_HTML = valueOf(TEXT_HTML_VALUE);
-		TEXT_MARKDOWN = valueOf(TEXT_MARKDOWN_VALUE);
-		TEXT_PLAIN = valueOf(TEXT_PLAIN_VALUE);
-		TEXT_XML = valueOf(TEXT_XML_VALUE);
+		ALL = intern(ALL_VALUE);
+		APPLICATION_ATOM_XML = intern(APPLICATION_ATOM_XML_VALUE);
+		APPLICATION_FORM_URLENCODED = intern(APPLICATION_FORM_URLENCODED_VALUE);
+		APPLICATION_JSON = intern(APPLICATION_JSON_VALUE);
+		APPLICATION_JSON_UTF8 = intern(APPLICATION_JSON_UTF8_VALUE);
+		APPLICATION_OCTET_STREAM = intern(APPLICATION_OCTET_STREAM_VALUE);
+		APPLICATION_PDF = intern(APPLICATION_PDF_VALUE);
+		APPLICATION_RSS_XML = intern(APPLICATION_RSS_XML_VALUE);
+		APPLICATION_XHTML_XML = intern(APPLICATION_XHTML_XML_VALUE);
+		APPLICATION_XML = intern(APPLICATION_XML_VALUE);
+		IMAGE_GIF = intern(IMAGE_GIF_VALUE);
+		IMAGE_JPEG = intern(IMAGE_JPEG_VALUE);
+		IMAGE_PNG = intern(IMAGE_PNG_VALUE);
+		MULTIPART_FORM_DATA = intern(MULTIPART_FORM_DATA_VALUE);
+		TEXT_EVENT_STREAM = intern(TEXT_EVENT_STREAM_VALUE);
+		TEXT_HTML = intern(TEXT_HTML_VALUE);
+		TEXT_MARKDOWN = intern(TEXT_MARKDOWN_VALUE);
+		TEXT_PLAIN = intern(TEXT_PLAIN_VALUE);
+		TEXT_XML = intern(TEXT_XML_VALUE);
+	}
+
+	private static MediaType intern(String value) {
+		MediaType mediaType = parseMediaTypeInternal(value);
+		internedMediaTypes.put(value, mediaType);
+		return mediaType;
 	}
 
 
@@ -416,6 +437,7 @@ public class MediaType extends MimeType implements Serializable {
 
 	/**
 	 * 将给定的String解析为单个{@code MediaType}.
+	 * <p>对于公共常量的值, 返回相应的常量; 其他最近解析的结果按原始字符串缓存.
 	 * 
 	 * @param mediaType 要解析的字符串
 	 * 
@@ -423,6 +445,24 @@ public class MediaType extends MimeType implements Serializable {
 	 * @throws InvalidMediaTypeException 如果无法解析媒体类型值
 	 */
 	public static MediaType parseMediaType(String mediaType) {
+		if (StringUtils.hasLength(mediaType)) {
+			MediaType cached = internedMediaTypes.get(mediaType);
+			if (cached == null) {
+				cached = cachedMediaTypes.get(mediaType);
+			}
+			if (cached != null) {
+				return cached;
+			}
+		}
+		MediaType result = parseMediaTypeInternal(mediaType);
+		if (cachedMediaTypes.size() >= CACHE_LIMIT) {
+			cachedMediaTypes.clear();
+		}
+		cachedMediaTypes.put(mediaType, result);
+		return result;
+	}
+
+	private static MediaType parseMediaTypeInternal(String mediaType) {
 		MimeType type;
 		try {
 			type = MimeTypeUtils.parseMimeType(mediaType);
@@ -441,6 +481,7 @@ public class MediaType extends MimeType implements Serializable {
 	/**
 	 * 将给定的逗号分隔的字符串解析为{@code MediaType}对象列表.
 	 * <p>此方法可用于解析 Accept 或 Content-Type header.
+	 * 最近解析的结果按原始字符串缓存; 每次调用返回一个新的可修改列表, 例如用于排序.
 	 * 
 	 * @param mediaTypes 要解析的字符串
 	 * 
@@ -451,11 +492,19 @@ public class MediaType extends MimeType implements Serializable {
 		if (!StringUtils.hasLength(mediaTypes)) {
 			return Collections.emptyList();
 		}
+		List<MediaType> cached = cachedMediaTypeLists.get(mediaTypes);
+		if (cached != null) {
+			return new ArrayList<MediaType>(cached);
+		}
 		String[] tokens = StringUtils.tokenizeToStringArray(mediaTypes, ",");
 		List<MediaType> result = new ArrayList<MediaType>(tokens.length);
 		for (String token : tokens) {
 			result.add(parseMediaType(token));
 		}
+		if (cachedMediaTypeLists.size() >= CACHE_LIMIT) {
+			cachedMediaTypeLists.clear();
+		}
+		cachedMediaTypeLists.put(mediaTypes, new ArrayList<MediaType>(result));
 		return result;
 	}
 
@@ -1,10 +1,13 @@
 package org.springframework.http.converter.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.core.JsonEncoding;
@@ -13,15 +16,20 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.ResolvableType;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
@@ -31,11 +39,19 @@ import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.TypeUtils;
 
 /**
  * 基于Jackson和内容类型独立{@link HttpMessageConverter}实现的抽象基类.
  *
+ * <p>已解析的{@link JavaType}, 以及用于序列化视图和过滤器的{@link ObjectReader}和{@link ObjectWriter},
+ * 按目标类型, 上下文类, 视图和过滤器缓存. 如果之后重新配置了{@code ObjectMapper}, 则缓存的实例将被丢弃.
+ *
+ * <p>写入时, 内容先序列化到每个线程重用的缓冲区中, 然后一次写入响应流, 因此包装响应的过滤器
+ * (e.g. {@code ShallowEtagHeaderFilter})只接收一个数据块. 超过{@value #MAX_POOLED_BUFFER_SIZE}字节的内容
+ * 则从缓冲区转为直接流式写入响应流, 因此不会在内存中保留整个大的响应体.
+ *
  * <p>从Spring 4.3开始, 与Jackson 2.6及更高版本兼容.
  */
 public abstract class AbstractJackson2HttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
@@ -44,6 +60,14 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 
 	private static final MediaType TEXT_EVENT_STREAM = new MediaType("text", "event-stream");
 
+	/** 每个缓存的最大条目数; 超过此值时不再缓存新条目 */
+	private static final int CACHE_LIMIT = 1024;
+
+	/** 每个线程重用的写入缓冲区的最大大小; 更大的内容直接流式写入响应流 */
+	private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+	private static final ThreadLocal<byte[]> pooledBuffer = new NamedThreadLocal<byte[]>("Pooled JSON write buffer");
+
 
 	protected ObjectMapper objectMapper;
 
@@ -51,6 +75,17 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 
 	private PrettyPrinter ssePrettyPrinter;
 
+	private final Map<CacheKey, JavaType> javaTypeCache = new ConcurrentHashMap<CacheKey, JavaType>(64);
+
+	/** 创建缓存的JavaType的TypeFactory */
+	private volatile TypeFactory cachedTypeFactory;
+
+	private final Map<CacheKey, CachedObjectReader> objectReaderCache =
+			new ConcurrentHashMap<CacheKey, CachedObjectReader>(64);
+
+	private final Map<CacheKey, CachedObjectWriter> objectWriterCache =
+			new ConcurrentHashMap<CacheKey, CachedObjectWriter>(64);
+
 
 	protected AbstractJackson2HttpMessageConverter(ObjectMapper objectMapper) {
 		init(objectMapper);
@@ -87,6 +122,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		Assert.notNull(objectMapper, "ObjectMapper must not be null");
 		this.objectMapper = objectMapper;
 		configurePrettyPrint();
+		clearCaches();
 	}
 
 	/**
@@ -116,6 +152,12 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	private void clearCaches() {
+		this.javaTypeCache.clear();
+		this.objectReaderCache.clear();
+		this.objectWriterCache.clear();
+	}
+
 
 	@Override
 	public boolean canRead(Class<?> clazz, MediaType mediaType) {
@@ -127,7 +169,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		if (!canRead(mediaType)) {
 			return false;
 		}
-		JavaType javaType = getJavaType(type, contextClass);
+		JavaType javaType = getCachedJavaType(type, contextClass);
 		AtomicReference<Throwable> causeRef = new AtomicReference<Throwable>();
 		if (this.objectMapper.canDeserialize(javaType, causeRef)) {
 			return true;
@@ -183,7 +225,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
 
-		JavaType javaType = getJavaType(clazz, null);
+		JavaType javaType = getCachedJavaType(clazz, null);
 		return readJavaType(javaType, inputMessage);
 	}
 
@@ -191,7 +233,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
 
-		JavaType javaType = getJavaType(type, contextClass);
+		JavaType javaType = getCachedJavaType(type, contextClass);
 		return readJavaType(javaType, inputMessage);
 	}
 
@@ -200,8 +242,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 			if (inputMessage instanceof MappingJacksonInputMessage) {
 				Class<?> deserializationView = ((MappingJacksonInputMessage) inputMessage).getDeserializationView();
 				if (deserializationView != null) {
-					return this.objectMapper.readerWithView(deserializationView).forType(javaType).
-							readValue(inputMessage.getBody());
+					return getObjectReader(javaType, deserializationView).readValue(inputMessage.getBody());
 				}
 			}
 			return this.objectMapper.readValue(inputMessage.getBody(), javaType);
@@ -220,8 +261,11 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 
 		MediaType contentType = outputMessage.getHeaders().getContentType();
 		JsonEncoding encoding = getJsonEncoding(contentType);
-		JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputMessage.getBody(), encoding);
+		// 生成器写入重用的缓冲区, 完成后一次写入响应流; 由于关闭了生成器, 其缓冲区将返回到Jackson的BufferRecycler,
+		// 而响应流本身保持打开
+		PooledBufferOutputStream outputStream = new PooledBufferOutputStream(outputMessage);
 		try {
+			JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream, encoding);
 			writePrefix(generator, object);
 
 			Class<?> serializationView = null;
@@ -235,35 +279,23 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 				filters = container.getFilters();
 			}
 			if (type != null && value != null && TypeUtils.isAssignable(type, value.getClass())) {
-				javaType = getJavaType(type, null);
-			}
-			ObjectWriter objectWriter;
-			if (serializationView != null) {
-				objectWriter = this.objectMapper.writerWithView(serializationView);
-			}
-			else if (filters != null) {
-				objectWriter = this.objectMapper.writer(filters);
-			}
-			else {
-				objectWriter = this.objectMapper.writer();
-			}
-			if (javaType != null && javaType.isContainerType()) {
-				objectWriter = objectWriter.forType(javaType);
-			}
-			SerializationConfig config = objectWriter.getConfig();
-			if (contentType != null && contentType.isCompatibleWith(TEXT_EVENT_STREAM) &&
-					config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-				objectWriter = objectWriter.with(this.ssePrettyPrinter);
+				javaType = getCachedJavaType(type, null);
 			}
+			boolean eventStream = (contentType != null && contentType.isCompatibleWith(TEXT_EVENT_STREAM));
+			ObjectWriter objectWriter = getObjectWriter(javaType, serializationView, filters, eventStream);
 			objectWriter.writeValue(generator, value);
 
 			writeSuffix(generator, object);
 			generator.flush();
-
+			generator.close();
+			outputStream.writeToBody();
 		}
 		catch (JsonProcessingException ex) {
 			throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
 		}
+		finally {
+			outputStream.release();
+		}
 	}
 
 	/**
@@ -342,6 +374,104 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		return typeFactory.constructType(type);
 	}
 
+	/**
+	 * 通过{@link #getJavaType}返回指定类型和上下文类的{@link JavaType}, 并缓存结果.
+	 */
+	private JavaType getCachedJavaType(Type type, Class<?> contextClass) {
+		TypeFactory typeFactory = this.objectMapper.getTypeFactory();
+		if (this.cachedTypeFactory != typeFactory) {
+			this.javaTypeCache.clear();
+			this.cachedTypeFactory = typeFactory;
+		}
+		CacheKey cacheKey = new CacheKey(type, contextClass, false);
+		JavaType javaType = this.javaTypeCache.get(cacheKey);
+		if (javaType == null) {
+			javaType = getJavaType(type, contextClass);
+			if (this.javaTypeCache.size() < CACHE_LIMIT) {
+				this.javaTypeCache.put(cacheKey, javaType);
+			}
+		}
+		return javaType;
+	}
+
+	/**
+	 * 返回给定类型和反序列化视图的{@link ObjectReader}.
+	 */
+	private ObjectReader getObjectReader(JavaType javaType, Class<?> deserializationView) {
+		CacheKey cacheKey = new CacheKey(javaType, deserializationView, false);
+		DeserializationConfig config = this.objectMapper.getDeserializationConfig();
+		DeserializationContext context = this.objectMapper.getDeserializationContext();
+		CachedObjectReader cached = this.objectReaderCache.get(cacheKey);
+		if (cached == null || cached.mapperConfig != config || cached.mapperContext != context) {
+			boolean stale = (cached != null);
+			ObjectReader objectReader = this.objectMapper.readerWithView(deserializationView).forType(javaType);
+			cached = new CachedObjectReader(config, context, objectReader);
+			if (stale || this.objectReaderCache.size() < CACHE_LIMIT) {
+				this.objectReaderCache.put(cacheKey, cached);
+			}
+		}
+		return cached.objectReader;
+	}
+
+	/**
+	 * 返回给定类型, 序列化视图和过滤器的{@link ObjectWriter}.
+	 * 
+	 * @param javaType 值的声明类型 (may be {@code null})
+	 * @param serializationView 序列化视图 (may be {@code null})
+	 * @param filters 过滤器 (may be {@code null}); 如果指定了序列化视图, 则忽略.
+	 * 使用过滤器的ObjectWriter不会被缓存
+	 * @param eventStream 是否写入{@code text/event-stream}内容
+	 */
+	private ObjectWriter getObjectWriter(JavaType javaType, Class<?> serializationView, FilterProvider filters,
+			boolean eventStream) {
+
+		if (javaType != null && !javaType.isContainerType()) {
+			javaType = null;
+		}
+		if (serializationView != null) {
+			filters = null;
+		}
+		if (filters != null) {
+			// 过滤器通常按请求创建, 不缓存
+			return createObjectWriter(javaType, null, filters, eventStream);
+		}
+		CacheKey cacheKey = new CacheKey(javaType, serializationView, eventStream);
+		SerializationConfig config = this.objectMapper.getSerializationConfig();
+		SerializerFactory serializerFactory = this.objectMapper.getSerializerFactory();
+		CachedObjectWriter cached = this.objectWriterCache.get(cacheKey);
+		if (cached == null || cached.mapperConfig != config || cached.serializerFactory != serializerFactory) {
+			boolean stale = (cached != null);
+			cached = new CachedObjectWriter(config, serializerFactory,
+					createObjectWriter(javaType, serializationView, null, eventStream));
+			if (stale || this.objectWriterCache.size() < CACHE_LIMIT) {
+				this.objectWriterCache.put(cacheKey, cached);
+			}
+		}
+		return cached.objectWriter;
+	}
+
+	private ObjectWriter createObjectWriter(JavaType javaType, Class<?> serializationView, FilterProvider filters,
+			boolean eventStream) {
+
+		ObjectWriter objectWriter;
+		if (serializationView != null) {
+			objectWriter = this.objectMapper.writerWithView(serializationView);
+		}
+		else if (filters != null) {
+			objectWriter = this.objectMapper.writer(filters);
+		}
+		else {
+			objectWriter = this.objectMapper.writer();
+		}
+		if (javaType != null) {
+			objectWriter = objectWriter.forType(javaType);
+		}
+		if (eventStream && objectWriter.getConfig().isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+			objectWriter = objectWriter.with(this.ssePrettyPrinter);
+		}
+		return objectWriter;
+	}
+
 	private ResolvableType resolveVariable(TypeVariable<?> typeVariable, ResolvableType contextType) {
 		ResolvableType resolvedType;
 		if (contextType.hasGenerics()) {
@@ -402,4 +532,185 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		return super.getContentLength(object, contentType);
 	}
 
+
+
+	/**
+	 * JavaType, ObjectReader和ObjectWriter缓存的键, 基于目标类型, 上下文类或视图类.
+	 */
+	private static final class CacheKey {
+
+		private final Object type;
+
+		private final Class<?> clazz;
+
+		private final boolean eventStream;
+
+		public CacheKey(Object type, Class<?> clazz, boolean eventStream) {
+			this.type = type;
+			this.clazz = clazz;
+			this.eventStream = eventStream;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			CacheKey otherKey = (CacheKey) other;
+			return (ObjectUtils.nullSafeEquals(this.type, otherKey.type) && this.clazz == otherKey.clazz &&
+					this.eventStream == otherKey.eventStream);
+		}
+
+		@Override
+		public int hashCode() {
+			int hashCode = ObjectUtils.nullSafeHashCode(this.type);
+			hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.clazz);
+			return 29 * hashCode + (this.eventStream ? 1 : 0);
+		}
+	}
+
+
+	/**
+	 * 缓存的ObjectReader, 以及创建它时ObjectMapper的配置和反序列化上下文.
+	 * 由于ObjectMapper在重新配置或注册模块时会替换这些实例, 因此可以通过比较检测过时的ObjectReader.
+	 */
+	private static class CachedObjectReader {
+
+		final DeserializationConfig mapperConfig;
+
+		final DeserializationContext mapperContext;
+
+		final ObjectReader objectReader;
+
+		CachedObjectReader(DeserializationConfig mapperConfig, DeserializationContext mapperContext,
+				ObjectReader objectReader) {
+
+			this.mapperConfig = mapperConfig;
+			this.mapperContext = mapperContext;
+			this.objectReader = objectReader;
+		}
+	}
+
+
+	/**
+	 * 缓存的ObjectWriter, 以及创建它时ObjectMapper的配置和序列化器工厂.
+	 */
+	private static class CachedObjectWriter {
+
+		final SerializationConfig mapperConfig;
+
+		final SerializerFactory serializerFactory;
+
+		final ObjectWriter objectWriter;
+
+		CachedObjectWriter(SerializationConfig mapperConfig, SerializerFactory serializerFactory,
+				ObjectWriter objectWriter) {
+
+			this.mapperConfig = mapperConfig;
+			this.serializerFactory = serializerFactory;
+			this.objectWriter = objectWriter;
+		}
+	}
+
+
+
+	/**
+	 * 将内容收集到每个线程重用的缓冲区中的{@link OutputStream}, 通过{@link #writeToBody()}一次写入响应流.
+	 * 当内容超过{@link #MAX_POOLED_BUFFER_SIZE}时, 写入已收集的内容, 之后直接写入响应流.
+	 * 关闭此流不会关闭响应流.
+	 */
+	private static class PooledBufferOutputStream extends OutputStream {
+
+		private final HttpOutputMessage outputMessage;
+
+		private byte[] buffer;
+
+		private int count;
+
+		private OutputStream body;
+
+		public PooledBufferOutputStream(HttpOutputMessage outputMessage) {
+			this.outputMessage = outputMessage;
+			byte[] buffer = pooledBuffer.get();
+			if (buffer != null) {
+				// 在使用期间从线程中移除, 以便嵌套的写入不会共享同一个缓冲区
+				pooledBuffer.remove();
+			}
+			else {
+				buffer = new byte[1024];
+			}
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (this.body == null && this.count < this.buffer.length) {
+				this.buffer[this.count++] = (byte) b;
+			}
+			else {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (this.body != null) {
+				this.body.write(b, off, len);
+				return;
+			}
+			int required = this.count + len;
+			if (required > this.buffer.length) {
+				if (required > MAX_POOLED_BUFFER_SIZE) {
+					// 内容太大, 无法缓冲 -> 转为直接写入响应流
+					this.body = this.outputMessage.getBody();
+					this.body.write(this.buffer, 0, this.count);
+					this.count = 0;
+					this.body.write(b, off, len);
+					return;
+				}
+				byte[] newBuffer = new byte[Math.min(Math.max(this.buffer.length * 2, required), MAX_POOLED_BUFFER_SIZE)];
+				System.arraycopy(this.buffer, 0, newBuffer, 0, this.count);
+				this.buffer = newBuffer;
+			}
+			System.arraycopy(b, off, this.buffer, this.count, len);
+			this.count = required;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// 在缓冲期间忽略, 直到writeToBody
+			if (this.body != null) {
+				this.body.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			writeToBody();
+		}
+
+		/**
+		 * 将收集的内容一次写入响应流.
+		 */
+		public void writeToBody() throws IOException {
+			if (this.body == null) {
+				this.body = this.outputMessage.getBody();
+			}
+			if (this.count > 0) {
+				this.body.write(this.buffer, 0, this.count);
+				this.count = 0;
+			}
+		}
+
+		/**
+		 * 将缓冲区返回给当前线程以供重用.
+		 */
+		public void release() {
+			if (this.buffer != null) {
+				pooledBuffer.set(this.buffer);
+				this.buffer = null;
+			}
+		}
+	}
+
 }
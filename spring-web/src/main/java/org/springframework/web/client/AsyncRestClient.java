@@ -0,0 +1,692 @@
+package org.springframework.web.client;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.InterceptingAsyncHttpAccessor;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.UsesJava8;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.util.UriTemplateHandler;
+
+/**
+ * 基于非阻塞{@link AsyncClientHttpRequestFactory}的流式异步HTTP客户端, 其结果为{@link CompletableFuture}.
+ *
+ * <pre class="code">
+ * AsyncRestClient client = new AsyncRestClient(new HttpComponentsAsyncClientHttpRequestFactory());
+ * client.setMaxConcurrentRequestsPerHost(16);
+ *
+ * CompletableFuture&lt;Account&gt; account = client.get("http://example.com/accounts/{id}", id)
+ *         .accept(MediaType.APPLICATION_JSON)
+ *         .retrieve(Account.class);
+ * </pre>
+ *
+ * <p>与{@link AsyncRestTemplate}不同, 此客户端不提供基于{@code TaskExecutor}的默认请求工厂:
+ * 应与非阻塞的请求工厂一起使用, 例如
+ * {@link org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory} (使用其HTTP客户端的连接池) 或
+ * {@link org.springframework.http.client.Netty4ClientHttpRequestFactory},
+ * 以便并发的请求不需要相应数量的线程. 响应在请求工厂的I/O线程上转换,
+ * 由于这些请求工厂在完成时已接收到完整的响应正文, 因此转换不会阻塞等待I/O.
+ *
+ * <p>{@linkplain #setMaxConcurrentRequestsPerHost 每个主机的并发请求限制}在此客户端中应用:
+ * 超出限制的请求将排队, 并在同一主机的请求完成时开始, 不占用任何线程.
+ * 默认情况下, 排队的请求在完成先前请求的线程 (通常是请求工厂的I/O线程) 上启动;
+ * 如果准备请求的开销较大, 可以设置{@linkplain #setQueuedRequestExecutor 单独的Executor}.
+ *
+ * <p>与{@link AsyncRestTemplate}相同, 此客户端与内部的{@link RestTemplate}共享其
+ * {@linkplain #setMessageConverters 消息转换器}, {@linkplain #setErrorHandler 错误处理器}
+ * 和{@linkplain #setUriTemplateHandler URI模板处理器}.
+ */
+@UsesJava8
+public class AsyncRestClient extends InterceptingAsyncHttpAccessor {
+
+	private final RestTemplate syncTemplate;
+
+	private int maxConcurrentRequestsPerHost = -1;
+
+	private Executor queuedRequestExecutor;
+
+	/** 主机 -> 限制器, 仅包含有活动或排队请求的主机 */
+	private final ConcurrentMap<String, HostLimiter> hostLimiters = new ConcurrentHashMap<String, HostLimiter>(64);
+
+
+	/**
+	 * @param requestFactory 要使用的异步请求工厂
+	 */
+	public AsyncRestClient(AsyncClientHttpRequestFactory requestFactory) {
+		this(requestFactory, new RestTemplate());
+	}
+
+	/**
+	 * @param requestFactory 要使用的异步请求工厂
+	 * @param restTemplate 提供消息转换器, 错误处理器和URI模板处理器的模板
+	 */
+	public AsyncRestClient(AsyncClientHttpRequestFactory requestFactory, RestTemplate restTemplate) {
+		Assert.notNull(requestFactory, "AsyncClientHttpRequestFactory must not be null");
+		Assert.notNull(restTemplate, "RestTemplate must not be null");
+		this.syncTemplate = restTemplate;
+		setAsyncRequestFactory(requestFactory);
+	}
+
+
+	/**
+	 * 设置对同一主机 (协议, 主机名和端口) 的最大并发请求数.
+	 * <p>默认为-1, 即没有限制.
+	 */
+	public void setMaxConcurrentRequestsPerHost(int maxConcurrentRequestsPerHost) {
+		this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+	}
+
+	/**
+	 * 返回对同一主机的最大并发请求数.
+	 */
+	public int getMaxConcurrentRequestsPerHost() {
+		return this.maxConcurrentRequestsPerHost;
+	}
+
+	/**
+	 * 设置用于启动排队的请求的Executor, 当同一主机的先前请求完成时.
+	 * <p>默认为{@code null}, 即在完成先前请求的线程上启动排队的请求,
+	 * 这通常是请求工厂的I/O线程. 如果Executor拒绝任务, 则仍在该线程上启动.
+	 */
+	public void setQueuedRequestExecutor(Executor queuedRequestExecutor) {
+		this.queuedRequestExecutor = queuedRequestExecutor;
+	}
+
+	/**
+	 * 返回用于启动排队的请求的Executor.
+	 */
+	public Executor getQueuedRequestExecutor() {
+		return this.queuedRequestExecutor;
+	}
+
+	/**
+	 * 设置错误处理器.
+	 * <p>默认使用{@link DefaultResponseErrorHandler}.
+	 */
+	public void setErrorHandler(ResponseErrorHandler errorHandler) {
+		this.syncTemplate.setErrorHandler(errorHandler);
+	}
+
+	/**
+	 * 返回错误处理器.
+	 */
+	public ResponseErrorHandler getErrorHandler() {
+		return this.syncTemplate.getErrorHandler();
+	}
+
+	/**
+	 * 配置用于展开URI模板的处理器.
+	 * 有关更多详细信息, 请参阅{@link RestTemplate#setUriTemplateHandler}.
+	 */
+	public void setUriTemplateHandler(UriTemplateHandler handler) {
+		this.syncTemplate.setUriTemplateHandler(handler);
+	}
+
+	/**
+	 * 返回配置的URI模板处理器.
+	 */
+	public UriTemplateHandler getUriTemplateHandler() {
+		return this.syncTemplate.getUriTemplateHandler();
+	}
+
+	/**
+	 * 设置要使用的消息正文转换器.
+	 */
+	public void setMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+		this.syncTemplate.setMessageConverters(messageConverters);
+	}
+
+	/**
+	 * 返回要使用的消息正文转换器.
+	 */
+	public List<HttpMessageConverter<?>> getMessageConverters() {
+		return this.syncTemplate.getMessageConverters();
+	}
+
+
+	public RequestSpec get(String url, Object... uriVariables) {
+		return method(HttpMethod.GET, url, uriVariables);
+	}
+
+	public RequestSpec get(URI url) {
+		return method(HttpMethod.GET, url);
+	}
+
+	public RequestSpec head(String url, Object... uriVariables) {
+		return method(HttpMethod.HEAD, url, uriVariables);
+	}
+
+	public RequestSpec head(URI url) {
+		return method(HttpMethod.HEAD, url);
+	}
+
+	public RequestSpec post(String url, Object... uriVariables) {
+		return method(HttpMethod.POST, url, uriVariables);
+	}
+
+	public RequestSpec post(URI url) {
+		return method(HttpMethod.POST, url);
+	}
+
+	public RequestSpec put(String url, Object... uriVariables) {
+		return method(HttpMethod.PUT, url, uriVariables);
+	}
+
+	public RequestSpec put(URI url) {
+		return method(HttpMethod.PUT, url);
+	}
+
+	public RequestSpec patch(String url, Object... uriVariables) {
+		return method(HttpMethod.PATCH, url, uriVariables);
+	}
+
+	public RequestSpec patch(URI url) {
+		return method(HttpMethod.PATCH, url);
+	}
+
+	public RequestSpec delete(String url, Object... uriVariables) {
+		return method(HttpMethod.DELETE, url, uriVariables);
+	}
+
+	public RequestSpec delete(URI url) {
+		return method(HttpMethod.DELETE, url);
+	}
+
+	public RequestSpec options(String url, Object... uriVariables) {
+		return method(HttpMethod.OPTIONS, url, uriVariables);
+	}
+
+	public RequestSpec options(URI url) {
+		return method(HttpMethod.OPTIONS, url);
+	}
+
+	/**
+	 * 为给定的HTTP方法和URI模板准备请求, 使用给定的URI变量展开模板.
+	 */
+	public RequestSpec method(HttpMethod method, String url, Object... uriVariables) {
+		return method(method, getUriTemplateHandler().expand(url, uriVariables));
+	}
+
+	/**
+	 * 为给定的HTTP方法和URI模板准备请求, 使用给定的URI变量展开模板.
+	 */
+	public RequestSpec method(HttpMethod method, String url, Map<String, ?> uriVariables) {
+		return method(method, getUriTemplateHandler().expand(url, uriVariables));
+	}
+
+	/**
+	 * 为给定的HTTP方法和URI准备请求.
+	 */
+	public RequestSpec method(HttpMethod method, URI url) {
+		Assert.notNull(method, "'method' must not be null");
+		Assert.notNull(url, "'url' must not be null");
+		return new RequestSpec(method, url);
+	}
+
+
+	/**
+	 * 执行请求, 遵守每个主机的并发请求限制.
+	 *
+	 * @param url 要连接的完全展开的URL
+	 * @param method 要执行的HTTP方法
+	 * @param requestCallback 准备请求的对象 (can be {@code null})
+	 * @param responseExtractor 从响应中提取返回值的对象 (can be {@code null})
+	 *
+	 * @return 由{@link ResponseExtractor}返回的值的Future
+	 */
+	protected <T> CompletableFuture<T> execute(URI url, HttpMethod method, AsyncRequestCallback requestCallback,
+			ResponseExtractor<T> responseExtractor) {
+
+		CompletableFuture<T> result = new CompletableFuture<T>();
+		RequestTask<T> task = new RequestTask<T>(url, method, requestCallback, responseExtractor, result);
+		if (this.maxConcurrentRequestsPerHost > 0) {
+			String host = getHostKey(url);
+			while (true) {
+				HostLimiter limiter = this.hostLimiters.get(host);
+				if (limiter == null) {
+					limiter = new HostLimiter(host);
+					HostLimiter existing = this.hostLimiters.putIfAbsent(host, limiter);
+					if (existing != null) {
+						limiter = existing;
+					}
+				}
+				task.limiter = limiter;
+				if (limiter.submit(task)) {
+					break;
+				}
+			}
+		}
+		else {
+			task.run();
+		}
+		return result;
+	}
+
+	private static String getHostKey(URI url) {
+		String scheme = (url.getScheme() != null ? url.getScheme().toLowerCase(Locale.ENGLISH) : null);
+		String host = (url.getHost() != null ? url.getHost().toLowerCase(Locale.ENGLISH) : null);
+		int port = url.getPort();
+		if (port == -1) {
+			if ("http".equals(scheme)) {
+				port = 80;
+			}
+			else if ("https".equals(scheme)) {
+				port = 443;
+			}
+		}
+		return scheme + "://" + host + ":" + port;
+	}
+
+	private void logResponseStatus(HttpMethod method, URI url, ClientHttpResponse response) {
+		if (logger.isDebugEnabled()) {
+			try {
+				logger.debug("Async " + method.name() + " request for \"" + url + "\" resulted in " +
+						response.getRawStatusCode() + " (" + response.getStatusText() + ")");
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+	private void handleResponseError(HttpMethod method, URI url, ClientHttpResponse response) throws IOException {
+		if (logger.isWarnEnabled()) {
+			try {
+				logger.warn("Async " + method.name() + " request for \"" + url + "\" resulted in " +
+						response.getRawStatusCode() + " (" + response.getStatusText() + "); invoking error handler");
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+		getErrorHandler().handleError(response);
+	}
+
+	private static Throwable adaptException(HttpMethod method, URI url, Throwable ex) {
+		if (ex instanceof IOException) {
+			return new ResourceAccessException("I/O error on " + method.name() +
+					" request for \"" + url + "\":" + ex.getMessage(), (IOException) ex);
+		}
+		return ex;
+	}
+
+
+	/**
+	 * 用于配置和执行单个请求的流式API.
+	 * 每个实例只应执行一次.
+	 */
+	public class RequestSpec {
+
+		private final HttpMethod method;
+
+		private final URI url;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private Object body;
+
+		private StreamingHttpOutputMessage.Body streamingBody;
+
+		RequestSpec(HttpMethod method, URI url) {
+			this.method = method;
+			this.url = url;
+		}
+
+		/**
+		 * 添加给定的请求header值.
+		 */
+		public RequestSpec header(String headerName, String... headerValues) {
+			for (String headerValue : headerValues) {
+				this.headers.add(headerName, headerValue);
+			}
+			return this;
+		}
+
+		/**
+		 * 添加所有给定的请求header.
+		 */
+		public RequestSpec headers(HttpHeaders headers) {
+			this.headers.putAll(headers);
+			return this;
+		}
+
+		/**
+		 * 设置{@code Accept} header. 如果未设置, 则根据响应类型和消息转换器确定.
+		 */
+		public RequestSpec accept(MediaType... acceptableMediaTypes) {
+			this.headers.setAccept(Arrays.asList(acceptableMediaTypes));
+			return this;
+		}
+
+		/**
+		 * 设置{@code Content-Type} header.
+		 */
+		public RequestSpec contentType(MediaType contentType) {
+			this.headers.setContentType(contentType);
+			return this;
+		}
+
+		/**
+		 * 设置通过消息转换器写入的请求正文.
+		 */
+		public RequestSpec body(Object body) {
+			this.body = body;
+			this.streamingBody = null;
+			return this;
+		}
+
+		/**
+		 * 设置直接写入请求流的请求正文, 无需先在内存中创建要转换的对象.
+		 */
+		public RequestSpec body(StreamingHttpOutputMessage.Body body) {
+			this.streamingBody = body;
+			this.body = null;
+			return this;
+		}
+
+		/**
+		 * 执行请求并将响应正文转换为给定类型.
+		 */
+		public <T> CompletableFuture<T> retrieve(Class<T> responseType) {
+			return execute(requestCallback(responseType),
+					new HttpMessageConverterExtractor<T>(responseType, getMessageConverters(), logger));
+		}
+
+		/**
+		 * 执行请求并将响应正文转换为给定的泛型类型.
+		 */
+		public <T> CompletableFuture<T> retrieve(ParameterizedTypeReference<T> responseType) {
+			Type type = responseType.getType();
+			return execute(requestCallback(type),
+					new HttpMessageConverterExtractor<T>(type, getMessageConverters(), logger));
+		}
+
+		/**
+		 * 执行请求并将响应转换为{@link ResponseEntity}.
+		 */
+		public <T> CompletableFuture<ResponseEntity<T>> toEntity(Class<T> responseType) {
+			return execute(requestCallback(responseType), syncTemplate.<T>responseEntityExtractor(responseType));
+		}
+
+		/**
+		 * 执行请求并将响应转换为{@link ResponseEntity}.
+		 */
+		public <T> CompletableFuture<ResponseEntity<T>> toEntity(ParameterizedTypeReference<T> responseType) {
+			Type type = responseType.getType();
+			return execute(requestCallback(type), syncTemplate.<T>responseEntityExtractor(type));
+		}
+
+		/**
+		 * 执行请求并仅返回响应header.
+		 */
+		public CompletableFuture<HttpHeaders> toHeaders() {
+			return execute(requestCallback(null), syncTemplate.headersExtractor());
+		}
+
+		/**
+		 * 执行请求并使用给定的提取器读取响应, e.g. 直接从响应流中读取.
+		 * 提取器返回后, 响应将被关闭.
+		 */
+		public <T> CompletableFuture<T> exchange(ResponseExtractor<T> responseExtractor) {
+			return execute(requestCallback(null), responseExtractor);
+		}
+
+		private <T> CompletableFuture<T> execute(AsyncRequestCallback requestCallback,
+				ResponseExtractor<T> responseExtractor) {
+
+			return AsyncRestClient.this.execute(this.url, this.method, requestCallback, responseExtractor);
+		}
+
+		private AsyncRequestCallback requestCallback(Type responseType) {
+			if (this.streamingBody != null) {
+				return new StreamingBodyRequestCallback(this.headers, this.streamingBody);
+			}
+			HttpEntity<Object> entity = new HttpEntity<Object>(this.body, this.headers);
+			return new AsyncRestTemplate.AsyncRequestCallbackAdapter(syncTemplate.httpEntityCallback(entity, responseType));
+		}
+	}
+
+
+	/**
+	 * 将给定的header和流式正文写入请求.
+	 */
+	private static class StreamingBodyRequestCallback implements AsyncRequestCallback {
+
+		private final HttpHeaders headers;
+
+		private final StreamingHttpOutputMessage.Body body;
+
+		public StreamingBodyRequestCallback(HttpHeaders headers, StreamingHttpOutputMessage.Body body) {
+			this.headers = headers;
+			this.body = body;
+		}
+
+		@Override
+		public void doWithRequest(AsyncClientHttpRequest request) throws IOException {
+			request.getHeaders().putAll(this.headers);
+			this.body.writeTo(request.getBody());
+		}
+	}
+
+
+	/**
+	 * 执行单个请求, 并在响应完成后释放其主机的并发请求许可.
+	 */
+	private class RequestTask<T> implements Runnable {
+
+		private final URI url;
+
+		private final HttpMethod method;
+
+		private final AsyncRequestCallback requestCallback;
+
+		private final ResponseExtractor<T> responseExtractor;
+
+		private final CompletableFuture<T> result;
+
+		private HostLimiter limiter;
+
+		public RequestTask(URI url, HttpMethod method, AsyncRequestCallback requestCallback,
+				ResponseExtractor<T> responseExtractor, CompletableFuture<T> result) {
+
+			this.url = url;
+			this.method = method;
+			this.requestCallback = requestCallback;
+			this.responseExtractor = responseExtractor;
+			this.result = result;
+		}
+
+		@Override
+		public void run() {
+			if (this.result.isDone()) {
+				// 在排队时已取消
+				release();
+				return;
+			}
+			final ListenableFuture<ClientHttpResponse> responseFuture;
+			try {
+				AsyncClientHttpRequest request = createAsyncRequest(this.url, this.method);
+				if (this.requestCallback != null) {
+					this.requestCallback.doWithRequest(request);
+				}
+				responseFuture = request.executeAsync();
+			}
+			catch (Throwable ex) {
+				release();
+				this.result.completeExceptionally(adaptException(this.method, this.url, ex));
+				return;
+			}
+			this.result.handle(new BiFunction<T, Throwable, Object>() {
+				@Override
+				public Object apply(T value, Throwable ex) {
+					if (result.isCancelled()) {
+						responseFuture.cancel(true);
+					}
+					return null;
+				}
+			});
+			responseFuture.addCallback(new ListenableFutureCallback<ClientHttpResponse>() {
+				@Override
+				public void onSuccess(ClientHttpResponse response) {
+					T value;
+					try {
+						value = extractData(response);
+					}
+					catch (Throwable ex) {
+						release();
+						result.completeExceptionally(adaptException(method, url, ex));
+						return;
+					}
+					release();
+					result.complete(value);
+				}
+				@Override
+				public void onFailure(Throwable ex) {
+					release();
+					result.completeExceptionally(adaptException(method, url, ex));
+				}
+			});
+		}
+
+		private T extractData(ClientHttpResponse response) throws IOException {
+			try {
+				if (!getErrorHandler().hasError(response)) {
+					logResponseStatus(this.method, this.url, response);
+				}
+				else {
+					handleResponseError(this.method, this.url, response);
+				}
+				return (this.responseExtractor != null ? this.responseExtractor.extractData(response) : null);
+			}
+			finally {
+				response.close();
+			}
+		}
+
+		private void release() {
+			if (this.limiter != null) {
+				this.limiter.release();
+			}
+		}
+	}
+
+
+	/**
+	 * 限制对单个主机的并发请求数, 将超出限制的请求排队, 直到先前的请求完成.
+	 * 没有活动或排队的请求时, 限制器将从{@link #hostLimiters}中移除并停用.
+	 */
+	private class HostLimiter {
+
+		private final String host;
+
+		private final Queue<Runnable> pending = new LinkedList<Runnable>();
+
+		private int active;
+
+		/** 是否有线程正在启动排队的请求, 以避免请求同步完成时的递归 */
+		private boolean draining;
+
+		private boolean retired;
+
+		public HostLimiter(String host) {
+			this.host = host;
+		}
+
+		/**
+		 * 提交给定的任务, 如果允许, 立即在当前线程中运行.
+		 *
+		 * @return {@code false} 如果限制器已停用, 并且必须使用新的限制器
+		 */
+		public boolean submit(Runnable task) {
+			synchronized (this) {
+				if (this.retired) {
+					return false;
+				}
+				this.pending.add(task);
+			}
+			drain();
+			return true;
+		}
+
+		/**
+		 * 在请求完成时调用, 并启动排队的请求 (如果有).
+		 * 如果设置了{@link #setQueuedRequestExecutor queuedRequestExecutor}, 则通过它启动.
+		 */
+		public void release() {
+			synchronized (this) {
+				this.active--;
+				if (this.active == 0 && this.pending.isEmpty()) {
+					this.retired = true;
+					hostLimiters.remove(this.host, this);
+					return;
+				}
+			}
+			Executor executor = queuedRequestExecutor;
+			if (executor != null) {
+				try {
+					executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							drain();
+						}
+					});
+					return;
+				}
+				catch (RejectedExecutionException ex) {
+					logger.debug("Queued request executor rejected task - starting queued request directly", ex);
+				}
+			}
+			drain();
+		}
+
+		private void drain() {
+			while (true) {
+				Runnable task;
+				synchronized (this) {
+					int max = maxConcurrentRequestsPerHost;
+					if (this.draining || this.pending.isEmpty() || (max > 0 && this.active >= max)) {
+						return;
+					}
+					this.draining = true;
+					this.active++;
+					task = this.pending.poll();
+				}
+				try {
+					task.run();
+				}
+				finally {
+					synchronized (this) {
+						this.draining = false;
+					}
+				}
+			}
+		}
+	}
+
+}
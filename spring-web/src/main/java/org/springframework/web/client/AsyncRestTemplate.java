@@ -585,7 +585,7 @@ public class AsyncRestTemplate extends InterceptingAsyncHttpAccessor implements
 	/**
 	 * 将{@link RequestCallback}适配为{@link AsyncRequestCallback}接口.
 	 */
-	private static class AsyncRequestCallbackAdapter implements AsyncRequestCallback {
+	static class AsyncRequestCallbackAdapter implements AsyncRequestCallback {
 
 		private final RequestCallback adaptee;
 
@@ -53,6 +53,9 @@ public abstract class AbstractRequestAttributesScope implements Scope {
 	@Override
 	public Object resolveContextualObject(String key) {
 		RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+		if (RequestAttributes.REFERENCE_REQUEST_ATTRIBUTES.equals(key)) {
+			return attributes;
+		}
 		return attributes.resolveReference(key);
 	}
 
@@ -38,6 +38,13 @@ public interface RequestAttributes {
 	 */
 	String REFERENCE_SESSION = "session";
 
+	/**
+	 * 当前{@code RequestAttributes}实例自身的引用的名称: "requestAttributes".
+	 * <p>由请求相关作用域的{@link org.springframework.beans.factory.config.Scope#resolveContextualObject}解析,
+	 * 用于区分不同的请求, e.g. 由{@link org.springframework.aop.target.CachingBeanTargetSource}使用.
+	 */
+	String REFERENCE_REQUEST_ATTRIBUTES = "requestAttributes";
+
 
 	/**
 	 * 返回给定名称的scoped属性的值.
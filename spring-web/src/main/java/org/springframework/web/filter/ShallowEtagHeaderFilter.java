@@ -2,7 +2,11 @@ package org.springframework.web.filter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
@@ -14,6 +18,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.DigestUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 import org.springframework.web.util.WebUtils;
 
@@ -24,6 +29,10 @@ import org.springframework.web.util.WebUtils;
  *
  * <p>由于ETag基于响应内容, 因此仍会渲染响应 (e.g. {@link org.springframework.web.servlet.View}).
  * 因此, 此过滤器仅节省带宽, 而不是服务器性能.
+ *
+ * <p>默认情况下, 完整的响应内容被缓存, 直到请求处理完成.
+ * 设置{@link #setContentCacheLimit 内容缓存限制}后, 内容的MD5哈希在写入时增量计算,
+ * 超出限制的响应将直接传递到原始响应, 且不带ETag.
  */
 public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
@@ -44,6 +53,13 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private int contentCacheLimit = -1;
+
+	/** {@link #generateETagHeaderValue}是否未被覆盖, 即可以使用增量计算的哈希 */
+	private final boolean defaultETagGeneration = (ReflectionUtils.findMethod(getClass(),
+			"generateETagHeaderValue", InputStream.class, boolean.class).getDeclaringClass() ==
+			ShallowEtagHeaderFilter.class);
+
 
 	/**
 	 * 根据RFC 7232, 设置写入响应的ETag值是否应该较弱.
@@ -60,6 +76,25 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * 设置每个响应缓存的最大字节数.
+	 * <p>缓存的内容达到此限制时, 将其写入原始响应, 并将其余内容直接传递到原始响应,
+	 * 因此不为该响应生成ETag. 在此限制内, ETag所需的哈希在写入内容时增量计算,
+	 * 除非{@link #generateETagHeaderValue}被覆盖.
+	 * <p>默认为-1, 即缓存完整的响应内容.
+	 * <p>应使用{@code <init-param>}为{@code web.xml}中的过滤器定义中的参数名称"contentCacheLimit"进行配置.
+	 */
+	public void setContentCacheLimit(int contentCacheLimit) {
+		this.contentCacheLimit = contentCacheLimit;
+	}
+
+	/**
+	 * 返回每个响应缓存的最大字节数, 如果没有限制, 则返回-1或更小的值.
+	 */
+	public int getContentCacheLimit() {
+		return this.contentCacheLimit;
+	}
+
 
 	/**
 	 * 默认值为{@code false}, 以便过滤器可以延迟生成ETag, 直到最后一个异步调度的线程.
@@ -75,7 +110,9 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-			responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+			responseToUse = (this.contentCacheLimit > 0 ?
+					new BoundedContentCachingResponseWrapper(response, request, this.contentCacheLimit) :
+					new HttpStreamingAwareContentCachingResponseWrapper(response, request));
 		}
 
 		filterChain.doFilter(request, responseToUse);
@@ -91,12 +128,24 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		Assert.notNull(responseWrapper, "ContentCachingResponseWrapper not found");
 		HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
 		int statusCode = responseWrapper.getStatusCode();
+		BoundedContentCachingResponseWrapper boundedWrapper =
+				(responseWrapper instanceof BoundedContentCachingResponseWrapper ?
+						(BoundedContentCachingResponseWrapper) responseWrapper : null);
 
 		if (rawResponse.isCommitted()) {
 			responseWrapper.copyBodyToResponse();
 		}
+		else if (boundedWrapper != null && boundedWrapper.isOverflow()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Response content exceeded cache limit [" + this.contentCacheLimit +
+						"], sent without ETag");
+			}
+			responseWrapper.copyBodyToResponse();
+		}
 		else if (isEligibleForEtag(request, responseWrapper, statusCode, responseWrapper.getContentInputStream())) {
-			String responseETag = generateETagHeaderValue(responseWrapper.getContentInputStream(), this.writeWeakETag);
+			String responseETag = (boundedWrapper != null && this.defaultETagGeneration ?
+					boundedWrapper.getETagHeaderValue(this.writeWeakETag) :
+					generateETagHeaderValue(responseWrapper.getContentInputStream(), this.writeWeakETag));
 			rawResponse.setHeader(HEADER_ETAG, responseETag);
 			String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
 			if (requestETag != null && ("*".equals(requestETag) || responseETag.equals(requestETag) ||
@@ -209,9 +258,205 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 			return (useRawResponse() ? getResponse().getWriter() : super.getWriter());
 		}
 
-		private boolean useRawResponse() {
+		protected boolean useRawResponse() {
 			return isContentCachingDisabled(this.request);
 		}
 	}
 
+
+	/**
+	 * 最多缓存给定字节数的响应包装器, 在写入内容时增量计算其MD5哈希.
+	 * 超出限制时, 将缓存的内容写入原始响应, 并将其余内容直接传递到原始响应.
+	 */
+	private static class BoundedContentCachingResponseWrapper extends HttpStreamingAwareContentCachingResponseWrapper {
+
+		private static final char[] HEX_CHARS =
+				{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+		private final int contentCacheLimit;
+
+		private final MessageDigest digest;
+
+		private final ServletOutputStream outputStream = new DigestingServletOutputStream();
+
+		private PrintWriter writer;
+
+		private boolean overflow;
+
+		public BoundedContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int contentCacheLimit) {
+
+			super(response, request);
+			this.contentCacheLimit = contentCacheLimit;
+			try {
+				this.digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			return (useRawResponse() ? getResponse().getOutputStream() : this.outputStream);
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (useRawResponse()) {
+				return getResponse().getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new DigestingPrintWriter(this.outputStream,
+						characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING);
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.overflow) {
+				getResponse().flushBuffer();
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			if (!this.overflow && len > this.contentCacheLimit) {
+				overflow();
+			}
+			if (this.overflow) {
+				getResponse().setContentLength(len);
+			}
+			else {
+				super.setContentLength(len);
+			}
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (len > Integer.MAX_VALUE) {
+				// 由原始响应决定, e.g. 分块传输
+				if (!this.overflow) {
+					overflow();
+				}
+			}
+			else {
+				setContentLength((int) len);
+			}
+		}
+
+		@Override
+		public void setBufferSize(int size) {
+			super.setBufferSize(Math.min(size, this.contentCacheLimit));
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (this.overflow) {
+				getResponse().resetBuffer();
+			}
+			else {
+				super.resetBuffer();
+				this.digest.reset();
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			this.digest.reset();
+		}
+
+		/**
+		 * 内容是否已超出缓存限制并直接传递到原始响应.
+		 */
+		public boolean isOverflow() {
+			return this.overflow;
+		}
+
+		/**
+		 * 从增量计算的哈希生成ETag header值, 与{@link ShallowEtagHeaderFilter#generateETagHeaderValue}相同.
+		 */
+		public String getETagHeaderValue(boolean isWeak) {
+			byte[] hash = this.digest.digest();
+			StringBuilder builder = new StringBuilder(37);
+			if (isWeak) {
+				builder.append("W/");
+			}
+			builder.append("\"0");
+			for (byte b : hash) {
+				builder.append(HEX_CHARS[(b & 0xF0) >>> 4]);
+				builder.append(HEX_CHARS[b & 0x0F]);
+			}
+			builder.append('"');
+			return builder.toString();
+		}
+
+		private void overflow() {
+			this.overflow = true;
+			try {
+				copyBodyToResponse(false);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to write cached content to response", ex);
+			}
+		}
+
+		private void write(byte[] b, int off, int len) throws IOException {
+			if (!this.overflow) {
+				if (getContentSize() + len <= this.contentCacheLimit) {
+					this.digest.update(b, off, len);
+					super.getOutputStream().write(b, off, len);
+					return;
+				}
+				overflow();
+			}
+			getResponse().getOutputStream().write(b, off, len);
+		}
+
+
+		private class DigestingServletOutputStream extends ServletOutputStream {
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				BoundedContentCachingResponseWrapper.this.write(b, off, len);
+			}
+		}
+
+
+		private static class DigestingPrintWriter extends PrintWriter {
+
+			public DigestingPrintWriter(ServletOutputStream outputStream, String characterEncoding)
+					throws UnsupportedEncodingException {
+
+				super(new OutputStreamWriter(outputStream, characterEncoding));
+			}
+
+			@Override
+			public void write(char[] buf, int off, int len) {
+				super.write(buf, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(String s, int off, int len) {
+				super.write(s, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(int c) {
+				super.write(c);
+				super.flush();
+			}
+		}
+	}
+
 }
@@ -92,8 +92,11 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 
 	/**
 	 * 查找支持给定方法参数的已注册{@link HandlerMethodArgumentResolver}.
+	 * <p>可用于预先确定处理器方法的每个参数的解析器, 从而在每个请求中跳过此查找.
+	 *
+	 * @return 支持的解析器, 或{@code null}
 	 */
-	private HandlerMethodArgumentResolver getArgumentResolver(MethodParameter parameter) {
+	public HandlerMethodArgumentResolver getArgumentResolver(MethodParameter parameter) {
 		HandlerMethodArgumentResolver result = this.argumentResolverCache.get(parameter);
 		if (result == null) {
 			for (HandlerMethodArgumentResolver methodArgumentResolver : this.argumentResolvers) {
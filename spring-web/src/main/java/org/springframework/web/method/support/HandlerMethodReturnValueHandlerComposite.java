@@ -37,7 +37,14 @@ public class HandlerMethodReturnValueHandlerComposite implements AsyncHandlerMet
 		return getReturnValueHandler(returnType) != null;
 	}
 
-	private HandlerMethodReturnValueHandler getReturnValueHandler(MethodParameter returnType) {
+	/**
+	 * 查找支持给定返回类型的第一个已注册{@link HandlerMethodReturnValueHandler}.
+	 * <p>对于{@link #isAsyncReturnValue 异步返回值}, {@link #handleReturnValue}只考虑
+	 * {@link AsyncHandlerMethodReturnValueHandler}, 因此结果可能不同.
+	 *
+	 * @return 支持的处理器, 或{@code null}
+	 */
+	public HandlerMethodReturnValueHandler getReturnValueHandler(MethodParameter returnType) {
 		for (HandlerMethodReturnValueHandler handler : this.returnValueHandlers) {
 			if (handler.supportsReturnType(returnType)) {
 				return handler;
@@ -29,6 +29,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private HandlerMethodArgumentResolverComposite argumentResolvers = new HandlerMethodArgumentResolverComposite();
 
+	private HandlerMethodArgumentResolver[] parameterArgumentResolvers;
+
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
 
@@ -70,6 +72,19 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		this.argumentResolvers = argumentResolvers;
 	}
 
+	/**
+	 * 设置为每个方法参数预先确定的{@link HandlerMethodArgumentResolver}, 顺序与{@link #getMethodParameters()}相同.
+	 * <p>对于非{@code null}元素, 直接使用给定的解析器, 跳过通过{@link #setHandlerMethodArgumentResolvers}
+	 * 设置的组合中的查找; {@code null}元素仍然通过组合解析.
+	 */
+	public void setParameterArgumentResolvers(HandlerMethodArgumentResolver[] parameterArgumentResolvers) {
+		if (parameterArgumentResolvers != null && parameterArgumentResolvers.length != getMethodParameters().length) {
+			throw new IllegalArgumentException("Expected " + getMethodParameters().length +
+					" argument resolvers but got " + parameterArgumentResolvers.length);
+		}
+		this.parameterArgumentResolvers = parameterArgumentResolvers;
+	}
+
 	/**
 	 * 设置在需要时解析参数名称的ParameterNameDiscoverer (e.g. 默认请求属性名称).
 	 * <p>默认{@link org.springframework.core.DefaultParameterNameDiscoverer}.
@@ -124,10 +139,13 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			if (args[i] != null) {
 				continue;
 			}
-			if (this.argumentResolvers.supportsParameter(parameter)) {
+			HandlerMethodArgumentResolver resolver =
+					(this.parameterArgumentResolvers != null ? this.parameterArgumentResolvers[i] : null);
+			if (resolver != null || this.argumentResolvers.supportsParameter(parameter)) {
 				try {
-					args[i] = this.argumentResolvers.resolveArgument(
-							parameter, mavContainer, request, this.dataBinderFactory);
+					args[i] = (resolver != null ?
+							resolver.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory) :
+							this.argumentResolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory));
 					continue;
 				}
 				catch (Exception ex) {
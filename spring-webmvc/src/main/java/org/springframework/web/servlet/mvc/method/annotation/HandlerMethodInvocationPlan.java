@@ -0,0 +1,178 @@
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.annotation.SessionAttributesHandler;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * {@link RequestMappingHandlerAdapter}为每个处理器方法预先确定的调用计划:
+ * 每个参数的{@link HandlerMethodArgumentResolver}, 适用的{@code @InitBinder}和{@code @ModelAttribute}方法
+ * (包括来自{@code @ControllerAdvice}的全局方法), 以及{@link SessionAttributesHandler}.
+ *
+ * <p>返回值处理器在第一次调用时按实际返回值类型确定, 并在返回值类型相同的后续调用中重用.
+ *
+ * <p>如果处理器方法不涉及模型初始化, 会话属性或{@code @InitBinder}方法, 则计划是"精简"的:
+ * 调用时可以跳过{@link org.springframework.web.method.annotation.ModelFactory}, 并共享单个
+ * {@link WebDataBinderFactory}, 这适用于典型的{@code @ResponseBody}处理器方法.
+ *
+ * <p>实例在创建后不会更改 (返回值处理器的缓存除外), 因此可以在并发请求之间共享.
+ */
+final class HandlerMethodInvocationPlan {
+
+	private final HandlerMethodArgumentResolver[] argumentResolvers;
+
+	private final Map<ControllerAdviceBean, Set<Method>> initBinderAdviceMethods;
+
+	private final Set<Method> initBinderMethods;
+
+	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceMethods;
+
+	private final Set<Method> modelAttributeMethods;
+
+	private final SessionAttributesHandler sessionAttributesHandler;
+
+	private final HandlerMethodReturnValueHandlerComposite returnValueHandlers;
+
+	private WebDataBinderFactory sharedDataBinderFactory;
+
+	/** 最近一次使用的返回值类型及其处理器 */
+	private volatile ResolvedReturnValueHandler resolvedReturnValueHandler;
+
+
+	HandlerMethodInvocationPlan(HandlerMethodArgumentResolver[] argumentResolvers,
+			Map<ControllerAdviceBean, Set<Method>> initBinderAdviceMethods, Set<Method> initBinderMethods,
+			Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceMethods, Set<Method> modelAttributeMethods,
+			SessionAttributesHandler sessionAttributesHandler, HandlerMethodReturnValueHandlerComposite returnValueHandlers) {
+
+		this.argumentResolvers = argumentResolvers;
+		this.initBinderAdviceMethods = initBinderAdviceMethods;
+		this.initBinderMethods = initBinderMethods;
+		this.modelAttributeAdviceMethods = modelAttributeAdviceMethods;
+		this.modelAttributeMethods = modelAttributeMethods;
+		this.sessionAttributesHandler = sessionAttributesHandler;
+		this.returnValueHandlers = returnValueHandlers;
+	}
+
+
+	/**
+	 * 返回每个方法参数的解析器 (对于不支持的参数, 元素为{@code null}).
+	 */
+	public HandlerMethodArgumentResolver[] getArgumentResolvers() {
+		return this.argumentResolvers;
+	}
+
+	/**
+	 * 返回适用于处理器类型的全局{@code @InitBinder}方法, 按{@code @ControllerAdvice} bean分组.
+	 */
+	public Map<ControllerAdviceBean, Set<Method>> getInitBinderAdviceMethods() {
+		return this.initBinderAdviceMethods;
+	}
+
+	/**
+	 * 返回处理器类型的{@code @InitBinder}方法.
+	 */
+	public Set<Method> getInitBinderMethods() {
+		return this.initBinderMethods;
+	}
+
+	/**
+	 * 返回适用于处理器类型的全局{@code @ModelAttribute}方法, 按{@code @ControllerAdvice} bean分组.
+	 */
+	public Map<ControllerAdviceBean, Set<Method>> getModelAttributeAdviceMethods() {
+		return this.modelAttributeAdviceMethods;
+	}
+
+	/**
+	 * 返回处理器类型的{@code @ModelAttribute}方法.
+	 */
+	public Set<Method> getModelAttributeMethods() {
+		return this.modelAttributeMethods;
+	}
+
+	/**
+	 * 返回处理器类型的{@link SessionAttributesHandler}.
+	 */
+	public SessionAttributesHandler getSessionAttributesHandler() {
+		return this.sessionAttributesHandler;
+	}
+
+	/**
+	 * 处理器方法是否不涉及{@code @InitBinder}方法, {@code @ModelAttribute}方法和会话属性.
+	 */
+	public boolean isModelIndependent() {
+		return (this.initBinderAdviceMethods.isEmpty() && this.initBinderMethods.isEmpty() &&
+				this.modelAttributeAdviceMethods.isEmpty() && this.modelAttributeMethods.isEmpty() &&
+				!this.sessionAttributesHandler.hasSessionAttributes());
+	}
+
+	/**
+	 * 设置所有请求共享的{@link WebDataBinderFactory}, 仅适用于{@link #isModelIndependent() 不涉及模型}的处理器方法.
+	 */
+	public void setSharedDataBinderFactory(WebDataBinderFactory sharedDataBinderFactory) {
+		this.sharedDataBinderFactory = sharedDataBinderFactory;
+	}
+
+	/**
+	 * 返回所有请求共享的{@link WebDataBinderFactory}, 如果计划不是精简的, 则返回{@code null}.
+	 */
+	public WebDataBinderFactory getSharedDataBinderFactory() {
+		return this.sharedDataBinderFactory;
+	}
+
+	/**
+	 * 是否可以通过精简路径调用处理器方法, 跳过模型初始化和更新.
+	 */
+	public boolean isLean() {
+		return (this.sharedDataBinderFactory != null);
+	}
+
+
+	/**
+	 * 通过支持的返回值处理器处理给定的返回值.
+	 * <p>异步返回值始终委托给{@link HandlerMethodReturnValueHandlerComposite}.
+	 * 否则, 处理器只取决于返回值类型, 因此对于与上一次调用相同的返回值类型, 重用上一次的处理器.
+	 */
+	public void handleReturnValue(Object returnValue, MethodParameter returnType,
+			ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+
+		if (this.returnValueHandlers.isAsyncReturnValue(returnValue, returnType)) {
+			this.returnValueHandlers.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+			return;
+		}
+		Class<?> type = returnType.getParameterType();
+		ResolvedReturnValueHandler resolved = this.resolvedReturnValueHandler;
+		if (resolved == null || resolved.type != type) {
+			HandlerMethodReturnValueHandler handler = this.returnValueHandlers.getReturnValueHandler(returnType);
+			if (handler == null) {
+				throw new IllegalArgumentException("Unknown return value type: " + type.getName());
+			}
+			resolved = new ResolvedReturnValueHandler(type, handler);
+			this.resolvedReturnValueHandler = resolved;
+		}
+		resolved.handler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+	}
+
+
+	private static class ResolvedReturnValueHandler {
+
+		final Class<?> type;
+
+		final HandlerMethodReturnValueHandler handler;
+
+		ResolvedReturnValueHandler(Class<?> type, HandlerMethodReturnValueHandler handler) {
+			this.type = type;
+			this.handler = handler;
+		}
+	}
+
+}
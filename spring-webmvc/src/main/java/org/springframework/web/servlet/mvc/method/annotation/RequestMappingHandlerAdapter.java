@@ -2,6 +2,7 @@ package org.springframework.web.servlet.mvc.method.annotation;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +21,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.annotation.AnnotationUtils;
@@ -168,6 +170,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache =
 			new LinkedHashMap<ControllerAdviceBean, Set<Method>>();
 
+	private final Map<HandlerMethod, HandlerMethodInvocationPlan> invocationPlanCache =
+			new ConcurrentHashMap<HandlerMethod, HandlerMethodInvocationPlan>(256);
+
 
 	public RequestMappingHandlerAdapter() {
 		StringHttpMessageConverter stringHttpMessageConverter = new StringHttpMessageConverter();
@@ -689,7 +694,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		}
 
 		if (!response.containsHeader(HEADER_CACHE_CONTROL)) {
-			if (getSessionAttributesHandler(handlerMethod).hasSessionAttributes()) {
+			if (getInvocationPlan(handlerMethod).getSessionAttributesHandler().hasSessionAttributes()) {
 				applyCacheSeconds(response, this.cacheSecondsForSessionAttributeHandlers);
 			}
 			else {
@@ -737,18 +742,31 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 		ServletWebRequest webRequest = new ServletWebRequest(request, response);
 		try {
-			WebDataBinderFactory binderFactory = getDataBinderFactory(handlerMethod);
-			ModelFactory modelFactory = getModelFactory(handlerMethod, binderFactory);
+			HandlerMethodInvocationPlan plan = getInvocationPlan(handlerMethod);
+			WebDataBinderFactory binderFactory;
+			ModelFactory modelFactory;
+			if (plan.isLean()) {
+				// 不涉及模型, 会话属性和@InitBinder方法: 跳过ModelFactory
+				binderFactory = plan.getSharedDataBinderFactory();
+				modelFactory = null;
+			}
+			else {
+				binderFactory = getDataBinderFactory(handlerMethod, plan);
+				modelFactory = getModelFactory(handlerMethod, plan, binderFactory);
+			}
 
 			ServletInvocableHandlerMethod invocableMethod = createInvocableHandlerMethod(handlerMethod);
 			invocableMethod.setHandlerMethodArgumentResolvers(this.argumentResolvers);
 			invocableMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
+			invocableMethod.setInvocationPlan(plan);
 			invocableMethod.setDataBinderFactory(binderFactory);
 			invocableMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
 
 			ModelAndViewContainer mavContainer = new ModelAndViewContainer();
 			mavContainer.addAllAttributes(RequestContextUtils.getInputFlashMap(request));
-			modelFactory.initModel(webRequest, mavContainer, invocableMethod);
+			if (modelFactory != null) {
+				modelFactory.initModel(webRequest, mavContainer, invocableMethod);
+			}
 			mavContainer.setIgnoreDefaultModelOnRedirect(this.ignoreDefaultModelOnRedirect);
 
 			AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, response);
@@ -775,6 +793,12 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 				return null;
 			}
 
+			if (modelFactory == null) {
+				if (mavContainer.isRequestHandled()) {
+					return null;
+				}
+				modelFactory = new ModelFactory(null, binderFactory, plan.getSessionAttributesHandler());
+			}
 			return getModelAndView(mavContainer, modelFactory, webRequest);
 		}
 		finally {
@@ -793,29 +817,81 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return new ServletInvocableHandlerMethod(handlerMethod);
 	}
 
-	private ModelFactory getModelFactory(HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
-		SessionAttributesHandler sessionAttrHandler = getSessionAttributesHandler(handlerMethod);
+	/**
+	 * 返回给定处理器方法的调用计划, 在第一次调用时创建.
+	 */
+	private HandlerMethodInvocationPlan getInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		// 按注册的处理器方法缓存, 而不是每个请求解析的bean实例
+		HandlerMethod key = (handlerMethod.getResolvedFromHandlerMethod() != null ?
+				handlerMethod.getResolvedFromHandlerMethod() : handlerMethod);
+		HandlerMethodInvocationPlan plan = this.invocationPlanCache.get(key);
+		if (plan == null) {
+			plan = createInvocationPlan(handlerMethod);
+			this.invocationPlanCache.put(key, plan);
+		}
+		return plan;
+	}
+
+	private HandlerMethodInvocationPlan createInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		MethodParameter[] parameters = handlerMethod.getMethodParameters();
+		HandlerMethodArgumentResolver[] resolvers = new HandlerMethodArgumentResolver[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			parameters[i].initParameterNameDiscovery(this.parameterNameDiscoverer);
+			resolvers[i] = this.argumentResolvers.getArgumentResolver(parameters[i]);
+		}
+
 		Class<?> handlerType = handlerMethod.getBeanType();
-		Set<Method> methods = this.modelAttributeCache.get(handlerType);
-		if (methods == null) {
-			methods = MethodIntrospector.selectMethods(handlerType, MODEL_ATTRIBUTE_METHODS);
-			this.modelAttributeCache.put(handlerType, methods);
+		Set<Method> binderMethods = this.initBinderCache.get(handlerType);
+		if (binderMethods == null) {
+			binderMethods = MethodIntrospector.selectMethods(handlerType, INIT_BINDER_METHODS);
+			this.initBinderCache.put(handlerType, binderMethods);
+		}
+		Set<Method> attrMethods = this.modelAttributeCache.get(handlerType);
+		if (attrMethods == null) {
+			attrMethods = MethodIntrospector.selectMethods(handlerType, MODEL_ATTRIBUTE_METHODS);
+			this.modelAttributeCache.put(handlerType, attrMethods);
+		}
+
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(resolvers,
+				getApplicableAdviceMethods(this.initBinderAdviceCache, handlerType), binderMethods,
+				getApplicableAdviceMethods(this.modelAttributeAdviceCache, handlerType), attrMethods,
+				getSessionAttributesHandler(handlerMethod), this.returnValueHandlers);
+		if (plan.isModelIndependent()) {
+			// 没有@InitBinder方法, 因此数据绑定器工厂不依赖于请求或处理器bean实例
+			plan.setSharedDataBinderFactory(
+					createDataBinderFactory(Collections.<InvocableHandlerMethod>emptyList()));
 		}
+		return plan;
+	}
+
+	private Map<ControllerAdviceBean, Set<Method>> getApplicableAdviceMethods(
+			Map<ControllerAdviceBean, Set<Method>> adviceCache, Class<?> handlerType) {
+
+		Map<ControllerAdviceBean, Set<Method>> result = new LinkedHashMap<ControllerAdviceBean, Set<Method>>();
+		for (Entry<ControllerAdviceBean, Set<Method>> entry : adviceCache.entrySet()) {
+			if (entry.getKey().isApplicableToBeanType(handlerType)) {
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private ModelFactory getModelFactory(HandlerMethod handlerMethod, HandlerMethodInvocationPlan plan,
+			WebDataBinderFactory binderFactory) {
+
 		List<InvocableHandlerMethod> attrMethods = new ArrayList<InvocableHandlerMethod>();
 		// Global methods first
-		for (Entry<ControllerAdviceBean, Set<Method>> entry : this.modelAttributeAdviceCache.entrySet()) {
-			if (entry.getKey().isApplicableToBeanType(handlerType)) {
-				Object bean = entry.getKey().resolveBean();
-				for (Method method : entry.getValue()) {
-					attrMethods.add(createModelAttributeMethod(binderFactory, bean, method));
-				}
+		for (Entry<ControllerAdviceBean, Set<Method>> entry : plan.getModelAttributeAdviceMethods().entrySet()) {
+			Object bean = entry.getKey().resolveBean();
+			for (Method method : entry.getValue()) {
+				attrMethods.add(createModelAttributeMethod(binderFactory, bean, method));
 			}
 		}
-		for (Method method : methods) {
+		for (Method method : plan.getModelAttributeMethods()) {
 			Object bean = handlerMethod.getBean();
 			attrMethods.add(createModelAttributeMethod(binderFactory, bean, method));
 		}
-		return new ModelFactory(attrMethods, binderFactory, sessionAttrHandler);
+		return new ModelFactory(attrMethods, binderFactory, plan.getSessionAttributesHandler());
 	}
 
 	private InvocableHandlerMethod createModelAttributeMethod(WebDataBinderFactory factory, Object bean, Method method) {
@@ -826,24 +902,18 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return attrMethod;
 	}
 
-	private WebDataBinderFactory getDataBinderFactory(HandlerMethod handlerMethod) throws Exception {
-		Class<?> handlerType = handlerMethod.getBeanType();
-		Set<Method> methods = this.initBinderCache.get(handlerType);
-		if (methods == null) {
-			methods = MethodIntrospector.selectMethods(handlerType, INIT_BINDER_METHODS);
-			this.initBinderCache.put(handlerType, methods);
-		}
+	private WebDataBinderFactory getDataBinderFactory(HandlerMethod handlerMethod, HandlerMethodInvocationPlan plan)
+			throws Exception {
+
 		List<InvocableHandlerMethod> initBinderMethods = new ArrayList<InvocableHandlerMethod>();
 		// Global methods first
-		for (Entry<ControllerAdviceBean, Set<Method>> entry : this.initBinderAdviceCache.entrySet()) {
-			if (entry.getKey().isApplicableToBeanType(handlerType)) {
-				Object bean = entry.getKey().resolveBean();
-				for (Method method : entry.getValue()) {
-					initBinderMethods.add(createInitBinderMethod(bean, method));
-				}
+		for (Entry<ControllerAdviceBean, Set<Method>> entry : plan.getInitBinderAdviceMethods().entrySet()) {
+			Object bean = entry.getKey().resolveBean();
+			for (Method method : entry.getValue()) {
+				initBinderMethods.add(createInitBinderMethod(bean, method));
 			}
 		}
-		for (Method method : methods) {
+		for (Method method : plan.getInitBinderMethods()) {
 			Object bean = handlerMethod.getBean();
 			initBinderMethods.add(createInitBinderMethod(bean, method));
 		}
@@ -35,6 +35,8 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 
 	private HandlerMethodReturnValueHandlerComposite returnValueHandlers;
 
+	private HandlerMethodInvocationPlan invocationPlan;
+
 
 	public ServletInvocableHandlerMethod(Object handler, Method method) {
 		super(handler, method);
@@ -52,6 +54,14 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 		this.returnValueHandlers = returnValueHandlers;
 	}
 
+	/**
+	 * 设置此处理器方法的调用计划, 提供预先确定的参数解析器和返回值处理器.
+	 */
+	void setInvocationPlan(HandlerMethodInvocationPlan invocationPlan) {
+		this.invocationPlan = invocationPlan;
+		setParameterArgumentResolvers(invocationPlan != null ? invocationPlan.getArgumentResolvers() : null);
+	}
+
 
 	/**
 	 * 调用该方法并通过其中一个配置的{@link HandlerMethodReturnValueHandler}处理返回值.
@@ -79,8 +89,14 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 
 		mavContainer.setRequestHandled(false);
 		try {
-			this.returnValueHandlers.handleReturnValue(
-					returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			if (this.invocationPlan != null) {
+				this.invocationPlan.handleReturnValue(
+						returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			}
+			else {
+				this.returnValueHandlers.handleReturnValue(
+						returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			}
 		}
 		catch (Exception ex) {
 			if (logger.isTraceEnabled()) {
@@ -10,11 +10,15 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * {@link org.springframework.web.servlet.resource.ResourceTransformer},
  * 它检查{@link org.springframework.cache.Cache}以查看先前转换的资源是否存在于缓存中, 如果找到就返回它,
  * 否则委托给解析器链并将结果保存在缓存中.
+ *
+ * <p>{@link CompressingResourceTransformer}处理的可压缩资源的结果 (压缩的或未压缩的) 取决于请求的
+ * "Accept-Encoding" header, 因此按资源和协商的内容编码分别缓存, 每个编码一个条目.
  */
 public class CachingResourceTransformer implements ResourceTransformer {
 
@@ -45,15 +49,45 @@ public class CachingResourceTransformer implements ResourceTransformer {
 	public Resource transform(HttpServletRequest request, Resource resource, ResourceTransformerChain transformerChain)
 			throws IOException {
 
-		Resource transformed = this.cache.get(resource, Resource.class);
-		if (transformed != null) {
+		Cache.ValueWrapper wrapper = this.cache.get(resource);
+		Object cached = (wrapper != null ? wrapper.get() : null);
+		if (cached instanceof CodingVariants) {
+			CompressingResourceTransformer compressor = ((CodingVariants) cached).compressor;
+			if (request != null) {
+				request.setAttribute(CompressingResourceTransformer.COMPRESSIBLE_RESOURCE_ATTRIBUTE, compressor);
+			}
+			String coding = (request != null ? compressor.getAcceptedCoding(request) : null);
+			cached = this.cache.get(new CodingVariantKey(resource, coding), Resource.class);
+			if (cached instanceof CompressingResourceTransformer.CompressedResource &&
+					!((CompressingResourceTransformer.CompressedResource) cached).isCached()) {
+				// 压缩后的内容已从压缩转换器的缓存中移除
+				cached = null;
+			}
+		}
+		if (cached instanceof Resource) {
 			if (logger.isTraceEnabled()) {
-				logger.trace("Found match: " + transformed);
+				logger.trace("Found match: " + cached);
 			}
-			return transformed;
+			return (Resource) cached;
 		}
 
-		transformed = transformerChain.transform(request, resource);
+		Resource transformed = transformerChain.transform(request, resource);
+
+		Object compressor = (request != null ?
+				request.getAttribute(CompressingResourceTransformer.COMPRESSIBLE_RESOURCE_ATTRIBUTE) : null);
+		if (compressor instanceof CompressingResourceTransformer) {
+			// 可压缩资源的结果取决于请求的"Accept-Encoding" header, 因此按协商的内容编码缓存
+			String coding = (transformed instanceof CompressingResourceTransformer.CompressedResource ?
+					((CompressingResourceTransformer.CompressedResource) transformed).getContentEncoding() : null);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Putting transformed resource in cache for coding [" + coding + "]: " + transformed);
+			}
+			this.cache.put(new CodingVariantKey(resource, coding), transformed);
+			if (!(wrapper != null && wrapper.get() instanceof CodingVariants)) {
+				this.cache.put(resource, new CodingVariants((CompressingResourceTransformer) compressor));
+			}
+			return transformed;
+		}
 
 		if (logger.isTraceEnabled()) {
 			logger.trace("Putting transformed resource in cache: " + transformed);
@@ -62,4 +96,51 @@ public class CachingResourceTransformer implements ResourceTransformer {
 
 		return transformed;
 	}
+
+
+	/**
+	 * 可压缩资源在缓存中的标记, 保存用于协商内容编码的转换器.
+	 */
+	private static class CodingVariants {
+
+		private final CompressingResourceTransformer compressor;
+
+		public CodingVariants(CompressingResourceTransformer compressor) {
+			this.compressor = compressor;
+		}
+	}
+
+
+	/**
+	 * 可压缩资源的一个编码变体的缓存键.
+	 */
+	private static class CodingVariantKey {
+
+		private final Resource resource;
+
+		private final String coding;
+
+		public CodingVariantKey(Resource resource, String coding) {
+			this.resource = resource;
+			this.coding = coding;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof CodingVariantKey)) {
+				return false;
+			}
+			CodingVariantKey otherKey = (CodingVariantKey) other;
+			return (this.resource.equals(otherKey.resource) &&
+					ObjectUtils.nullSafeEquals(this.coding, otherKey.coding));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.resource.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.coding);
+		}
+	}
 }
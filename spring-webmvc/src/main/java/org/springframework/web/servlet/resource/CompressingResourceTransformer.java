@@ -0,0 +1,525 @@
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 一个{@link ResourceTransformer}实现, 它根据"Accept-Encoding"请求header在首次访问时压缩资源内容,
+ * 并缓存压缩后的内容, 以便后续请求不再重复压缩.
+ *
+ * <p>支持"gzip"和"deflate"内容编码, 按{@link #setContentCodings 配置的顺序}选择客户端接受的第一个编码.
+ * 只压缩具有{@link #setCompressibleExtensions 可压缩扩展名}的资源, 以及不是已编码的资源
+ * (e.g. 由{@link GzipResourceResolver}解析的预压缩资源).
+ *
+ * <p>压缩后的内容按资源内容 (对于内存中的转换后的资源, 为内容的MD5哈希; 否则为资源的位置, 最后修改时间和长度)
+ * 和内容编码缓存, 总大小不超过{@link #setCacheSizeLimit 缓存大小限制}, 超出时移除最近最少使用的条目.
+ * 默认缓存在内存中; 如果设置了{@link #setCacheDirectory 缓存目录}, 则写入该目录中的文件,
+ * 这样也可以通过{@link ResourceHttpRequestHandler#setUseFileChannelTransfer 文件传输}发送.
+ *
+ * <p>压缩后的资源是{@link EncodedResource}, 因此{@link ResourceHttpRequestHandler}会设置
+ * "Content-Encoding"和"Vary: Accept-Encoding" header. 对于未压缩的可压缩资源 (客户端不接受任何配置的编码),
+ * 同样设置"Vary: Accept-Encoding" header, 并且{@link CachingResourceTransformer}按协商的内容编码分别缓存可压缩资源的转换结果.
+ *
+ * <p>此转换器应该是链中的第一个转换器, 以便压缩其他转换器 (e.g. {@link CssLinkResourceTransformer})的最终结果.
+ */
+public class CompressingResourceTransformer implements ResourceTransformer {
+
+	/** 默认的缓存大小限制: 10 MB */
+	public static final long DEFAULT_CACHE_SIZE_LIMIT = 10 * 1024 * 1024;
+
+	/**
+	 * 请求属性的名称, 表示此转换器处理了可压缩的资源, 因此响应取决于"Accept-Encoding" header,
+	 * 即使内容没有被压缩. 属性值是处理该资源的转换器, 以便{@link CachingResourceTransformer}协商内容编码.
+	 */
+	static final String COMPRESSIBLE_RESOURCE_ATTRIBUTE =
+			CompressingResourceTransformer.class.getName() + ".COMPRESSIBLE_RESOURCE";
+
+	private static final Log logger = LogFactory.getLog(CompressingResourceTransformer.class);
+
+
+	private List<String> contentCodings = Arrays.asList("gzip", "deflate");
+
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private Set<String> compressibleExtensions = new HashSet<String>(Arrays.asList(
+			"css", "js", "json", "map", "html", "htm", "xml", "svg", "txt", "csv", "ico"));
+
+	private long minContentLength = 1024;
+
+	private long cacheSizeLimit = DEFAULT_CACHE_SIZE_LIMIT;
+
+	private File cacheDirectory;
+
+	/** 缓存的压缩内容, 按访问顺序 */
+	private final Map<String, CompressedContent> cache = new LinkedHashMap<String, CompressedContent>(64, 0.75f, true);
+
+	/** 缓存内容的总大小, 由缓存同步 */
+	private long cacheSize = 0;
+
+
+	/**
+	 * 设置支持的内容编码, 按优先顺序. 支持"gzip"和"deflate".
+	 * <p>默认 "gzip", "deflate".
+	 */
+	public void setContentCodings(List<String> contentCodings) {
+		Assert.notEmpty(contentCodings, "At least one content coding expected");
+		for (String coding : contentCodings) {
+			Assert.isTrue("gzip".equals(coding) || "deflate".equals(coding), "Unsupported content coding: " + coding);
+		}
+		this.contentCodings = new ArrayList<String>(contentCodings);
+	}
+
+	/**
+	 * 返回支持的内容编码, 按优先顺序.
+	 */
+	public List<String> getContentCodings() {
+		return Collections.unmodifiableList(this.contentCodings);
+	}
+
+	/**
+	 * 设置压缩级别 (0-9), 参见{@link Deflater}.
+	 * <p>默认{@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		Assert.isTrue((compressionLevel >= 0 && compressionLevel <= 9) ||
+				compressionLevel == Deflater.DEFAULT_COMPRESSION, "Invalid compression level: " + compressionLevel);
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * 返回压缩级别.
+	 */
+	public int getCompressionLevel() {
+		return this.compressionLevel;
+	}
+
+	/**
+	 * 设置要压缩的资源的文件扩展名.
+	 * <p>默认包括常见的文本格式, 例如"css", "js", "json", "html", "svg".
+	 */
+	public void setCompressibleExtensions(Set<String> compressibleExtensions) {
+		Assert.notNull(compressibleExtensions, "Extensions must not be null");
+		this.compressibleExtensions = new HashSet<String>();
+		for (String extension : compressibleExtensions) {
+			this.compressibleExtensions.add(extension.toLowerCase(Locale.ENGLISH));
+		}
+	}
+
+	/**
+	 * 返回要压缩的资源的文件扩展名.
+	 */
+	public Set<String> getCompressibleExtensions() {
+		return Collections.unmodifiableSet(this.compressibleExtensions);
+	}
+
+	/**
+	 * 设置要压缩的资源的最小长度, 较小的资源按原样提供.
+	 * <p>默认 1024.
+	 */
+	public void setMinContentLength(long minContentLength) {
+		this.minContentLength = minContentLength;
+	}
+
+	/**
+	 * 返回要压缩的资源的最小长度.
+	 */
+	public long getMinContentLength() {
+		return this.minContentLength;
+	}
+
+	/**
+	 * 设置缓存的压缩内容的最大总大小 (以字节为单位). 大于此值的资源按原样提供.
+	 * <p>默认 10 MB.
+	 */
+	public void setCacheSizeLimit(long cacheSizeLimit) {
+		this.cacheSizeLimit = cacheSizeLimit;
+	}
+
+	/**
+	 * 返回缓存的压缩内容的最大总大小.
+	 */
+	public long getCacheSizeLimit() {
+		return this.cacheSizeLimit;
+	}
+
+	/**
+	 * 设置用于缓存压缩内容的目录. 目录中的文件名由缓存键派生, 因此重新启动后可以重用现有的文件.
+	 * 从缓存中移除的条目的文件将被删除, 但不会删除以前运行中留下的且不再访问的文件.
+	 * <p>默认未设置, 压缩内容缓存在内存中.
+	 */
+	public void setCacheDirectory(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * 返回用于缓存压缩内容的目录.
+	 */
+	public File getCacheDirectory() {
+		return this.cacheDirectory;
+	}
+
+
+	@Override
+	public Resource transform(HttpServletRequest request, Resource resource, ResourceTransformerChain transformerChain)
+			throws IOException {
+
+		resource = transformerChain.transform(request, resource);
+		if (request == null || !isCompressible(resource)) {
+			return resource;
+		}
+		request.setAttribute(COMPRESSIBLE_RESOURCE_ATTRIBUTE, this);
+		String coding = getAcceptedCoding(request);
+		if (coding == null) {
+			return resource;
+		}
+
+		String key = getCacheKey(resource, coding);
+		CompressedContent content = getCachedContent(key);
+		if (content == null) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Compressing resource with " + coding + ": " + resource);
+			}
+			content = compress(resource, coding, key);
+			putCachedContent(key, content);
+		}
+		return (resource instanceof VersionedResource ?
+				new VersionedCompressedResource((VersionedResource) resource, content, coding) :
+				new CompressedResource(resource, content, coding));
+	}
+
+	/**
+	 * 是否应该压缩给定的资源.
+	 */
+	protected boolean isCompressible(Resource resource) throws IOException {
+		if (resource instanceof EncodedResource) {
+			return false;
+		}
+		String extension = StringUtils.getFilenameExtension(resource.getFilename());
+		if (extension == null || !this.compressibleExtensions.contains(extension.toLowerCase(Locale.ENGLISH))) {
+			return false;
+		}
+		long length = resource.contentLength();
+		return (length >= this.minContentLength && length <= this.cacheSizeLimit);
+	}
+
+	/**
+	 * 从"Accept-Encoding" header中确定要使用的内容编码.
+	 *
+	 * @return 内容编码, 或{@code null} 如果客户端不接受任何支持的编码
+	 */
+	protected String getAcceptedCoding(HttpServletRequest request) {
+		String header = request.getHeader("Accept-Encoding");
+		if (!StringUtils.hasText(header)) {
+			return null;
+		}
+		Set<String> accepted = new HashSet<String>(4);
+		Set<String> rejected = new HashSet<String>(4);
+		for (String token : StringUtils.tokenizeToStringArray(header, ",")) {
+			int index = token.indexOf(';');
+			String coding = (index >= 0 ? token.substring(0, index).trim() : token).toLowerCase(Locale.ENGLISH);
+			if (index >= 0 && isZeroQuality(token.substring(index + 1))) {
+				rejected.add(coding);
+			}
+			else {
+				accepted.add(coding);
+			}
+		}
+		for (String coding : this.contentCodings) {
+			if (accepted.contains(coding) ||
+					(accepted.contains("*") && !rejected.contains(coding))) {
+				return coding;
+			}
+		}
+		return null;
+	}
+
+	private boolean isZeroQuality(String params) {
+		for (String param : StringUtils.tokenizeToStringArray(params, ";")) {
+			if (param.startsWith("q=")) {
+				try {
+					return (Double.parseDouble(param.substring(2)) == 0);
+				}
+				catch (NumberFormatException ex) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private String getCacheKey(Resource resource, String coding) throws IOException {
+		StringBuilder key = new StringBuilder(coding).append(':');
+		if (resource instanceof ByteArrayResource) {
+			key.append(DigestUtils.md5DigestAsHex(((ByteArrayResource) resource).getByteArray()));
+		}
+		else {
+			key.append(resource.getDescription());
+			key.append('@').append(resource.lastModified());
+			key.append('/').append(resource.contentLength());
+		}
+		return key.toString();
+	}
+
+
+	private CompressedContent getCachedContent(String key) {
+		synchronized (this.cache) {
+			return this.cache.get(key);
+		}
+	}
+
+	private void putCachedContent(String key, CompressedContent content) {
+		List<CompressedContent> evicted = new ArrayList<CompressedContent>(2);
+		synchronized (this.cache) {
+			CompressedContent previous = this.cache.put(key, content);
+			if (previous != null) {
+				this.cacheSize -= previous.length;
+				if (previous.file != null && !previous.file.equals(content.file)) {
+					evicted.add(previous);
+				}
+			}
+			this.cacheSize += content.length;
+			Iterator<CompressedContent> it = this.cache.values().iterator();
+			while (this.cacheSize > this.cacheSizeLimit && it.hasNext()) {
+				CompressedContent eldest = it.next();
+				if (eldest == content) {
+					continue;
+				}
+				it.remove();
+				this.cacheSize -= eldest.length;
+				evicted.add(eldest);
+			}
+		}
+		for (CompressedContent entry : evicted) {
+			entry.evicted = true;
+			if (entry.file != null && !entry.file.delete() && logger.isDebugEnabled()) {
+				logger.debug("Could not delete cached compressed content: " + entry.file);
+			}
+		}
+	}
+
+	private CompressedContent compress(Resource resource, String coding, String key) throws IOException {
+		if (this.cacheDirectory != null) {
+			File file = new File(this.cacheDirectory, DigestUtils.md5DigestAsHex(key.getBytes("UTF-8")) + "." + coding);
+			if (!file.isFile()) {
+				// 先写入临时文件, 以便并发请求或重新启动永远不会看到不完整的内容
+				File tempFile = File.createTempFile("compress", ".tmp", this.cacheDirectory);
+				try {
+					compress(resource.getInputStream(), new FileOutputStream(tempFile), coding);
+					if (!tempFile.renameTo(file) && !file.isFile()) {
+						throw new IOException("Could not store compressed content in " + file);
+					}
+				}
+				finally {
+					tempFile.delete();
+				}
+			}
+			return new CompressedContent(null, file, file.length());
+		}
+		FastByteArrayOutputStream out = new FastByteArrayOutputStream((int) Math.min(resource.contentLength(), 4096));
+		compress(resource.getInputStream(), out, coding);
+		byte[] bytes = out.toByteArrayUnsafe();
+		return new CompressedContent(bytes, null, bytes.length);
+	}
+
+	/**
+	 * 将给定输入流的内容压缩到给定的输出流, 完成后关闭两个流.
+	 */
+	private void compress(InputStream in, OutputStream out, String coding) throws IOException {
+		Deflater deflater = null;
+		try {
+			DeflaterOutputStream compressor;
+			if ("gzip".equals(coding)) {
+				compressor = new LeveledGZIPOutputStream(out, this.compressionLevel);
+			}
+			else {
+				deflater = new Deflater(this.compressionLevel);
+				compressor = new DeflaterOutputStream(out, deflater);
+			}
+			try {
+				StreamUtils.copy(in, compressor);
+			}
+			finally {
+				compressor.close();
+			}
+		}
+		finally {
+			in.close();
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+	}
+
+
+	/**
+	 * 使用给定压缩级别的{@link GZIPOutputStream}.
+	 */
+	private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+		public LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+			super(out);
+			this.def.setLevel(level);
+		}
+	}
+
+
+	/**
+	 * 缓存的压缩内容, 在内存中或在文件中.
+	 */
+	private static class CompressedContent {
+
+		final byte[] bytes;
+
+		final File file;
+
+		final long length;
+
+		/** 从缓存中移除后, 文件可能已被删除 */
+		volatile boolean evicted;
+
+		CompressedContent(byte[] bytes, File file, long length) {
+			this.bytes = bytes;
+			this.file = file;
+			this.length = length;
+		}
+	}
+
+
+	/**
+	 * 压缩后的资源, 保留原始资源的文件名和最后修改时间.
+	 */
+	static class CompressedResource extends AbstractResource implements EncodedResource {
+
+		private final Resource original;
+
+		private final CompressedContent content;
+
+		private final String coding;
+
+		CompressedResource(Resource original, CompressedContent content, String coding) {
+			this.original = original;
+			this.content = content;
+			this.coding = coding;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return (this.content.file != null ?
+					new FileInputStream(this.content.file) : new ByteArrayInputStream(this.content.bytes));
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public URL getURL() throws IOException {
+			return this.original.getURL();
+		}
+
+		@Override
+		public URI getURI() throws IOException {
+			return this.original.getURI();
+		}
+
+		@Override
+		public File getFile() throws IOException {
+			if (this.content.file == null) {
+				throw new FileNotFoundException(getDescription() + " is held in memory");
+			}
+			return this.content.file;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.content.length;
+		}
+
+		@Override
+		public long lastModified() throws IOException {
+			return this.original.lastModified();
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.coding + " compressed " + this.original.getDescription();
+		}
+
+		@Override
+		public String getContentEncoding() {
+			return this.coding;
+		}
+
+		/**
+		 * 压缩后的内容是否仍在转换器的缓存中, 即是否可以由其他缓存继续使用.
+		 */
+		boolean isCached() {
+			return !this.content.evicted;
+		}
+	}
+
+
+	/**
+	 * 保留原始资源版本的压缩后的资源.
+	 */
+	private static class VersionedCompressedResource extends CompressedResource implements VersionedResource {
+
+		private final String version;
+
+		VersionedCompressedResource(VersionedResource original, CompressedContent content, String coding) {
+			super(original, content, coding);
+			this.version = original.getVersion();
+		}
+
+		@Override
+		public String getVersion() {
+			return this.version;
+		}
+	}
+
+}
@@ -0,0 +1,321 @@
+package org.springframework.web.servlet.resource;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link ContentVersionStrategy}计算的内容版本的清单, 按资源的长度 (对于基于文件的清单, 还有最后修改时间) 验证,
+ * 以便在资源未更改时, 无需读取资源内容即可确定其版本.
+ *
+ * <p>清单是一个UTF-8文本文件, 每行一个条目, 字段之间用制表符分隔:
+ * 资源描述 ({@link Resource#getDescription()}), 最后修改时间, 长度, 版本.
+ * 以{@code #}开头的行和格式不正确的行将被忽略; 同一资源的多个条目中, 最后一个有效.
+ *
+ * <p>清单可以通过两种方式使用:
+ * <ul>
+ * <li>使用{@link #ContentVersionManifest(File)}, 在首次计算版本时将条目追加到文件中,
+ * 因此在重新启动之后, 未更改的资源不需要再次计算哈希.
+ * <li>使用{@link #ContentVersionManifest(Resource)}, 读取在构建时通过{@link #writeManifest}生成的只读清单.
+ * 打包到jar或WAR中的资源的最后修改时间与构建时不同, 因此只读清单的条目仅按长度验证.
+ * 不在清单中或长度不同的资源的版本仍会在运行时计算, 但不会写入.
+ * </ul>
+ *
+ * <p>由于条目按资源描述进行匹配, 因此预先计算的清单适用于描述不依赖于部署位置的资源,
+ * 例如类路径和{@code ServletContext}资源.
+ */
+public class ContentVersionManifest {
+
+	private static final String COMMENT_PREFIX = "#";
+
+	private static final String SEPARATOR = "\t";
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final Log logger = LogFactory.getLog(ContentVersionManifest.class);
+
+
+	/** 资源描述 -> 条目 */
+	private final Map<String, ManifestEntry> entries = new ConcurrentHashMap<String, ManifestEntry>(256);
+
+	private final File file;
+
+	private final Object writeMonitor = new Object();
+
+
+	/**
+	 * 使用给定的文件创建清单, 读取其中已有的条目, 并将新计算的版本追加到该文件.
+	 * 如果文件不存在, 则在需要时创建.
+	 *
+	 * @param file 清单文件
+	 */
+	public ContentVersionManifest(File file) {
+		Assert.notNull(file, "File must not be null");
+		this.file = file;
+		if (file.isFile()) {
+			int lines = load(new FileSystemResource(file));
+			if (lines > this.entries.size() * 2) {
+				compact();
+			}
+		}
+	}
+
+	/**
+	 * 从给定位置读取只读清单, e.g. 构建时预先计算的清单.
+	 * 如果资源不存在, 清单为空.
+	 *
+	 * @param resource 清单的位置
+	 */
+	public ContentVersionManifest(Resource resource) {
+		Assert.notNull(resource, "Resource must not be null");
+		this.file = null;
+		if (resource.exists()) {
+			load(resource);
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("Content version manifest not found: " + resource);
+		}
+	}
+
+
+	/**
+	 * 返回给定资源记录的版本, 如果没有条目, 或资源的长度与条目不匹配, 则返回{@code null}.
+	 * 对于基于文件的清单, 最后修改时间也必须匹配.
+	 */
+	public String getVersion(Resource resource) {
+		ManifestEntry entry = this.entries.get(resource.getDescription());
+		if (entry == null) {
+			return null;
+		}
+		try {
+			if (entry.length == resource.contentLength() &&
+					(this.file == null || entry.lastModified == resource.lastModified())) {
+				return entry.version;
+			}
+		}
+		catch (IOException ex) {
+			// 无法确定最后修改时间或长度 -> 视为已更改
+		}
+		return null;
+	}
+
+	/**
+	 * 记录给定资源的版本.
+	 * 如果无法确定资源的最后修改时间或长度, 则不记录版本.
+	 *
+	 * @param resource 资源
+	 * @param version 资源的当前版本
+	 */
+	public void putVersion(Resource resource, String version) {
+		String key = resource.getDescription();
+		if (!isValidKey(key)) {
+			return;
+		}
+		ManifestEntry entry;
+		try {
+			entry = new ManifestEntry(resource.lastModified(), resource.contentLength(), version);
+		}
+		catch (IOException ex) {
+			return;
+		}
+		ManifestEntry previous = this.entries.put(key, entry);
+		if (this.file != null && !entry.equals(previous)) {
+			append(key, entry);
+		}
+	}
+
+	/**
+	 * 返回清单中的条目数.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+
+	/**
+	 * 为给定资源生成清单文件, 供运行时通过{@link #ContentVersionManifest(Resource)}读取, 替换已有的文件.
+	 * 在构建时调用, e.g. 从构建脚本中调用.
+	 * <p>条目按资源描述进行匹配, 因此资源必须与运行时解析的方式相同,
+	 * e.g. 对于{@code classpath:/static/}下的资源, 使用{@code new ClassPathResource("static/app.js")}.
+	 * 描述无效的资源将被跳过.
+	 *
+	 * @param file 要写入的清单文件
+	 * @param resources 要计算版本的资源
+	 *
+	 * @throws IOException 如果无法读取资源或写入文件
+	 */
+	public static void writeManifest(File file, Resource... resources) throws IOException {
+		Assert.notNull(file, "File must not be null");
+		ContentVersionStrategy versionStrategy = new ContentVersionStrategy();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), ENCODING);
+		try {
+			for (Resource resource : resources) {
+				String key = resource.getDescription();
+				if (isValidKey(key)) {
+					writeEntry(writer, key, new ManifestEntry(resource.lastModified(), resource.contentLength(),
+							versionStrategy.getResourceVersion(resource)));
+				}
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private static boolean isValidKey(String key) {
+		return (StringUtils.hasText(key) && !key.contains(SEPARATOR) && !key.contains("\n") && !key.contains("\r"));
+	}
+
+
+	/**
+	 * 读取给定清单中的条目.
+	 *
+	 * @return 读取的有效条目行数
+	 */
+	private int load(Resource resource) {
+		int count = 0;
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), ENCODING));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+						continue;
+					}
+					String[] fields = StringUtils.delimitedListToStringArray(line, SEPARATOR);
+					if (fields.length != 4 || !StringUtils.hasText(fields[3])) {
+						continue;
+					}
+					try {
+						ManifestEntry entry = new ManifestEntry(
+								Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+						this.entries.put(fields[0], entry);
+						count++;
+					}
+					catch (NumberFormatException ex) {
+						// 忽略格式不正确的行
+					}
+				}
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not read content version manifest " + resource + ": " + ex);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded " + this.entries.size() + " content version(s) from " + resource);
+		}
+		return count;
+	}
+
+	private void append(String key, ManifestEntry entry) {
+		synchronized (this.writeMonitor) {
+			try {
+				Writer writer = new OutputStreamWriter(new FileOutputStream(this.file, true), ENCODING);
+				try {
+					writeEntry(writer, key, entry);
+				}
+				finally {
+					writer.close();
+				}
+			}
+			catch (IOException ex) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Could not write content version manifest " + this.file + ": " + ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 重写清单文件, 仅保留每个资源的最新条目.
+	 * 先写入临时文件, 以便中断的写入永远不会留下不完整的清单.
+	 */
+	private void compact() {
+		synchronized (this.writeMonitor) {
+			File tempFile = null;
+			try {
+				tempFile = File.createTempFile("manifest", ".tmp", this.file.getAbsoluteFile().getParentFile());
+				Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), ENCODING);
+				try {
+					for (Map.Entry<String, ManifestEntry> entry : this.entries.entrySet()) {
+						writeEntry(writer, entry.getKey(), entry.getValue());
+					}
+				}
+				finally {
+					writer.close();
+				}
+				if (!this.file.delete() || !tempFile.renameTo(this.file)) {
+					throw new IOException("Could not replace " + this.file);
+				}
+			}
+			catch (IOException ex) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Could not compact content version manifest " + this.file + ": " + ex);
+				}
+			}
+			finally {
+				if (tempFile != null) {
+					tempFile.delete();
+				}
+			}
+		}
+	}
+
+	private static void writeEntry(Writer writer, String key, ManifestEntry entry) throws IOException {
+		writer.write(key + SEPARATOR + entry.lastModified + SEPARATOR + entry.length + SEPARATOR + entry.version + "\n");
+	}
+
+
+	private static class ManifestEntry {
+
+		private final long lastModified;
+
+		private final long length;
+
+		private final String version;
+
+		public ManifestEntry(long lastModified, long length, String version) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.version = version;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ManifestEntry)) {
+				return false;
+			}
+			ManifestEntry otherEntry = (ManifestEntry) other;
+			return (this.lastModified == otherEntry.lastModified && this.length == otherEntry.length &&
+					this.version.equals(otherEntry.version));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.version.hashCode();
+		}
+	}
+
+}
@@ -1,26 +1,77 @@
 package org.springframework.web.servlet.resource;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.springframework.core.io.Resource;
 import org.springframework.util.DigestUtils;
-import org.springframework.util.FileCopyUtils;
 
 /**
  * 一个{@code VersionStrategy}, 它根据资源的内容计算Hex MD5哈希并将其附加到文件名,
  * e.g. {@code "styles/main-e36d2e05253c6c7085a91522ce43a0b4.css"}.
+ *
+ * <p>如果配置了{@link ContentVersionManifest}, 则首先在清单中查找版本,
+ * 仅当资源不在清单中或已更改时才读取资源内容.
  */
 public class ContentVersionStrategy extends AbstractVersionStrategy {
 
+	private ContentVersionManifest versionManifest;
+
+
 	public ContentVersionStrategy() {
 		super(new FileNameVersionPathStrategy());
 	}
 
+	/**
+	 * @param versionManifest 用于查找和记录版本的清单
+	 */
+	public ContentVersionStrategy(ContentVersionManifest versionManifest) {
+		this();
+		this.versionManifest = versionManifest;
+	}
+
+
+	/**
+	 * 设置用于查找和记录版本的清单.
+	 * <p>默认未设置, 即始终根据资源的内容计算版本.
+	 */
+	public void setVersionManifest(ContentVersionManifest versionManifest) {
+		this.versionManifest = versionManifest;
+	}
+
+	/**
+	 * 返回配置的清单, 或{@code null}.
+	 */
+	public ContentVersionManifest getVersionManifest() {
+		return this.versionManifest;
+	}
+
+
 	@Override
 	public String getResourceVersion(Resource resource) {
+		ContentVersionManifest manifest = this.versionManifest;
+		if (manifest != null) {
+			String version = manifest.getVersion(resource);
+			if (version != null) {
+				return version;
+			}
+		}
+		String version = computeVersion(resource);
+		if (manifest != null) {
+			manifest.putVersion(resource, version);
+		}
+		return version;
+	}
+
+	private String computeVersion(Resource resource) {
 		try {
-			byte[] content = FileCopyUtils.copyToByteArray(resource.getInputStream());
-			return DigestUtils.md5DigestAsHex(content);
+			InputStream inputStream = resource.getInputStream();
+			try {
+				return DigestUtils.md5DigestAsHex(inputStream);
+			}
+			finally {
+				inputStream.close();
+			}
 		}
 		catch (IOException ex) {
 			throw new IllegalStateException("Failed to calculate hash for " + resource, ex);
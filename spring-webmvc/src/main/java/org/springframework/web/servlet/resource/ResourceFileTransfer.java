@@ -0,0 +1,290 @@
+package org.springframework.web.servlet.resource;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * 将文件系统中的资源内容写入响应, 不经过
+ * {@link org.springframework.http.converter.ResourceHttpMessageConverter}的阻塞复制循环.
+ * 由{@link ResourceHttpRequestHandler}使用.
+ *
+ * <p>根据容器的能力, 按以下顺序选择传输方式:
+ * <ol>
+ * <li>如果容器支持Tomcat的sendfile, 将文件交给容器, 由其以零复制方式发送.
+ * <li>如果响应流本身是{@link WritableByteChannel}, 通过{@link FileChannel#transferTo}直接传输.
+ * <li>在Servlet 3.1容器中, 启动异步处理, 并由{@link WriteListener}在响应流就绪时写入,
+ * 因此慢速客户端不会占用请求线程.
+ * </ol>
+ * 如果响应内容被缓存 (e.g. 由{@link org.springframework.web.filter.ShallowEtagHeaderFilter}),
+ * 则不使用任何传输方式, 因为内容必须经过包装的响应. 如果请求或响应被包装, 则不使用sendfile,
+ * 因为容器会绕过包装器直接发送文件.
+ */
+final class ResourceFileTransfer {
+
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+	// Servlet 3.1 WriteListener available?
+	private static final boolean writeListenerAvailable =
+			ClassUtils.isPresent("javax.servlet.WriteListener", ResourceFileTransfer.class.getClassLoader());
+
+	private static final int ASYNC_BUFFER_SIZE = 64 * 1024;
+
+	private static final Log logger = LogFactory.getLog(ResourceFileTransfer.class);
+
+
+	private final HttpServletRequest request;
+
+	private final HttpServletResponse response;
+
+	private final boolean sendfile;
+
+	private final WritableByteChannel channel;
+
+	private final long asyncTimeout;
+
+
+	private ResourceFileTransfer(HttpServletRequest request, HttpServletResponse response,
+			boolean sendfile, WritableByteChannel channel, long asyncTimeout) {
+
+		this.request = request;
+		this.response = response;
+		this.sendfile = sendfile;
+		this.channel = channel;
+		this.asyncTimeout = asyncTimeout;
+	}
+
+
+	/**
+	 * 确定给定请求可用的传输方式.
+	 *
+	 * @param request 当前的请求
+	 * @param response 当前的响应
+	 * @param useFileChannel 是否允许sendfile和{@link FileChannel#transferTo}
+	 * @param useAsync 是否允许异步写入
+	 * @param asyncTimeout 异步写入的超时时间, 以毫秒为单位
+	 *
+	 * @return 传输, 或{@code null} 如果没有可用的传输方式
+	 */
+	public static ResourceFileTransfer forRequest(HttpServletRequest request, HttpServletResponse response,
+			boolean useFileChannel, boolean useAsync, long asyncTimeout) throws IOException {
+
+		if (WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) != null) {
+			return null;
+		}
+		if (useFileChannel) {
+			if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) &&
+					!(request instanceof ServletRequestWrapper) && !(response instanceof ServletResponseWrapper)) {
+				return new ResourceFileTransfer(request, response, true, null, asyncTimeout);
+			}
+			OutputStream out = response.getOutputStream();
+			if (out instanceof WritableByteChannel) {
+				return new ResourceFileTransfer(request, response, false, (WritableByteChannel) out, asyncTimeout);
+			}
+		}
+		if (useAsync && writeListenerAvailable && request.isAsyncSupported()) {
+			return new ResourceFileTransfer(request, response, false, null, asyncTimeout);
+		}
+		return null;
+	}
+
+	/**
+	 * 返回给定资源在文件系统中的文件, 或{@code null}.
+	 */
+	public static File getFile(Resource resource) {
+		try {
+			return resource.getFile();
+		}
+		catch (IOException ex) {
+			return null;
+		}
+		catch (UnsupportedOperationException ex) {
+			// e.g. 非默认文件系统中的PathResource
+			return null;
+		}
+	}
+
+
+	/**
+	 * 传输给定文件的给定范围. 调用之前必须设置所有响应header.
+	 *
+	 * @param file 要传输的文件
+	 * @param position 要传输的第一个字节的位置
+	 * @param count 要传输的字节数
+	 */
+	public void transfer(File file, long position, long count) throws IOException {
+		if (this.sendfile) {
+			this.request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+			this.request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+			this.request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+		}
+		else if (this.channel != null) {
+			FileInputStream in = new FileInputStream(file);
+			try {
+				FileChannel fileChannel = in.getChannel();
+				long transferred = 0;
+				while (transferred < count) {
+					long bytes = fileChannel.transferTo(position + transferred, count - transferred, this.channel);
+					if (bytes <= 0) {
+						throw new EOFException("Unexpected end of file: " + file);
+					}
+					transferred += bytes;
+				}
+			}
+			finally {
+				closeQuietly(in);
+			}
+		}
+		else {
+			AsyncFileWriter.start(this.request, this.response, file, position, count, this.asyncTimeout);
+		}
+	}
+
+	private static void closeQuietly(FileInputStream in) {
+		try {
+			in.close();
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+
+	/**
+	 * 在响应流就绪时写入文件内容的{@link WriteListener}.
+	 * 在单独的类中, 以避免在Servlet 3.1之前的容器中加载{@code WriteListener}.
+	 */
+	private static class AsyncFileWriter implements WriteListener {
+
+		private final AsyncContext asyncContext;
+
+		private final ServletOutputStream out;
+
+		private final FileInputStream in;
+
+		private final ByteBuffer buffer;
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		private long position;
+
+		private volatile long remaining;
+
+		private AsyncFileWriter(AsyncContext asyncContext, ServletOutputStream out, FileInputStream in,
+				long position, long count) {
+
+			this.asyncContext = asyncContext;
+			this.out = out;
+			this.in = in;
+			this.buffer = ByteBuffer.allocate((int) Math.min(ASYNC_BUFFER_SIZE, Math.max(count, 1)));
+			this.position = position;
+			this.remaining = count;
+		}
+
+		/**
+		 * 启动异步处理并注册写入器. 通过{@link WebAsyncManager}启动,
+		 * 以便{@code DispatcherServlet}和过滤器将请求视为异步处理, 而不是已完成.
+		 * 如果在给定的超时时间内未写完, 则关闭文件并结束异步处理, 以免停滞的客户端无限期地占用连接.
+		 */
+		static void start(HttpServletRequest request, HttpServletResponse response,
+				File file, long position, long count, long timeout) throws IOException {
+
+			FileInputStream in = new FileInputStream(file);
+			boolean registered = false;
+			try {
+				WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+				AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, response);
+				asyncWebRequest.setTimeout(timeout);
+				asyncManager.setAsyncWebRequest(asyncWebRequest);
+				asyncWebRequest.startAsync();
+				AsyncContext asyncContext = request.getAsyncContext();
+				ServletOutputStream out = response.getOutputStream();
+				final AsyncFileWriter writer = new AsyncFileWriter(asyncContext, out, in, position, count);
+				asyncWebRequest.addTimeoutHandler(new Runnable() {
+					@Override
+					public void run() {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Async write of resource content timed out with " +
+									writer.remaining + " bytes remaining");
+						}
+						writer.complete();
+					}
+				});
+				out.setWriteListener(writer);
+				registered = true;
+			}
+			finally {
+				if (!registered) {
+					closeQuietly(in);
+				}
+			}
+		}
+
+		@Override
+		public void onWritePossible() throws IOException {
+			while (this.out.isReady()) {
+				if (this.remaining <= 0) {
+					complete();
+					return;
+				}
+				this.buffer.clear();
+				this.buffer.limit((int) Math.min(this.buffer.capacity(), this.remaining));
+				int bytes = this.in.getChannel().read(this.buffer, this.position);
+				if (bytes < 0) {
+					logger.debug("Unexpected end of file while writing resource content");
+					complete();
+					return;
+				}
+				this.out.write(this.buffer.array(), 0, bytes);
+				this.position += bytes;
+				this.remaining -= bytes;
+			}
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to write resource content: " + ex);
+			}
+			complete();
+		}
+
+		private void complete() {
+			if (this.completed.compareAndSet(false, true)) {
+				closeQuietly(this.in);
+				this.asyncContext.complete();
+			}
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -64,6 +65,9 @@ import org.springframework.web.util.UrlPathHelper;
  *
  * <p>此处理器还正确评估{@code Last-Modified} header, 以便根据需要返回{@code 304}状态代码,
  * 从而避免已在客户端缓存的资源的不必要开销.
+ *
+ * <p>对于文件系统中的资源, 可以通过{@link #setUseFileChannelTransfer}和{@link #setUseAsyncTransfer}
+ * 启用不经过阻塞复制循环的传输方式, 适用于大型下载和范围请求.
  */
 public class ResourceHttpRequestHandler extends WebContentGenerator
 		implements HttpRequestHandler, EmbeddedValueResolverAware, InitializingBean, CorsConfigurationSource {
@@ -76,6 +80,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	private static final long DEFAULT_ASYNC_TRANSFER_TIMEOUT = 10 * 60 * 1000;
+
 
 	private final List<String> locationValues = new ArrayList<String>(4);
 
@@ -101,6 +107,12 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private StringValueResolver embeddedValueResolver;
 
+	private boolean useFileChannelTransfer = false;
+
+	private boolean useAsyncTransfer = false;
+
+	private long asyncTransferTimeout = DEFAULT_ASYNC_TRANSFER_TIMEOUT;
+
 
 	public ResourceHttpRequestHandler() {
 		super(HttpMethod.GET.name(), HttpMethod.HEAD.name());
@@ -254,6 +266,55 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		this.embeddedValueResolver = resolver;
 	}
 
+	/**
+	 * 是否以零复制方式传输文件系统中的资源: 如果容器支持Tomcat的sendfile, 则将文件交给容器,
+	 * 如果响应流是{@link java.nio.channels.WritableByteChannel}, 则通过
+	 * {@link java.nio.channels.FileChannel#transferTo}传输.
+	 * <p>适用于完整的资源和单个范围请求. 默认{@code false}.
+	 */
+	public void setUseFileChannelTransfer(boolean useFileChannelTransfer) {
+		this.useFileChannelTransfer = useFileChannelTransfer;
+	}
+
+	/**
+	 * 是否以零复制方式传输文件系统中的资源.
+	 */
+	public boolean isUseFileChannelTransfer() {
+		return this.useFileChannelTransfer;
+	}
+
+	/**
+	 * 如果无法以零复制方式传输, 是否在Servlet 3.1容器中异步写入文件系统中的资源:
+	 * 请求线程立即返回, 内容由{@code WriteListener}在响应流就绪时写入, 因此慢速客户端不会占用请求线程.
+	 * <p>需要为servlet和所有相关的过滤器启用异步支持. 默认{@code false}.
+	 */
+	public void setUseAsyncTransfer(boolean useAsyncTransfer) {
+		this.useAsyncTransfer = useAsyncTransfer;
+	}
+
+	/**
+	 * 是否异步写入文件系统中的资源.
+	 */
+	public boolean isUseAsyncTransfer() {
+		return this.useAsyncTransfer;
+	}
+
+	/**
+	 * 设置异步写入资源的超时时间, 以毫秒为单位. 超时后关闭文件并结束请求, 即使内容尚未写完.
+	 * <p>默认 10 分钟. 对于非常大的资源或慢速客户端, 可能需要增加.
+	 */
+	public void setAsyncTransferTimeout(long asyncTransferTimeout) {
+		Assert.isTrue(asyncTransferTimeout > 0, "Async transfer timeout must be greater than 0");
+		this.asyncTransferTimeout = asyncTransferTimeout;
+	}
+
+	/**
+	 * 返回异步写入资源的超时时间, 以毫秒为单位.
+	 */
+	public long getAsyncTransferTimeout() {
+		return this.asyncTransferTimeout;
+	}
+
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -389,6 +450,13 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		// 支持的方法和所需的会话
 		checkRequest(request);
 
+		// 编码的资源和可压缩资源的表示形式取决于"Accept-Encoding", 即使此次响应未压缩;
+		// 在检查是否修改之前设置, 以便304响应也包含该header
+		if (resource instanceof EncodedResource ||
+				request.getAttribute(CompressingResourceTransformer.COMPRESSIBLE_RESOURCE_ATTRIBUTE) != null) {
+			response.addHeader(HttpHeaders.VARY, "Accept-Encoding");
+		}
+
 		// Header phase
 		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
 			logger.trace("Resource not modified - returning 304");
@@ -418,10 +486,21 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			return;
 		}
 
+		ResourceFileTransfer fileTransfer = getFileTransfer(request, response);
+		File file = (fileTransfer != null ? ResourceFileTransfer.getFile(resource) : null);
+
 		ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			setHeaders(response, resource, mediaType);
-			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			if (file != null) {
+				if (mediaType == null) {
+					response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+				}
+				fileTransfer.transfer(file, 0, resource.contentLength());
+			}
+			else {
+				this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
+			}
 		}
 		else {
 			response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
@@ -431,7 +510,12 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
 				if (httpRanges.size() == 1) {
 					ResourceRegion resourceRegion = httpRanges.get(0).toResourceRegion(resource);
-					this.resourceRegionHttpMessageConverter.write(resourceRegion, mediaType, outputMessage);
+					if (file != null) {
+						transferRegion(resourceRegion, mediaType, response, fileTransfer, file);
+					}
+					else {
+						this.resourceRegionHttpMessageConverter.write(resourceRegion, mediaType, outputMessage);
+					}
 				}
 				else {
 					this.resourceRegionHttpMessageConverter.write(
@@ -445,6 +529,32 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	private ResourceFileTransfer getFileTransfer(HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+
+		if (!this.useFileChannelTransfer && !this.useAsyncTransfer) {
+			return null;
+		}
+		return ResourceFileTransfer.forRequest(request, response, this.useFileChannelTransfer, this.useAsyncTransfer,
+				this.asyncTransferTimeout);
+	}
+
+	/**
+	 * 设置单个范围的header, 与{@link ResourceRegionHttpMessageConverter}相同, 并传输范围的内容.
+	 */
+	private void transferRegion(ResourceRegion region, MediaType mediaType, HttpServletResponse response,
+			ResourceFileTransfer fileTransfer, File file) throws IOException {
+
+		long start = region.getPosition();
+		long resourceLength = region.getResource().contentLength();
+		long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+		long rangeLength = end - start + 1;
+		response.setContentType(mediaType != null ? mediaType.toString() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+		response.setHeader("Content-Range", "bytes " + start + '-' + end + '/' + resourceLength);
+		response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(rangeLength));
+		fileTransfer.transfer(file, start, rangeLength);
+	}
+
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
 		if (path == null) {
@@ -74,6 +74,22 @@ public class VersionResourceResolver extends AbstractResourceResolver {
 		return this;
 	}
 
+	/**
+	 * {@link #addContentVersionStrategy(String...)}的变体, 它首先在给定的清单中查找版本,
+	 * 以便未更改的资源的URL无需在运行时计算内容哈希即可解析.
+	 *
+	 * @param versionManifest 用于查找和记录版本的清单
+	 * @param pathPatterns 一个或多个资源URL路径模式, 相对于使用资源处理器配置的模式
+	 *
+	 * @return 链式方法调用的当前实例
+	 */
+	public VersionResourceResolver addContentVersionStrategy(ContentVersionManifest versionManifest,
+			String... pathPatterns) {
+
+		addVersionStrategy(new ContentVersionStrategy(versionManifest), pathPatterns);
+		return this;
+	}
+
 	/**
 	 * 与给定路径模式匹配的资源URL中插入固定的基于前缀的版本, 例如: <code>"{version}/js/main.js"</code>.
 	 * 使用JavaScript模块加载器时, 这很有用 (与基于内容的版本相比).